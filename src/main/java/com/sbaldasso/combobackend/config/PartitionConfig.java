@@ -0,0 +1,15 @@
+package com.sbaldasso.combobackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.partitions")
+@Data
+public class PartitionConfig {
+  /**
+   * Monthly partitions of deliveries and notifications kept created ahead of the current month.
+   */
+  private int monthsAhead = 3;
+}
@@ -0,0 +1,71 @@
+package com.sbaldasso.combobackend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Creates the monthly {@code created_at} partitions of {@code deliveries} and
+ * {@code notifications} ahead of time, so new rows never land in the DEFAULT
+ * partitions. Tables that are not partitioned (e.g. a schema baselined from
+ * an older database) are left alone.
+ */
+@Slf4j
+@Component
+public class PartitionMaintenance {
+
+  private static final List<String> PARTITIONED_TABLES = List.of("deliveries", "notifications");
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final PartitionConfig config;
+
+  public PartitionMaintenance(JdbcTemplate jdbcTemplate, PartitionConfig partitionConfig) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.config = partitionConfig;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${app.partitions.cron:0 0 2 * * *}")
+  public void createUpcomingPartitions() {
+    LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+    for (String table : PARTITIONED_TABLES) {
+      if (!isPartitioned(table)) {
+        continue;
+      }
+      for (int i = 0; i <= config.getMonthsAhead(); i++) {
+        createPartition(table, currentMonth.plusMonths(i));
+      }
+    }
+  }
+
+  private void createPartition(String table, LocalDate month) {
+    String partition = table + "_p" + month.format(PARTITION_SUFFIX);
+    try {
+      jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table
+          + " FOR VALUES FROM ('" + month + "') TO ('" + month.plusMonths(1) + "')");
+    } catch (DataAccessException e) {
+      // Typically rows for that month already sit in the DEFAULT partition.
+      log.error("Could not create partition {}", partition, e);
+    }
+  }
+
+  private boolean isPartitioned(String table) {
+    try {
+      Integer count = jdbcTemplate.queryForObject(
+          "SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid WHERE c.relname = ?",
+          Integer.class, table);
+      return count != null && count > 0;
+    } catch (DataAccessException e) {
+      return false;
+    }
+  }
+}
@@ -12,8 +12,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
   @Override
   public void configureMessageBroker(MessageBrokerRegistry config) {
-    config.enableSimpleBroker("/topic");
+    config.enableSimpleBroker("/topic", "/queue");
     config.setApplicationDestinationPrefixes("/app");
+    config.setUserDestinationPrefix("/user");
+    // Keep frames to one session in the order they were sent.
+    config.setPreservePublishOrder(true);
   }
 
   @Override
@@ -3,6 +3,7 @@ package com.sbaldasso.combobackend.modules.auth.config;
 import com.sbaldasso.combobackend.modules.auth.filter.JwtAuthenticationFilter;
 import com.sbaldasso.combobackend.modules.auth.service.JwtService;
 import com.sbaldasso.combobackend.modules.user.repository.UserRepository;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -44,6 +45,8 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .authorizeHttpRequests(auth -> auth
+                // Completion dispatches of SSE streams; the request was authorized when it opened.
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/v1/auth/**").permitAll()
                 .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                 .anyRequest().authenticated()
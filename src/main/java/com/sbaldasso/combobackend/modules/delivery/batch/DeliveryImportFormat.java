@@ -0,0 +1,19 @@
+package com.sbaldasso.combobackend.modules.delivery.batch;
+
+/**
+ * Layouts accepted for a bulk import upload.
+ *
+ * <p>CSV files start with a header line and carry the columns in
+ * {@link #CSV_COLUMNS} order. JSON-lines files hold one
+ * {@code CreateDeliveryRequest} object per line.
+ */
+public enum DeliveryImportFormat {
+  CSV,
+  JSONL;
+
+  public static final String[] CSV_COLUMNS = {
+      "pickupAddress", "deliveryAddress",
+      "pickupLatitude", "pickupLongitude", "deliveryLatitude", "deliveryLongitude",
+      "price", "description"
+  };
+}
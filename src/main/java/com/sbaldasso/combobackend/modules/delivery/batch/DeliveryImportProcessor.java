@@ -0,0 +1,70 @@
+package com.sbaldasso.combobackend.modules.delivery.batch;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.dto.CreateDeliveryRequest;
+import com.sbaldasso.combobackend.modules.geocoding.domain.GeoPoint;
+import com.sbaldasso.combobackend.modules.geocoding.service.GeocodingService;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Validates an imported row with the same constraints as the single-delivery
+ * endpoint and turns it into a pending delivery of the importing customer,
+ * geocoding the ends that came without coordinates.
+ */
+@RequiredArgsConstructor
+public class DeliveryImportProcessor implements ItemProcessor<CreateDeliveryRequest, Delivery> {
+
+  private final Validator validator;
+  private final GeocodingService geocodingService;
+  private final UUID customerId;
+
+  @Override
+  public Delivery process(CreateDeliveryRequest row) {
+    Set<ConstraintViolation<CreateDeliveryRequest>> violations = validator.validate(row);
+    if (!violations.isEmpty()) {
+      throw new InvalidImportRowException(violations.stream()
+          .map(ConstraintViolation::getMessage)
+          .sorted()
+          .collect(Collectors.joining("; ")));
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    Delivery delivery = new Delivery();
+    delivery.setId(UUID.randomUUID());
+    delivery.setCustomer(new User(customerId));
+    delivery.setPickupAddress(row.getPickupAddress());
+    delivery.setDeliveryAddress(row.getDeliveryAddress());
+    coordinatesOf(row.getPickupAddress(), row.getPickupLatitude(), row.getPickupLongitude()).ifPresent(point -> {
+      delivery.setPickupLatitude(point.getLatitude());
+      delivery.setPickupLongitude(point.getLongitude());
+    });
+    coordinatesOf(row.getDeliveryAddress(), row.getDeliveryLatitude(), row.getDeliveryLongitude()).ifPresent(point -> {
+      delivery.setDeliveryLatitude(point.getLatitude());
+      delivery.setDeliveryLongitude(point.getLongitude());
+    });
+    delivery.setPrice(row.getPrice());
+    delivery.setDescription(row.getDescription());
+    delivery.setStatus(DeliveryStatus.PENDING);
+    delivery.setCreatedAt(now);
+    delivery.setUpdatedAt(now);
+    return delivery;
+  }
+
+  private Optional<GeoPoint> coordinatesOf(String address, Double latitude, Double longitude) {
+    if (latitude != null && longitude != null) {
+      return Optional.of(new GeoPoint(latitude, longitude));
+    }
+    return geocodingService.geocode(address);
+  }
+}
@@ -0,0 +1,111 @@
+package com.sbaldasso.combobackend.modules.delivery.batch;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxType;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryEventLog;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryOutbox;
+import com.sbaldasso.combobackend.modules.dispatch.service.DispatchEngine;
+import com.sbaldasso.combobackend.modules.heatmap.service.HeatmapService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts a chunk of imported deliveries, their creation events and, for the
+ * ones the dispatch engine cannot take, BROADCAST outbox events, with one
+ * JDBC batch per table. The broadcast is therefore delivered if and only if
+ * the chunk commits, as for deliveries created one by one, and the outbox
+ * dispatcher fans the chunk's broadcasts out together rather than one
+ * notification transaction per delivery.
+ *
+ * <p>The writer is also the step's {@link ChunkListener}: once the chunk has
+ * committed, its deliveries are handed to the heatmap and the dispatch engine.
+ * Nothing is announced for a chunk that rolls back.
+ */
+@RequiredArgsConstructor
+public class DeliveryImportWriter implements ItemWriter<Delivery>, ChunkListener {
+
+  private static final String INSERT_DELIVERY_SQL = """
+      INSERT INTO deliveries (id, customer_id, pickup_address, delivery_address, pickup_latitude, pickup_longitude,
+                              delivery_latitude, delivery_longitude, price, status, description, created_at, updated_at)
+      VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+  private static final String INSERT_EVENT_SQL = """
+      INSERT INTO delivery_events (delivery_id, to_status, actor_id, occurred_at, payload)
+      VALUES (?, ?, ?, ?, ?)""";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DeliveryEventLog deliveryEventLog;
+  private final HeatmapService heatmapService;
+  private final DispatchEngine dispatchEngine;
+  private final DeliveryOutbox deliveryOutbox;
+  private final List<Delivery> written = new ArrayList<>();
+
+  @Override
+  public void write(Chunk<? extends Delivery> chunk) {
+    List<? extends Delivery> deliveries = chunk.getItems();
+    if (deliveries.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(INSERT_DELIVERY_SQL, deliveries, deliveries.size(), (ps, delivery) -> {
+      ps.setObject(1, delivery.getId());
+      ps.setObject(2, delivery.getCustomer().getId());
+      ps.setString(3, delivery.getPickupAddress());
+      ps.setString(4, delivery.getDeliveryAddress());
+      setNullableDouble(ps, 5, delivery.getPickupLatitude());
+      setNullableDouble(ps, 6, delivery.getPickupLongitude());
+      setNullableDouble(ps, 7, delivery.getDeliveryLatitude());
+      setNullableDouble(ps, 8, delivery.getDeliveryLongitude());
+      ps.setBigDecimal(9, delivery.getPrice());
+      ps.setString(10, delivery.getStatus().name());
+      ps.setString(11, delivery.getDescription());
+      ps.setTimestamp(12, Timestamp.valueOf(delivery.getCreatedAt()));
+      ps.setTimestamp(13, Timestamp.valueOf(delivery.getUpdatedAt()));
+    });
+    jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, deliveries, deliveries.size(), (ps, delivery) -> {
+      ps.setObject(1, delivery.getId());
+      ps.setString(2, delivery.getStatus().name());
+      ps.setObject(3, delivery.getCustomer().getId());
+      ps.setTimestamp(4, Timestamp.valueOf(delivery.getCreatedAt()));
+      ps.setString(5, deliveryEventLog.creationPayload(delivery));
+    });
+    deliveryOutbox.appendAll(deliveries.stream().filter(delivery -> !dispatchEngine.canDispatch(delivery)).toList(),
+        DeliveryOutboxType.BROADCAST);
+    written.addAll(deliveries);
+  }
+
+  @Override
+  public void afterChunk(ChunkContext context) {
+    if (written.isEmpty()) {
+      return;
+    }
+    for (Delivery delivery : written) {
+      heatmapService.demandOpened(delivery);
+      dispatchEngine.submit(delivery);
+    }
+    written.clear();
+  }
+
+  @Override
+  public void afterChunkError(ChunkContext context) {
+    written.clear();
+  }
+
+  private static void setNullableDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+    if (value == null) {
+      ps.setNull(index, Types.DOUBLE);
+    } else {
+      ps.setDouble(index, value);
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.sbaldasso.combobackend.modules.delivery.batch;
+
+/**
+ * A row that fails the {@code CreateDeliveryRequest} constraints. The import
+ * skips it and counts it instead of failing.
+ */
+public class InvalidImportRowException extends IllegalArgumentException {
+
+  public InvalidImportRowException(String message) {
+    super(message);
+  }
+}
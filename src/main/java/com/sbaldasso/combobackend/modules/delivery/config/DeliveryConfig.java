@@ -0,0 +1,112 @@
+package com.sbaldasso.combobackend.modules.delivery.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.delivery")
+@Data
+public class DeliveryConfig {
+  private Eta eta = new Eta();
+  private BulkImport bulkImport = new BulkImport();
+  private Archive archive = new Archive();
+  private Stream stream = new Stream();
+  private Outbox outbox = new Outbox();
+
+  @Data
+  public static class Eta {
+    private boolean enabled = true;
+    private double defaultSpeedKmh = 25.0;
+    private double minSpeedKmh = 8.0;
+    private double maxSpeedKmh = 60.0;
+    private double speedSmoothing = 0.3;
+    private double detourFactor = 1.3;
+    private int pickupDwellSeconds = 180;
+    private int pushThresholdSeconds = 15;
+    private int persistThresholdSeconds = 60;
+    /**
+     * How often estimates that moved past the persist threshold are written, in one batch.
+     */
+    private long persistIntervalMs = 5000;
+  }
+
+  @Data
+  public static class BulkImport {
+    /**
+     * Rows per chunk: one transaction, one JDBC batch and one dispatch round.
+     */
+    private int chunkSize = 500;
+    /**
+     * Invalid rows tolerated before the import fails.
+     */
+    private int skipLimit = 1000;
+    /**
+     * Where uploads are kept until their import completes, so a failed one can be restarted.
+     */
+    private String stagingDir = System.getProperty("java.io.tmpdir") + "/delivery-imports";
+    private int maxConcurrentImports = 2;
+  }
+
+  @Data
+  public static class Archive {
+    private boolean enabled = true;
+    /**
+     * Delivered and cancelled deliveries created longer ago than this are archived.
+     */
+    private int retentionDays = 90;
+    /**
+     * Rows moved per statement; each chunk is its own short transaction.
+     */
+    private int chunkSize = 1000;
+    /**
+     * Upper bound of chunks per run, so a large backlog is spread over several nights.
+     */
+    private int maxChunksPerRun = 500;
+    /**
+     * Pause between chunks, to leave I/O and replication room for live traffic.
+     */
+    private long pauseMillis = 50;
+  }
+
+  @Data
+  public static class Stream {
+    /**
+     * Lifetime of a tracking stream; clients reconnect and get a fresh snapshot.
+     */
+    private long timeoutMinutes = 30;
+    /**
+     * Comment frames sent on quiet streams, so proxies do not drop them as idle.
+     */
+    private long heartbeatMillis = 15000;
+    /**
+     * Events queued for a connection that is not keeping up; once full it is closed.
+     */
+    private int bufferSize = 32;
+    /**
+     * Minimum time between two driver positions pushed for the same delivery.
+     */
+    private long positionIntervalMillis = 2000;
+    private int senderThreads = 2;
+  }
+
+  @Data
+  public static class Outbox {
+    private boolean enabled = true;
+    private long pollIntervalMs = 500;
+    /**
+     * Events locked and delivered per transaction.
+     */
+    private int batchSize = 200;
+    /**
+     * Upper bound of batches per poll, so one node does not hold the scheduler thread forever.
+     */
+    private int maxBatchesPerRun = 20;
+    /**
+     * Failed deliveries are retried with exponential backoff up to this many attempts, then parked.
+     */
+    private int maxAttempts = 10;
+    private long retryBackoffMillis = 1000;
+    private long maxRetryBackoffMillis = 300000;
+  }
+}
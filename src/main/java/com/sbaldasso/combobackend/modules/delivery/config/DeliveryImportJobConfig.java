@@ -0,0 +1,169 @@
+package com.sbaldasso.combobackend.modules.delivery.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sbaldasso.combobackend.modules.delivery.batch.DeliveryImportFormat;
+import com.sbaldasso.combobackend.modules.delivery.batch.DeliveryImportProcessor;
+import com.sbaldasso.combobackend.modules.delivery.batch.DeliveryImportWriter;
+import com.sbaldasso.combobackend.modules.delivery.batch.InvalidImportRowException;
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.dto.CreateDeliveryRequest;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryEventLog;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryOutbox;
+import com.sbaldasso.combobackend.modules.dispatch.service.DispatchEngine;
+import com.sbaldasso.combobackend.modules.geocoding.service.GeocodingService;
+import com.sbaldasso.combobackend.modules.heatmap.service.HeatmapService;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Chunk-oriented job importing a merchant's upload of deliveries.
+ *
+ * <p>The upload is staged on disk and read as a stream; the reader records
+ * the last committed line, so a failed import restarts where it stopped.
+ * Invalid rows are skipped and counted up to {@code skip-limit}. The staged
+ * file is removed once the import completes.
+ */
+@Slf4j
+@Configuration
+public class DeliveryImportJobConfig {
+
+  public static final String JOB_NAME = "deliveryImportJob";
+  public static final String FILE_PARAMETER = "file";
+  public static final String FORMAT_PARAMETER = "format";
+  public static final String CUSTOMER_PARAMETER = "customerId";
+
+  private ThreadPoolTaskExecutor importExecutor;
+
+  @Bean
+  public Job deliveryImportJob(JobRepository jobRepository, Step deliveryImportStep) {
+    return new JobBuilder(JOB_NAME, jobRepository)
+        .start(deliveryImportStep)
+        .listener(new JobExecutionListener() {
+          @Override
+          public void afterJob(JobExecution execution) {
+            if (execution.getStatus() == BatchStatus.COMPLETED) {
+              deleteStagedFile(execution.getJobParameters().getString(FILE_PARAMETER));
+            }
+          }
+        })
+        .build();
+  }
+
+  @Bean
+  public Step deliveryImportStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+      FlatFileItemReader<CreateDeliveryRequest> deliveryImportReader, DeliveryImportProcessor deliveryImportProcessor,
+      DeliveryImportWriter deliveryImportWriter, DeliveryConfig deliveryConfig) {
+    DeliveryConfig.BulkImport config = deliveryConfig.getBulkImport();
+    // The writer is also a ChunkListener; the builder registers it as one.
+    return new StepBuilder("deliveryImportStep", jobRepository)
+        .<CreateDeliveryRequest, Delivery>chunk(config.getChunkSize(), transactionManager)
+        .reader(deliveryImportReader)
+        .processor(deliveryImportProcessor)
+        .writer(deliveryImportWriter)
+        .faultTolerant()
+        .skip(FlatFileParseException.class)
+        .skip(InvalidImportRowException.class)
+        .noRollback(InvalidImportRowException.class)
+        .skipLimit(config.getSkipLimit())
+        .build();
+  }
+
+  @Bean
+  @StepScope
+  public FlatFileItemReader<CreateDeliveryRequest> deliveryImportReader(ObjectMapper objectMapper,
+      @Value("#{jobParameters['" + FILE_PARAMETER + "']}") String file,
+      @Value("#{jobParameters['" + FORMAT_PARAMETER + "']}") String format) {
+    FlatFileItemReaderBuilder<CreateDeliveryRequest> builder = new FlatFileItemReaderBuilder<CreateDeliveryRequest>()
+        .name("deliveryImportReader")
+        .resource(new FileSystemResource(file));
+    if (DeliveryImportFormat.valueOf(format) == DeliveryImportFormat.CSV) {
+      return builder
+          .linesToSkip(1)
+          .delimited()
+          .names(DeliveryImportFormat.CSV_COLUMNS)
+          .targetType(CreateDeliveryRequest.class)
+          .build();
+    }
+    return builder
+        .lineMapper((line, lineNumber) -> objectMapper.readValue(line, CreateDeliveryRequest.class))
+        .build();
+  }
+
+  @Bean
+  @StepScope
+  public DeliveryImportProcessor deliveryImportProcessor(Validator validator, GeocodingService geocodingService,
+      @Value("#{jobParameters['" + CUSTOMER_PARAMETER + "']}") String customerId) {
+    return new DeliveryImportProcessor(validator, geocodingService, UUID.fromString(customerId));
+  }
+
+  @Bean
+  @StepScope
+  public DeliveryImportWriter deliveryImportWriter(JdbcTemplate jdbcTemplate, DeliveryEventLog deliveryEventLog,
+      HeatmapService heatmapService, DispatchEngine dispatchEngine, DeliveryOutbox deliveryOutbox) {
+    return new DeliveryImportWriter(jdbcTemplate, deliveryEventLog, heatmapService, dispatchEngine, deliveryOutbox);
+  }
+
+  /**
+   * Runs imports off the request thread. Kept apart from the launcher used by
+   * Spring Boot so an upload returns as soon as its execution is created.
+   */
+  @Bean
+  public JobLauncher deliveryImportJobLauncher(JobRepository jobRepository, DeliveryConfig deliveryConfig)
+      throws Exception {
+    int threads = deliveryConfig.getBulkImport().getMaxConcurrentImports();
+    importExecutor = new ThreadPoolTaskExecutor();
+    importExecutor.setCorePoolSize(threads);
+    importExecutor.setMaxPoolSize(threads);
+    importExecutor.setThreadNamePrefix("delivery-import-");
+    importExecutor.setWaitForTasksToCompleteOnShutdown(true);
+    importExecutor.initialize();
+
+    TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+    launcher.setJobRepository(jobRepository);
+    launcher.setTaskExecutor(importExecutor);
+    launcher.afterPropertiesSet();
+    return launcher;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (importExecutor != null) {
+      importExecutor.shutdown();
+    }
+  }
+
+  private static void deleteStagedFile(String file) {
+    try {
+      Files.deleteIfExists(Path.of(file));
+    } catch (IOException e) {
+      log.warn("Could not delete staged import file {}", file, e);
+    }
+  }
+}
@@ -2,16 +2,22 @@ package com.sbaldasso.combobackend.modules.delivery.controller;
 
 import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
 import com.sbaldasso.combobackend.modules.delivery.dto.CreateDeliveryRequest;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryCursorPage;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryEventResponse;
 import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryResponse;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliverySearchCriteria;
 import com.sbaldasso.combobackend.modules.delivery.service.DeliveryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -37,6 +43,15 @@ public class DeliveryController {
     return ResponseEntity.ok(deliveryService.acceptDelivery(deliveryId, userId));
   }
 
+  @PostMapping("/{deliveryId}/decline")
+  @PreAuthorize("hasRole('DRIVER')")
+  public ResponseEntity<Void> declineDelivery(
+      @PathVariable UUID deliveryId,
+      @RequestAttribute UUID userId) {
+    deliveryService.declineDelivery(deliveryId, userId);
+    return ResponseEntity.ok().build();
+  }
+
   @PutMapping("/{deliveryId}/status")
   @PreAuthorize("hasRole('DRIVER')")
   public ResponseEntity<DeliveryResponse> updateDeliveryStatus(
@@ -54,9 +69,43 @@ public class DeliveryController {
     return ResponseEntity.ok(deliveryService.getDeliveriesForUser(userId, pageable));
   }
 
+  @GetMapping("/scroll")
+  @PreAuthorize("hasAnyRole('CUSTOMER', 'DRIVER', 'ADMIN')")
+  public ResponseEntity<DeliveryCursorPage> scrollDeliveries(
+      @RequestAttribute UUID userId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    return ResponseEntity.ok(deliveryService.scrollDeliveriesForUser(userId, cursor, size));
+  }
+
+  @GetMapping("/search")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<DeliveryCursorPage> searchDeliveries(
+      @ModelAttribute DeliverySearchCriteria criteria,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    return ResponseEntity.ok(deliveryService.searchDeliveries(criteria, cursor, size));
+  }
+
   @GetMapping("/{deliveryId}")
   @PreAuthorize("hasAnyRole('CUSTOMER', 'DRIVER', 'ADMIN')")
   public ResponseEntity<DeliveryResponse> getDelivery(@PathVariable UUID deliveryId) {
     return ResponseEntity.ok(deliveryService.getDeliveryResponseById(deliveryId));
   }
+
+  @GetMapping(value = "/{deliveryId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @PreAuthorize("hasAnyRole('CUSTOMER', 'DRIVER', 'ADMIN')")
+  public SseEmitter streamDelivery(
+      @PathVariable UUID deliveryId,
+      @RequestAttribute UUID userId) {
+    return deliveryService.openTrackingStream(deliveryId, userId);
+  }
+
+  @GetMapping("/{deliveryId}/timeline")
+  @PreAuthorize("hasAnyRole('CUSTOMER', 'DRIVER', 'ADMIN')")
+  public ResponseEntity<List<DeliveryEventResponse>> getDeliveryTimeline(
+      @PathVariable UUID deliveryId,
+      @RequestAttribute UUID userId) {
+    return ResponseEntity.ok(deliveryService.getDeliveryTimeline(deliveryId, userId));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.sbaldasso.combobackend.modules.delivery.controller;
+
+import com.sbaldasso.combobackend.modules.delivery.batch.DeliveryImportFormat;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryImportStatus;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/v1/deliveries/imports")
+@RequiredArgsConstructor
+public class DeliveryImportController {
+
+  private static final String CSV = "text/csv";
+  private static final String JSON_LINES = "application/x-ndjson";
+
+  private final DeliveryImportService deliveryImportService;
+
+  /**
+   * Accepts a CSV (with header) or JSON-lines body of deliveries and starts
+   * importing it in the background. Poll the returned import for progress.
+   */
+  @PostMapping(consumes = CSV)
+  @PreAuthorize("hasRole('CUSTOMER')")
+  public ResponseEntity<DeliveryImportStatus> importCsv(
+      @RequestAttribute UUID userId,
+      InputStream body) throws IOException {
+    return ResponseEntity.accepted().body(deliveryImportService.startImport(userId, DeliveryImportFormat.CSV, body));
+  }
+
+  @PostMapping(consumes = JSON_LINES)
+  @PreAuthorize("hasRole('CUSTOMER')")
+  public ResponseEntity<DeliveryImportStatus> importJsonLines(
+      @RequestAttribute UUID userId,
+      InputStream body) throws IOException {
+    return ResponseEntity.accepted().body(deliveryImportService.startImport(userId, DeliveryImportFormat.JSONL, body));
+  }
+
+  @GetMapping("/{importId}")
+  @PreAuthorize("hasRole('CUSTOMER')")
+  public ResponseEntity<DeliveryImportStatus> getImport(
+      @PathVariable Long importId,
+      @RequestAttribute UUID userId) {
+    return ResponseEntity.ok(deliveryImportService.getImportStatus(userId, importId));
+  }
+
+  @PostMapping("/{importId}/restart")
+  @PreAuthorize("hasRole('CUSTOMER')")
+  public ResponseEntity<DeliveryImportStatus> restartImport(
+      @PathVariable Long importId,
+      @RequestAttribute UUID userId) {
+    return ResponseEntity.accepted().body(deliveryImportService.restartImport(userId, importId));
+  }
+}
@@ -0,0 +1,67 @@
+package com.sbaldasso.combobackend.modules.delivery.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A finished delivery moved out of {@code deliveries} by the archiver. The row
+ * keeps the columns of {@link Delivery}, with plain user ids instead of
+ * foreign keys, plus the time it was archived.
+ */
+@Entity
+@Table(name = "deliveries_archive", indexes = {
+    @Index(name = "idx_deliveries_archive_customer_created", columnList = "customer_id, created_at")
+})
+@Data
+public class ArchivedDelivery {
+
+  @Id
+  private UUID id;
+
+  @Column(name = "customer_id", nullable = false)
+  private UUID customerId;
+
+  @Column(name = "driver_id")
+  private UUID driverId;
+
+  @Column(nullable = false)
+  private String pickupAddress;
+
+  @Column(nullable = false)
+  private String deliveryAddress;
+
+  private Double pickupLatitude;
+
+  private Double pickupLongitude;
+
+  private Double deliveryLatitude;
+
+  private Double deliveryLongitude;
+
+  @Column(nullable = false)
+  private BigDecimal price;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private DeliveryStatus status;
+
+  private String description;
+
+  private LocalDateTime createdAt;
+
+  private LocalDateTime updatedAt;
+
+  private LocalDateTime pickedUpAt;
+
+  private LocalDateTime deliveredAt;
+
+  @Column(name = "estimated_delivery_time")
+  private LocalDateTime estimatedDeliveryTime;
+
+  @Column(nullable = false)
+  private LocalDateTime archivedAt;
+}
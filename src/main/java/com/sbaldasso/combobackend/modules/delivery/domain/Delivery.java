@@ -12,7 +12,12 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "deliveries")
+@Table(name = "deliveries", indexes = {
+    @Index(name = "idx_deliveries_customer_created", columnList = "customer_id, created_at, id"),
+    @Index(name = "idx_deliveries_driver_created", columnList = "driver_id, created_at, id"),
+    @Index(name = "idx_deliveries_created", columnList = "created_at, id"),
+    @Index(name = "idx_deliveries_status_created", columnList = "status, created_at, id")
+})
 @Data
 @EntityListeners(AuditingEntityListener.class)
 public class Delivery {
@@ -35,6 +40,14 @@ public class Delivery {
   @Column(nullable = false)
   private String deliveryAddress;
 
+  private Double pickupLatitude;
+
+  private Double pickupLongitude;
+
+  private Double deliveryLatitude;
+
+  private Double deliveryLongitude;
+
   @Column(nullable = false)
   private BigDecimal price;
 
@@ -0,0 +1,46 @@
+package com.sbaldasso.combobackend.modules.delivery.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One status transition of a delivery. Rows are only ever inserted; the
+ * identity key gives the order in which they were inserted, not the order in
+ * which their transactions committed. Replay checks that each event starts
+ * from the status the previous one ended in, so a misordered chain fails
+ * instead of folding silently.
+ */
+@Entity
+@Table(name = "delivery_events", indexes = {
+    @Index(name = "idx_delivery_events_delivery", columnList = "delivery_id, id")
+})
+@Data
+public class DeliveryEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "delivery_id", nullable = false, updatable = false)
+  private UUID deliveryId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(updatable = false)
+  private DeliveryStatus fromStatus;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, updatable = false)
+  private DeliveryStatus toStatus;
+
+  @Column(nullable = false, updatable = false)
+  private UUID actorId;
+
+  @Column(nullable = false, updatable = false)
+  private LocalDateTime occurredAt;
+
+  @Column(columnDefinition = "text", updatable = false)
+  private String payload;
+}
@@ -0,0 +1,52 @@
+package com.sbaldasso.combobackend.modules.delivery.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Side effect of a delivery change, inserted in the same transaction as the
+ * change and removed once {@code DeliveryOutboxDispatcher} has delivered it.
+ * Rows that keep failing are kept with {@code failedAt} set.
+ */
+@Entity
+@Table(name = "delivery_outbox", indexes = {
+    @Index(name = "idx_delivery_outbox_available", columnList = "available_at, id")
+})
+@Data
+public class DeliveryOutboxEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "delivery_id", nullable = false, updatable = false)
+  private UUID deliveryId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, updatable = false)
+  private DeliveryOutboxType type;
+
+  /**
+   * Status of the delivery when the event was recorded; it may have moved on by dispatch time.
+   */
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, updatable = false)
+  private DeliveryStatus status;
+
+  @Column(nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "available_at", nullable = false)
+  private LocalDateTime availableAt;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(length = 1000)
+  private String lastError;
+
+  private LocalDateTime failedAt;
+}
@@ -0,0 +1,10 @@
+package com.sbaldasso.combobackend.modules.delivery.domain;
+
+public enum DeliveryOutboxType {
+  /**
+   * New delivery the dispatch engine could not take; nearby drivers are notified.
+   */
+  BROADCAST,
+  ACCEPTED,
+  STATUS_CHANGED
+}
@@ -0,0 +1,7 @@
+package com.sbaldasso.combobackend.modules.delivery.domain;
+
+public interface PickupPoint {
+  Double getPickupLatitude();
+
+  Double getPickupLongitude();
+}
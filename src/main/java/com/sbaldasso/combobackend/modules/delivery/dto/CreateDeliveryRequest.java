@@ -15,6 +15,14 @@ public class CreateDeliveryRequest {
   @NotBlank(message = "Delivery address is required")
   private String deliveryAddress;
 
+  private Double pickupLatitude;
+
+  private Double pickupLongitude;
+
+  private Double deliveryLatitude;
+
+  private Double deliveryLongitude;
+
   @NotNull(message = "Price is required")
   @Positive(message = "Price must be positive")
   private BigDecimal price;
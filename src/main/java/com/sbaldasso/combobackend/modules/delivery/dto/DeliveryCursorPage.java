@@ -0,0 +1,14 @@
+package com.sbaldasso.combobackend.modules.delivery.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class DeliveryCursorPage {
+  private List<DeliveryResponse> items;
+  private String nextCursor;
+  private boolean hasNext;
+}
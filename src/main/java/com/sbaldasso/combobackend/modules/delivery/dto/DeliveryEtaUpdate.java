@@ -0,0 +1,19 @@
+package com.sbaldasso.combobackend.modules.delivery.dto;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+public class DeliveryEtaUpdate {
+  private UUID deliveryId;
+  private DeliveryStatus status;
+  private LocalDateTime estimatedDeliveryTime;
+  private double remainingKm;
+  private Double driverLatitude;
+  private Double driverLongitude;
+}
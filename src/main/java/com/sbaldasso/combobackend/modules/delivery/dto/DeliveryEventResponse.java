@@ -0,0 +1,18 @@
+package com.sbaldasso.combobackend.modules.delivery.dto;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+public class DeliveryEventResponse {
+  private Long id;
+  private DeliveryStatus fromStatus;
+  private DeliveryStatus toStatus;
+  private UUID actorId;
+  private LocalDateTime occurredAt;
+}
@@ -0,0 +1,19 @@
+package com.sbaldasso.combobackend.modules.delivery.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class DeliveryImportStatus {
+  private Long importId;
+  private String status;
+  private long read;
+  private long written;
+  private long skipped;
+  private LocalDateTime startTime;
+  private LocalDateTime endTime;
+  private String exitDescription;
+}
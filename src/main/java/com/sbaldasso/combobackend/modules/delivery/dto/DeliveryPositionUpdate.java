@@ -0,0 +1,19 @@
+package com.sbaldasso.combobackend.modules.delivery.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+public class DeliveryPositionUpdate {
+  private UUID deliveryId;
+  private double driverLatitude;
+  private double driverLongitude;
+  private Double speed;
+  private Double heading;
+  private LocalDateTime recordedAt;
+  private LocalDateTime estimatedDeliveryTime;
+}
@@ -14,6 +14,10 @@ public class DeliveryResponse {
   private UUID driverId;
   private String pickupAddress;
   private String deliveryAddress;
+  private Double pickupLatitude;
+  private Double pickupLongitude;
+  private Double deliveryLatitude;
+  private Double deliveryLongitude;
   private BigDecimal price;
   private DeliveryStatus status;
   private String description;
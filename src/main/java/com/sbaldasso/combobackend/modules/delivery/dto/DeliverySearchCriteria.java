@@ -0,0 +1,28 @@
+package com.sbaldasso.combobackend.modules.delivery.dto;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class DeliverySearchCriteria {
+  private DeliveryStatus status;
+
+  private UUID customerId;
+
+  private UUID driverId;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+  private LocalDateTime createdFrom;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+  private LocalDateTime createdTo;
+
+  private BigDecimal minPrice;
+
+  private BigDecimal maxPrice;
+}
@@ -0,0 +1,17 @@
+package com.sbaldasso.combobackend.modules.delivery.dto;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+public class DeliveryStatusUpdate {
+  private UUID deliveryId;
+  private DeliveryStatus status;
+  private UUID driverId;
+  private LocalDateTime occurredAt;
+}
@@ -0,0 +1,19 @@
+package com.sbaldasso.combobackend.modules.delivery.exception;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+/**
+ * Thrown to every driver but the first when several try to accept the same
+ * delivery.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DeliveryAlreadyClaimedException extends IllegalStateException {
+
+  public DeliveryAlreadyClaimedException(UUID deliveryId, DeliveryStatus currentStatus) {
+    super("Delivery " + deliveryId + " cannot be accepted - current status: " + currentStatus);
+  }
+}
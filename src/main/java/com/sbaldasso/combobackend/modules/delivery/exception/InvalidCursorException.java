@@ -0,0 +1,12 @@
+package com.sbaldasso.combobackend.modules.delivery.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends IllegalArgumentException {
+
+  public InvalidCursorException(String cursor, Throwable cause) {
+    super("Invalid cursor: " + cursor, cause);
+  }
+}
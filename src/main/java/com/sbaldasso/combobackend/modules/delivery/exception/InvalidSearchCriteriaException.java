@@ -0,0 +1,12 @@
+package com.sbaldasso.combobackend.modules.delivery.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSearchCriteriaException extends IllegalArgumentException {
+
+  public InvalidSearchCriteriaException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,11 @@
+package com.sbaldasso.combobackend.modules.delivery.repository;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.ArchivedDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ArchivedDeliveryRepository extends JpaRepository<ArchivedDelivery, UUID> {
+}
@@ -0,0 +1,13 @@
+package com.sbaldasso.combobackend.modules.delivery.repository;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DeliveryEventRepository extends JpaRepository<DeliveryEvent, Long> {
+  List<DeliveryEvent> findByDeliveryIdOrderByIdAsc(UUID deliveryId);
+}
@@ -0,0 +1,32 @@
+package com.sbaldasso.combobackend.modules.delivery.repository;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DeliveryOutboxRepository extends JpaRepository<DeliveryOutboxEvent, Long> {
+
+  /**
+   * Locks the next due events, oldest first by id (insert order, not commit
+   * order). Only the oldest live event of each delivery is eligible: a later
+   * event waits while an earlier one is in flight or backing off, so each
+   * delivery's events go out one at a time and in order, even across nodes.
+   * Parked events no longer hold the rest back. Rows already locked by another
+   * node's dispatcher are skipped rather than waited for.
+   */
+  @Query(value = """
+      SELECT * FROM delivery_outbox o
+       WHERE o.failed_at IS NULL AND o.available_at <= :now
+         AND NOT EXISTS (SELECT 1 FROM delivery_outbox older
+                          WHERE older.delivery_id = o.delivery_id
+                            AND older.id < o.id
+                            AND older.failed_at IS NULL)
+       ORDER BY o.id
+       LIMIT :limit
+         FOR UPDATE OF o SKIP LOCKED""", nativeQuery = true)
+  List<DeliveryOutboxEvent> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
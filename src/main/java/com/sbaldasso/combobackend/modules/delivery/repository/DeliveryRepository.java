@@ -1,16 +1,104 @@
 package com.sbaldasso.combobackend.modules.delivery.repository;
 
 import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.domain.PickupPoint;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface DeliveryRepository extends JpaRepository<Delivery, UUID> {
+public interface DeliveryRepository extends JpaRepository<Delivery, UUID>, JpaSpecificationExecutor<Delivery> {
+  @EntityGraph(attributePaths = {"customer", "driver"})
   Page<Delivery> findByDriverId(UUID driverId, Pageable pageable);
 
+  @EntityGraph(attributePaths = {"customer", "driver"})
   Page<Delivery> findByCustomerId(UUID customerId, Pageable pageable);
+
+  @Override
+  @EntityGraph(attributePaths = {"customer", "driver"})
+  Page<Delivery> findAll(Pageable pageable);
+
+  /*
+   * Keyset pages, newest first. The *Before variants continue after the
+   * (createdAt, id) of the last row served with the row-value comparison
+   * (created_at, id) < (?, ?), which PostgreSQL turns into an index range
+   * condition on the (..., created_at, id) indexes, so a deep page costs as
+   * much as the first. The created_at < ? OR (created_at = ? AND id < ?) form
+   * Spring Data derives for Window methods is only a filter on that scan.
+   */
+
+  @EntityGraph(attributePaths = {"customer", "driver"})
+  @Query("select d from Delivery d where d.driver.id = :driverId order by d.createdAt desc, d.id desc")
+  List<Delivery> scrollByDriverId(@Param("driverId") UUID driverId, Limit limit);
+
+  @EntityGraph(attributePaths = {"customer", "driver"})
+  @Query("select d from Delivery d where d.driver.id = :driverId and (d.createdAt, d.id) < (:createdAt, :id) "
+      + "order by d.createdAt desc, d.id desc")
+  List<Delivery> scrollByDriverIdBefore(@Param("driverId") UUID driverId, @Param("createdAt") LocalDateTime createdAt,
+      @Param("id") UUID id, Limit limit);
+
+  @EntityGraph(attributePaths = {"customer", "driver"})
+  @Query("select d from Delivery d where d.customer.id = :customerId order by d.createdAt desc, d.id desc")
+  List<Delivery> scrollByCustomerId(@Param("customerId") UUID customerId, Limit limit);
+
+  @EntityGraph(attributePaths = {"customer", "driver"})
+  @Query("select d from Delivery d where d.customer.id = :customerId and (d.createdAt, d.id) < (:createdAt, :id) "
+      + "order by d.createdAt desc, d.id desc")
+  List<Delivery> scrollByCustomerIdBefore(@Param("customerId") UUID customerId,
+      @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Limit limit);
+
+  @EntityGraph(attributePaths = {"customer", "driver"})
+  @Query("select d from Delivery d order by d.createdAt desc, d.id desc")
+  List<Delivery> scrollAll(Limit limit);
+
+  @EntityGraph(attributePaths = {"customer", "driver"})
+  @Query("select d from Delivery d where (d.createdAt, d.id) < (:createdAt, :id) order by d.createdAt desc, d.id desc")
+  List<Delivery> scrollAllBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Limit limit);
+
+  /*
+   * Lookups by id alone (findById, claim, EtaEngine's ETA batch) cannot
+   * be pruned: id is not the partition key, so they probe the (id, created_at)
+   * primary key of every partition. Each probe is one index descent, but their
+   * cost grows with the number of partitions kept, which FlywaySchemaTest
+   * checks.
+   */
+
+  /**
+   * Assigns the driver only if the delivery is still pending, in a single
+   * statement. Returns 1 for the winner and 0 for everyone else.
+   */
+  @Modifying(clearAutomatically = true, flushAutomatically = true)
+  @Query("update Delivery d set d.driver = :driver, "
+      + "d.status = com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus.DRIVER_ASSIGNED, "
+      + "d.updatedAt = :now "
+      + "where d.id = :deliveryId and d.status = com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus.PENDING")
+  int claim(@Param("deliveryId") UUID deliveryId, @Param("driver") User driver, @Param("now") LocalDateTime now);
+
+  @Query("select d.pickupLatitude as pickupLatitude, d.pickupLongitude as pickupLongitude from Delivery d "
+      + "where d.status = :status and d.pickupLatitude is not null and d.pickupLongitude is not null")
+  List<PickupPoint> findPickupPointsByStatus(@Param("status") DeliveryStatus status);
+
+  @Query("select d from Delivery d "
+      + "where d.status = :status and d.pickupLatitude is not null and d.pickupLongitude is not null")
+  List<Delivery> findDispatchableByStatus(@Param("status") DeliveryStatus status);
+
+  @EntityGraph(attributePaths = {"customer", "driver"})
+  List<Delivery> findByStatusIn(Collection<DeliveryStatus> statuses);
+
+  @Query("select distinct d.driver.id from Delivery d where d.status in :statuses and d.driver is not null")
+  List<UUID> findDriverIdsByStatusIn(@Param("statuses") Collection<DeliveryStatus> statuses);
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.sbaldasso.combobackend.modules.delivery.repository;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliverySearchCriteria;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Predicates for the admin delivery search. Only the filters that are set end
+ * up in the query, so each combination keeps a plan that can lead with the
+ * matching {@code (…, created_at, id)} index: customer, driver or status when
+ * given, otherwise {@code created_at} alone. Price is applied as a filter on
+ * that walk.
+ */
+public final class DeliverySpecifications {
+
+  private DeliverySpecifications() {
+  }
+
+  public static Specification<Delivery> matching(DeliverySearchCriteria criteria) {
+    Specification<Delivery> specification = Specification.where(null);
+    if (criteria.getStatus() != null) {
+      specification = specification.and((root, query, cb) -> cb.equal(root.get("status"), criteria.getStatus()));
+    }
+    if (criteria.getCustomerId() != null) {
+      specification = specification.and((root, query, cb) -> cb.equal(root.get("customer").get("id"), criteria.getCustomerId()));
+    }
+    if (criteria.getDriverId() != null) {
+      specification = specification.and((root, query, cb) -> cb.equal(root.get("driver").get("id"), criteria.getDriverId()));
+    }
+    if (criteria.getCreatedFrom() != null) {
+      specification = specification.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), criteria.getCreatedFrom()));
+    }
+    if (criteria.getCreatedTo() != null) {
+      specification = specification.and((root, query, cb) -> cb.lessThan(root.get("createdAt"), criteria.getCreatedTo()));
+    }
+    if (criteria.getMinPrice() != null) {
+      specification = specification.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), criteria.getMinPrice()));
+    }
+    if (criteria.getMaxPrice() != null) {
+      specification = specification.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), criteria.getMaxPrice()));
+    }
+    return specification;
+  }
+}
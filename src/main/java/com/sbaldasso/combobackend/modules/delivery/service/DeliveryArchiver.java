@@ -0,0 +1,147 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.config.DeliveryConfig;
+import com.sbaldasso.combobackend.modules.delivery.domain.ArchivedDelivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.repository.ArchivedDeliveryRepository;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Moves delivered and cancelled deliveries older than {@code retention-days}
+ * from {@code deliveries} to {@code deliveries_archive}.
+ *
+ * <p>Each chunk is a single statement that deletes up to {@code chunk-size}
+ * rows and inserts them into the archive. The rows are picked with
+ * {@code FOR UPDATE SKIP LOCKED}, so rows in use are left for a later run and
+ * other writers never wait on the archiver. The backlog is walked one
+ * calendar month of {@code created_at} at a time, and the DELETE repeats the
+ * range, so each chunk is pruned to one partition instead of probing the
+ * primary key of every partition for each id.
+ * Deliveries still referenced by a payment or rating stay in the hot table.
+ */
+@Slf4j
+@Component
+public class DeliveryArchiver {
+
+  private static final String OLDEST_SQL = """
+      SELECT MIN(created_at) FROM deliveries
+       WHERE status IN ('DELIVERED', 'CANCELLED') AND created_at < ?""";
+
+  private static final String ARCHIVE_CHUNK_SQL = """
+      WITH moved AS (
+        DELETE FROM deliveries
+         WHERE created_at >= ? AND created_at < ?
+           AND id IN (
+           SELECT d.id FROM deliveries d
+            WHERE d.status IN ('DELIVERED', 'CANCELLED')
+              AND d.created_at >= ? AND d.created_at < ?
+              AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.delivery_id = d.id)
+              AND NOT EXISTS (SELECT 1 FROM ratings r WHERE r.delivery_id = d.id)
+            ORDER BY d.created_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED)
+        RETURNING *)
+      INSERT INTO deliveries_archive (id, customer_id, driver_id, pickup_address, delivery_address,
+                                      pickup_latitude, pickup_longitude, delivery_latitude, delivery_longitude,
+                                      price, status, description, created_at, updated_at, picked_up_at,
+                                      delivered_at, estimated_delivery_time, archived_at)
+      SELECT id, customer_id, driver_id, pickup_address, delivery_address,
+             pickup_latitude, pickup_longitude, delivery_latitude, delivery_longitude,
+             price, status, description, created_at, updated_at, picked_up_at,
+             delivered_at, estimated_delivery_time, ?
+        FROM moved""";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ArchivedDeliveryRepository archivedDeliveryRepository;
+  private final DeliveryConfig.Archive config;
+
+  public DeliveryArchiver(JdbcTemplate jdbcTemplate, ArchivedDeliveryRepository archivedDeliveryRepository,
+      DeliveryConfig deliveryConfig) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.archivedDeliveryRepository = archivedDeliveryRepository;
+    this.config = deliveryConfig.getArchive();
+  }
+
+  /**
+   * Looks a delivery up in the archive, as the {@link Delivery} it was.
+   */
+  public Optional<Delivery> findArchived(UUID deliveryId) {
+    return archivedDeliveryRepository.findById(deliveryId).map(DeliveryArchiver::toDelivery);
+  }
+
+  @Scheduled(cron = "${app.delivery.archive.cron:0 30 3 * * *}")
+  public void archive() {
+    if (!config.isEnabled()) {
+      return;
+    }
+    LocalDateTime cutoff = LocalDateTime.now().minusDays(config.getRetentionDays());
+    LocalDateTime oldest = jdbcTemplate.queryForObject(OLDEST_SQL, LocalDateTime.class, Timestamp.valueOf(cutoff));
+    if (oldest == null) {
+      return;
+    }
+
+    long archived = 0;
+    int chunks = 0;
+    LocalDateTime from = oldest.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+    while (from.isBefore(cutoff) && chunks < config.getMaxChunksPerRun()) {
+      LocalDateTime to = from.plusMonths(1).isBefore(cutoff) ? from.plusMonths(1) : cutoff;
+      int moved;
+      do {
+        moved = archiveChunk(from, to);
+        archived += moved;
+        chunks++;
+        pause();
+      } while (moved == config.getChunkSize() && chunks < config.getMaxChunksPerRun());
+      from = to;
+    }
+    log.info("Archived {} finished deliveries created before {} in {} chunks", archived, cutoff, chunks);
+  }
+
+  int archiveChunk(LocalDateTime from, LocalDateTime to) {
+    return jdbcTemplate.update(ARCHIVE_CHUNK_SQL, Timestamp.valueOf(from), Timestamp.valueOf(to),
+        Timestamp.valueOf(from), Timestamp.valueOf(to), config.getChunkSize(), Timestamp.valueOf(LocalDateTime.now()));
+  }
+
+  private void pause() {
+    if (config.getPauseMillis() <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(config.getPauseMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Delivery toDelivery(ArchivedDelivery archived) {
+    Delivery delivery = new Delivery();
+    delivery.setId(archived.getId());
+    delivery.setCustomer(new User(archived.getCustomerId()));
+    delivery.setDriver(archived.getDriverId() != null ? new User(archived.getDriverId()) : null);
+    delivery.setPickupAddress(archived.getPickupAddress());
+    delivery.setDeliveryAddress(archived.getDeliveryAddress());
+    delivery.setPickupLatitude(archived.getPickupLatitude());
+    delivery.setPickupLongitude(archived.getPickupLongitude());
+    delivery.setDeliveryLatitude(archived.getDeliveryLatitude());
+    delivery.setDeliveryLongitude(archived.getDeliveryLongitude());
+    delivery.setPrice(archived.getPrice());
+    delivery.setStatus(archived.getStatus());
+    delivery.setDescription(archived.getDescription());
+    delivery.setCreatedAt(archived.getCreatedAt());
+    delivery.setUpdatedAt(archived.getUpdatedAt());
+    delivery.setPickedUpAt(archived.getPickedUpAt());
+    delivery.setDeliveredAt(archived.getDeliveredAt());
+    delivery.setEstimatedDeliveryTime(archived.getEstimatedDeliveryTime());
+    return delivery;
+  }
+}
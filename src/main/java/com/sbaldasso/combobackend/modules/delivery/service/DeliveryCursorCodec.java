@@ -0,0 +1,55 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.exception.InvalidCursorException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Opaque continuation tokens for delivery scrolling. A token carries the
+ * {@code (createdAt, id)} keyset of the last row served, base64url-encoded so
+ * clients treat it as a black box.
+ */
+public final class DeliveryCursorCodec {
+
+  private static final String SEPARATOR = "|";
+
+  private DeliveryCursorCodec() {
+  }
+
+  public static String encode(ScrollPosition position) {
+    Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+    String raw = keys.get("createdAt") + SEPARATOR + keys.get("id");
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static KeysetScrollPosition positionOf(Delivery delivery) {
+    Map<String, Object> keys = new LinkedHashMap<>();
+    keys.put("createdAt", delivery.getCreatedAt());
+    keys.put("id", delivery.getId());
+    return ScrollPosition.forward(keys);
+  }
+
+  public static KeysetScrollPosition decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return ScrollPosition.keyset();
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(SEPARATOR);
+      Map<String, Object> keys = new LinkedHashMap<>();
+      keys.put("createdAt", LocalDateTime.parse(raw.substring(0, separator)));
+      keys.put("id", UUID.fromString(raw.substring(separator + 1)));
+      return ScrollPosition.forward(keys);
+    } catch (RuntimeException e) {
+      throw new InvalidCursorException(cursor, e);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryEvent;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryEventRepository;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append-only log of delivery status transitions.
+ *
+ * <p>Events are inserted in the caller's transaction, next to the update of
+ * the current-state row. The creation event carries the fields set when the
+ * delivery was requested, so {@link #replay(UUID)} can rebuild the row from
+ * the log alone.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeliveryEventLog {
+
+  private final DeliveryEventRepository deliveryEventRepository;
+  private final ObjectMapper objectMapper;
+
+  public void recordCreated(Delivery delivery, LocalDateTime at) {
+    append(delivery.getId(), null, delivery.getStatus(), delivery.getCustomer().getId(), at, creationPayload(delivery));
+  }
+
+  /**
+   * Payload of the creation event, for writers that insert it themselves.
+   */
+  public String creationPayload(Delivery delivery) {
+    ObjectNode payload = objectMapper.createObjectNode()
+        .put("customerId", delivery.getCustomer().getId().toString())
+        .put("pickupAddress", delivery.getPickupAddress())
+        .put("deliveryAddress", delivery.getDeliveryAddress())
+        .put("pickupLatitude", delivery.getPickupLatitude())
+        .put("pickupLongitude", delivery.getPickupLongitude())
+        .put("deliveryLatitude", delivery.getDeliveryLatitude())
+        .put("deliveryLongitude", delivery.getDeliveryLongitude())
+        .put("price", delivery.getPrice() != null ? delivery.getPrice().toPlainString() : null)
+        .put("description", delivery.getDescription());
+    return payload.toString();
+  }
+
+  public void recordTransition(UUID deliveryId, DeliveryStatus from, DeliveryStatus to, UUID actorId,
+      LocalDateTime at) {
+    append(deliveryId, from, to, actorId, at, null);
+  }
+
+  public List<DeliveryEvent> timeline(UUID deliveryId) {
+    return deliveryEventRepository.findByDeliveryIdOrderByIdAsc(deliveryId);
+  }
+
+  /**
+   * Rebuilds the current state of a delivery by folding its events in order.
+   */
+  public Delivery replay(UUID deliveryId) {
+    List<DeliveryEvent> events = timeline(deliveryId);
+    if (events.isEmpty()) {
+      throw new IllegalStateException("No events recorded for delivery " + deliveryId);
+    }
+    Delivery delivery = new Delivery();
+    delivery.setId(deliveryId);
+    events.forEach(event -> apply(delivery, event));
+    return delivery;
+  }
+
+  private void apply(Delivery delivery, DeliveryEvent event) {
+    if (event.getFromStatus() != delivery.getStatus()) {
+      throw new IllegalStateException("Event " + event.getId() + " expects status " + event.getFromStatus()
+          + " but delivery is " + delivery.getStatus());
+    }
+    switch (event.getToStatus()) {
+      case PENDING -> {
+        applyCreation(delivery, event);
+        delivery.setCreatedAt(event.getOccurredAt());
+      }
+      case DRIVER_ASSIGNED -> delivery.setDriver(new User(event.getActorId()));
+      case PICKED_UP -> delivery.setPickedUpAt(event.getOccurredAt());
+      case DELIVERED -> delivery.setDeliveredAt(event.getOccurredAt());
+      default -> {
+      }
+    }
+    delivery.setStatus(event.getToStatus());
+    delivery.setUpdatedAt(event.getOccurredAt());
+  }
+
+  private void applyCreation(Delivery delivery, DeliveryEvent event) {
+    JsonNode payload;
+    try {
+      payload = objectMapper.readTree(event.getPayload());
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unreadable creation event " + event.getId(), e);
+    }
+    delivery.setCustomer(new User(UUID.fromString(payload.get("customerId").asText())));
+    delivery.setPickupAddress(textOrNull(payload, "pickupAddress"));
+    delivery.setDeliveryAddress(textOrNull(payload, "deliveryAddress"));
+    delivery.setPickupLatitude(payload.hasNonNull("pickupLatitude") ? payload.get("pickupLatitude").asDouble() : null);
+    delivery.setPickupLongitude(payload.hasNonNull("pickupLongitude") ? payload.get("pickupLongitude").asDouble() : null);
+    delivery.setDeliveryLatitude(payload.hasNonNull("deliveryLatitude") ? payload.get("deliveryLatitude").asDouble() : null);
+    delivery.setDeliveryLongitude(payload.hasNonNull("deliveryLongitude") ? payload.get("deliveryLongitude").asDouble() : null);
+    delivery.setPrice(payload.hasNonNull("price") ? new BigDecimal(payload.get("price").asText()) : null);
+    delivery.setDescription(textOrNull(payload, "description"));
+  }
+
+  private static String textOrNull(JsonNode payload, String field) {
+    return payload.hasNonNull(field) ? payload.get(field).asText() : null;
+  }
+
+  private void append(UUID deliveryId, DeliveryStatus from, DeliveryStatus to, UUID actorId, LocalDateTime at,
+      String payload) {
+    DeliveryEvent event = new DeliveryEvent();
+    event.setDeliveryId(deliveryId);
+    event.setFromStatus(from);
+    event.setToStatus(to);
+    event.setActorId(actorId);
+    event.setOccurredAt(at);
+    event.setPayload(payload);
+    deliveryEventRepository.save(event);
+  }
+}
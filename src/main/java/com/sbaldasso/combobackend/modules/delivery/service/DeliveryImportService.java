@@ -0,0 +1,124 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.batch.DeliveryImportFormat;
+import com.sbaldasso.combobackend.modules.delivery.config.DeliveryConfig;
+import com.sbaldasso.combobackend.modules.delivery.config.DeliveryImportJobConfig;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryImportStatus;
+import com.sbaldasso.combobackend.modules.user.domain.UserType;
+import com.sbaldasso.combobackend.modules.user.service.UserService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Starts, restarts and reports on bulk delivery imports. Uploads are streamed
+ * to the staging directory and the job is launched asynchronously; the
+ * returned import id is the job execution id.
+ */
+@Service
+public class DeliveryImportService {
+
+  private final JobLauncher jobLauncher;
+  private final Job deliveryImportJob;
+  private final JobExplorer jobExplorer;
+  private final UserService userService;
+  private final DeliveryConfig.BulkImport config;
+
+  public DeliveryImportService(@Qualifier("deliveryImportJobLauncher") JobLauncher jobLauncher,
+      Job deliveryImportJob, JobExplorer jobExplorer, UserService userService, DeliveryConfig deliveryConfig) {
+    this.jobLauncher = jobLauncher;
+    this.deliveryImportJob = deliveryImportJob;
+    this.jobExplorer = jobExplorer;
+    this.userService = userService;
+    this.config = deliveryConfig.getBulkImport();
+  }
+
+  public DeliveryImportStatus startImport(UUID customerId, DeliveryImportFormat format, InputStream body)
+      throws IOException {
+    userService.validateAndGetUser(customerId, UserType.CUSTOMER);
+
+    Path stagingDir = Files.createDirectories(Path.of(config.getStagingDir()));
+    Path file = stagingDir.resolve(UUID.randomUUID() + "." + format.name().toLowerCase(Locale.ROOT));
+    Files.copy(body, file);
+
+    JobParameters parameters = new JobParametersBuilder()
+        .addString(DeliveryImportJobConfig.FILE_PARAMETER, file.toString())
+        .addString(DeliveryImportJobConfig.FORMAT_PARAMETER, format.name(), false)
+        .addString(DeliveryImportJobConfig.CUSTOMER_PARAMETER, customerId.toString(), false)
+        .toJobParameters();
+    return toStatus(launch(parameters));
+  }
+
+  public DeliveryImportStatus getImportStatus(UUID customerId, Long importId) {
+    return toStatus(getOwnedExecution(customerId, importId));
+  }
+
+  /**
+   * Relaunches a failed or stopped import. The job instance resumes after the
+   * last committed chunk, as a new execution with its own import id.
+   */
+  public DeliveryImportStatus restartImport(UUID customerId, Long importId) {
+    JobExecution execution = getOwnedExecution(customerId, importId);
+    if (execution.getStatus() != BatchStatus.FAILED && execution.getStatus() != BatchStatus.STOPPED) {
+      throw new IllegalStateException("Only failed or stopped imports can be restarted, this one is "
+          + execution.getStatus());
+    }
+    return toStatus(launch(execution.getJobParameters()));
+  }
+
+  private JobExecution launch(JobParameters parameters) {
+    try {
+      return jobLauncher.run(deliveryImportJob, parameters);
+    } catch (JobExecutionException e) {
+      throw new IllegalStateException("Could not launch delivery import: " + e.getMessage(), e);
+    }
+  }
+
+  private JobExecution getOwnedExecution(UUID customerId, Long importId) {
+    JobExecution execution = jobExplorer.getJobExecution(importId);
+    if (execution == null
+        || !DeliveryImportJobConfig.JOB_NAME.equals(execution.getJobInstance().getJobName())
+        || !customerId.toString().equals(
+            execution.getJobParameters().getString(DeliveryImportJobConfig.CUSTOMER_PARAMETER))) {
+      throw new EntityNotFoundException("Import not found");
+    }
+    return execution;
+  }
+
+  private DeliveryImportStatus toStatus(JobExecution execution) {
+    long read = 0;
+    long written = 0;
+    long skipped = 0;
+    for (StepExecution step : execution.getStepExecutions()) {
+      read += step.getReadCount();
+      written += step.getWriteCount();
+      skipped += step.getSkipCount();
+    }
+    return DeliveryImportStatus.builder()
+        .importId(execution.getId())
+        .status(execution.getStatus().name())
+        .read(read)
+        .written(written)
+        .skipped(skipped)
+        .startTime(execution.getStartTime())
+        .endTime(execution.getEndTime())
+        .exitDescription(execution.getExitStatus().getExitDescription())
+        .build();
+  }
+}
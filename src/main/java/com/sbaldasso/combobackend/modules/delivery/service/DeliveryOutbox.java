@@ -0,0 +1,79 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxEvent;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxType;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records the side effects of a delivery change in the caller's transaction,
+ * so they are delivered if and only if the change commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeliveryOutbox {
+
+  private static final String INSERT_SQL = """
+      INSERT INTO delivery_outbox (delivery_id, type, status, created_at, available_at)
+      VALUES (?, ?, ?, ?, ?)""";
+
+  private final DeliveryOutboxRepository deliveryOutboxRepository;
+  private final JdbcTemplate jdbcTemplate;
+
+  public void append(Delivery delivery, DeliveryOutboxType type) {
+    LocalDateTime now = LocalDateTime.now();
+    DeliveryOutboxEvent event = new DeliveryOutboxEvent();
+    event.setDeliveryId(delivery.getId());
+    event.setType(type);
+    event.setStatus(delivery.getStatus());
+    event.setCreatedAt(now);
+    event.setAvailableAt(now);
+    deliveryOutboxRepository.save(event);
+  }
+
+  /**
+   * Appends one event per delivery in a single JDBC batch, for writers that
+   * insert the deliveries themselves with JDBC.
+   */
+  public void appendAll(List<? extends Delivery> deliveries, DeliveryOutboxType type) {
+    if (deliveries.isEmpty()) {
+      return;
+    }
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    jdbcTemplate.batchUpdate(INSERT_SQL, deliveries, deliveries.size(), (ps, delivery) -> {
+      ps.setObject(1, delivery.getId());
+      ps.setString(2, type.name());
+      ps.setString(3, delivery.getStatus().name());
+      ps.setTimestamp(4, now);
+      ps.setTimestamp(5, now);
+    });
+  }
+
+  /**
+   * Same as {@link #appendAll(List, DeliveryOutboxType)} for deliveries known
+   * only by id, all in {@code PENDING}.
+   */
+  public void appendAllPending(Collection<UUID> deliveryIds, DeliveryOutboxType type) {
+    if (deliveryIds.isEmpty()) {
+      return;
+    }
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    jdbcTemplate.batchUpdate(INSERT_SQL, deliveryIds, deliveryIds.size(), (ps, deliveryId) -> {
+      ps.setObject(1, deliveryId);
+      ps.setString(2, type.name());
+      ps.setString(3, DeliveryStatus.PENDING.name());
+      ps.setTimestamp(4, now);
+      ps.setTimestamp(5, now);
+    });
+  }
+}
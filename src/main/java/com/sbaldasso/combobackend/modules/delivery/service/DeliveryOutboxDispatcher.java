@@ -0,0 +1,204 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.config.DeliveryConfig;
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxEvent;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxType;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryStatusUpdate;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryOutboxRepository;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryRepository;
+import com.sbaldasso.combobackend.modules.notification.service.NotificationService;
+import com.sbaldasso.combobackend.modules.notification.service.WebSocketService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains {@code delivery_outbox} into {@link NotificationService} and
+ * {@link WebSocketService}.
+ *
+ * <p>Each batch is claimed with {@code FOR UPDATE SKIP LOCKED}, so several
+ * nodes can poll at once without handing out the same event twice. Every
+ * event is delivered in its own transaction: one failure neither rolls back
+ * the others nor releases the batch. Delivered events are deleted; failed
+ * ones are retried with exponential backoff and parked after
+ * {@code max-attempts}. The WebSocket push is part of the event, so a failed
+ * push is retried too. The broadcasts of a batch are the exception: they fan
+ * out together in one transaction, and only if that fails one by one.
+ * Delivery is at least once.
+ */
+@Slf4j
+@Component
+public class DeliveryOutboxDispatcher {
+
+  private final DeliveryOutboxRepository deliveryOutboxRepository;
+  private final DeliveryRepository deliveryRepository;
+  private final NotificationService notificationService;
+  private final WebSocketService webSocketService;
+  private final DeliveryConfig.Outbox config;
+  private final TransactionTemplate batchTransaction;
+  private final TransactionTemplate eventTransaction;
+
+  public DeliveryOutboxDispatcher(DeliveryOutboxRepository deliveryOutboxRepository,
+      DeliveryRepository deliveryRepository, NotificationService notificationService,
+      WebSocketService webSocketService, PlatformTransactionManager transactionManager,
+      DeliveryConfig deliveryConfig) {
+    this.deliveryOutboxRepository = deliveryOutboxRepository;
+    this.deliveryRepository = deliveryRepository;
+    this.notificationService = notificationService;
+    this.webSocketService = webSocketService;
+    this.config = deliveryConfig.getOutbox();
+    this.batchTransaction = new TransactionTemplate(transactionManager);
+    this.eventTransaction = new TransactionTemplate(transactionManager);
+    this.eventTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @Scheduled(fixedDelayString = "${app.delivery.outbox.poll-interval-ms:500}")
+  public void dispatch() {
+    if (!config.isEnabled()) {
+      return;
+    }
+    for (int batch = 0; batch < config.getMaxBatchesPerRun(); batch++) {
+      Integer claimed = batchTransaction.execute(status -> dispatchBatch());
+      if (claimed == null || claimed < config.getBatchSize()) {
+        return;
+      }
+    }
+  }
+
+  int dispatchBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    List<DeliveryOutboxEvent> events = deliveryOutboxRepository.claimDue(now, config.getBatchSize());
+    List<DeliveryOutboxEvent> delivered = new ArrayList<>(events.size());
+    List<DeliveryOutboxEvent> broadcasts = events.stream()
+        .filter(event -> event.getType() == DeliveryOutboxType.BROADCAST)
+        .toList();
+    List<DeliveryOutboxEvent> oneByOne = events;
+    if (broadcasts.size() > 1) {
+      try {
+        eventTransaction.executeWithoutResult(status -> broadcast(broadcasts));
+        delivered.addAll(broadcasts);
+        oneByOne = events.stream().filter(event -> event.getType() != DeliveryOutboxType.BROADCAST).toList();
+      } catch (RuntimeException e) {
+        log.warn("Broadcast of {} deliveries failed, retrying them one by one: {}", broadcasts.size(), e.toString());
+      }
+    }
+    for (DeliveryOutboxEvent event : oneByOne) {
+      try {
+        eventTransaction.executeWithoutResult(status -> deliver(event));
+        delivered.add(event);
+      } catch (RuntimeException e) {
+        scheduleRetry(event, e, now);
+      }
+    }
+    if (!delivered.isEmpty()) {
+      deliveryOutboxRepository.deleteAllInBatch(delivered);
+    }
+    return events.size();
+  }
+
+  private void deliver(DeliveryOutboxEvent event) {
+    Optional<Delivery> current = deliveryRepository.findById(event.getDeliveryId());
+    if (current.isEmpty()) {
+      log.debug("Delivery {} no longer exists, dropping its {} event", event.getDeliveryId(), event.getType());
+      return;
+    }
+    if (event.getType() == DeliveryOutboxType.BROADCAST && current.get().getStatus() != DeliveryStatus.PENDING) {
+      log.debug("Delivery {} is no longer pending, dropping its broadcast", event.getDeliveryId());
+      return;
+    }
+    Delivery delivery = snapshotOf(current.get(), event);
+    switch (event.getType()) {
+      case BROADCAST -> notificationService.notifyNearbyDrivers(delivery);
+      case ACCEPTED -> {
+        notificationService.notifyDeliveryAccepted(delivery);
+        pushStatus(delivery, event);
+      }
+      case STATUS_CHANGED -> {
+        notificationService.notifyDeliveryStatusUpdate(delivery);
+        pushStatus(delivery, event);
+      }
+    }
+  }
+
+  // All the broadcasts of a batch, such as an imported chunk, fan out in one
+  // notification insert. Deliveries no longer pending are left out.
+  private void broadcast(List<DeliveryOutboxEvent> events) {
+    Map<UUID, Delivery> current = deliveryRepository.findAllById(events.stream()
+            .map(DeliveryOutboxEvent::getDeliveryId)
+            .toList())
+        .stream()
+        .collect(Collectors.toMap(Delivery::getId, Function.identity()));
+    List<Delivery> deliveries = new ArrayList<>(events.size());
+    for (DeliveryOutboxEvent event : events) {
+      Delivery delivery = current.get(event.getDeliveryId());
+      if (delivery != null && delivery.getStatus() == DeliveryStatus.PENDING) {
+        deliveries.add(snapshotOf(delivery, event));
+      }
+    }
+    if (!deliveries.isEmpty()) {
+      notificationService.notifyNearbyDrivers(deliveries);
+    }
+  }
+
+  private void pushStatus(Delivery delivery, DeliveryOutboxEvent event) {
+    webSocketService.sendDeliveryStatus(delivery.getCustomer().getId().toString(), DeliveryStatusUpdate.builder()
+        .deliveryId(delivery.getId())
+        .status(event.getStatus())
+        .driverId(delivery.getDriver() != null ? delivery.getDriver().getId() : null)
+        .occurredAt(event.getCreatedAt())
+        .build());
+  }
+
+  private void scheduleRetry(DeliveryOutboxEvent event, RuntimeException error, LocalDateTime now) {
+    int attempts = event.getAttempts() + 1;
+    event.setAttempts(attempts);
+    event.setLastError(truncate(error.toString()));
+    if (attempts >= config.getMaxAttempts()) {
+      event.setFailedAt(now);
+      log.error("Giving up on outbox event {} ({} of delivery {}) after {} attempts", event.getId(), event.getType(),
+          event.getDeliveryId(), attempts, error);
+      return;
+    }
+    long backoff = Math.min(config.getMaxRetryBackoffMillis(),
+        config.getRetryBackoffMillis() << Math.min(attempts - 1, 20));
+    event.setAvailableAt(now.plusNanos(backoff * 1_000_000));
+    log.warn("Outbox event {} failed (attempt {}), retrying in {} ms: {}", event.getId(), attempts, backoff,
+        error.toString());
+  }
+
+  // A detached copy with the status the event was recorded with, so neither a
+  // later transition nor a dirty check in the delivery transaction gets in the way.
+  private static Delivery snapshotOf(Delivery current, DeliveryOutboxEvent event) {
+    Delivery delivery = new Delivery();
+    delivery.setId(current.getId());
+    delivery.setCustomer(current.getCustomer());
+    delivery.setDriver(current.getDriver());
+    delivery.setPickupAddress(current.getPickupAddress());
+    delivery.setDeliveryAddress(current.getDeliveryAddress());
+    delivery.setPickupLatitude(current.getPickupLatitude());
+    delivery.setPickupLongitude(current.getPickupLongitude());
+    delivery.setDeliveryLatitude(current.getDeliveryLatitude());
+    delivery.setDeliveryLongitude(current.getDeliveryLongitude());
+    delivery.setPrice(current.getPrice());
+    delivery.setStatus(event.getStatus());
+    return delivery;
+  }
+
+  private static String truncate(String message) {
+    return message.length() <= 1000 ? message : message.substring(0, 1000);
+  }
+}
@@ -1,39 +1,83 @@
 package com.sbaldasso.combobackend.modules.delivery.service;
 
 import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryEvent;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxType;
 import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
 import com.sbaldasso.combobackend.modules.delivery.dto.CreateDeliveryRequest;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryCursorPage;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryEventResponse;
 import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryResponse;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliverySearchCriteria;
+import com.sbaldasso.combobackend.modules.delivery.exception.DeliveryAlreadyClaimedException;
+import com.sbaldasso.combobackend.modules.delivery.exception.InvalidSearchCriteriaException;
 import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryRepository;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliverySpecifications;
+import com.sbaldasso.combobackend.modules.dispatch.service.DispatchEngine;
+import com.sbaldasso.combobackend.modules.geocoding.domain.GeoPoint;
+import com.sbaldasso.combobackend.modules.geocoding.service.GeocodingService;
+import com.sbaldasso.combobackend.modules.heatmap.service.HeatmapService;
+import com.sbaldasso.combobackend.modules.location.domain.Location;
 import com.sbaldasso.combobackend.modules.location.service.LocationService;
-import com.sbaldasso.combobackend.modules.notification.service.NotificationService;
 import com.sbaldasso.combobackend.modules.user.domain.User;
 import com.sbaldasso.combobackend.modules.user.domain.UserType;
 import com.sbaldasso.combobackend.modules.user.service.UserService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class DeliveryService {
 
+  private static final int MAX_SCROLL_SIZE = 100;
+  private static final Sort SCROLL_ORDER = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
   private DeliveryRepository deliveryRepository;
   private UserService userService;
   private LocationService locationService;
-  private NotificationService notificationService;
+  private DeliveryOutbox deliveryOutbox;
+  private HeatmapService heatmapService;
+  private DispatchEngine dispatchEngine;
+  private DeliveryEventLog deliveryEventLog;
+  private EtaEngine etaEngine;
+  private GeocodingService geocodingService;
+  private DeliveryArchiver deliveryArchiver;
+  private DeliveryStreamRegistry deliveryStreamRegistry;
 
-  public DeliveryService(DeliveryRepository deliveryRepository, UserService userService, LocationService locationService, NotificationService notificationService) {
+  public DeliveryService(DeliveryRepository deliveryRepository, UserService userService, LocationService locationService, DeliveryOutbox deliveryOutbox, HeatmapService heatmapService, DispatchEngine dispatchEngine, DeliveryEventLog deliveryEventLog, EtaEngine etaEngine, GeocodingService geocodingService, DeliveryArchiver deliveryArchiver, DeliveryStreamRegistry deliveryStreamRegistry) {
     this.deliveryRepository = deliveryRepository;
     this.userService = userService;
     this.locationService = locationService;
-    this.notificationService = notificationService;
+    this.deliveryOutbox = deliveryOutbox;
+    this.heatmapService = heatmapService;
+    this.dispatchEngine = dispatchEngine;
+    this.deliveryEventLog = deliveryEventLog;
+    this.etaEngine = etaEngine;
+    this.geocodingService = geocodingService;
+    this.deliveryArchiver = deliveryArchiver;
+    this.deliveryStreamRegistry = deliveryStreamRegistry;
   }
 
   @Transactional
@@ -44,32 +88,62 @@ public class DeliveryService {
     delivery.setCustomer(customer);
     delivery.setPickupAddress(request.getPickupAddress());
     delivery.setDeliveryAddress(request.getDeliveryAddress());
+    GeoPoint pickup = coordinatesOf(request.getPickupAddress(),
+        request.getPickupLatitude(), request.getPickupLongitude()).orElse(null);
+    if (pickup != null) {
+      delivery.setPickupLatitude(pickup.getLatitude());
+      delivery.setPickupLongitude(pickup.getLongitude());
+    }
+    GeoPoint dropOff = coordinatesOf(request.getDeliveryAddress(),
+        request.getDeliveryLatitude(), request.getDeliveryLongitude()).orElse(null);
+    if (dropOff != null) {
+      delivery.setDeliveryLatitude(dropOff.getLatitude());
+      delivery.setDeliveryLongitude(dropOff.getLongitude());
+    }
     delivery.setPrice(request.getPrice());
     delivery.setDescription(request.getDescription());
     delivery.setStatus(DeliveryStatus.PENDING);
 
-    delivery = deliveryRepository.save(delivery);
-    notificationService.notifyNearbyDrivers(delivery);
+    Delivery saved = deliveryRepository.save(delivery);
+    deliveryEventLog.recordCreated(saved, LocalDateTime.now());
+    afterCommit(() -> heatmapService.demandOpened(saved));
+    if (dispatchEngine.canDispatch(saved)) {
+      afterCommit(() -> dispatchEngine.submit(saved));
+    } else {
+      deliveryOutbox.append(saved, DeliveryOutboxType.BROADCAST);
+    }
 
-    return toDeliveryResponse(delivery);
+    return toDeliveryResponse(saved);
   }
 
   @Transactional
   public DeliveryResponse acceptDelivery(UUID deliveryId, UUID driverId) {
     User driver = userService.validateAndGetUser(driverId, UserType.DRIVER);
-    Delivery delivery = getDeliveryById(deliveryId);
+    dispatchEngine.checkOffer(deliveryId, driverId);
 
-    if (delivery.getStatus() != DeliveryStatus.PENDING) {
-      throw new IllegalStateException("Delivery cannot be accepted - current status: " + delivery.getStatus());
+    // Conditional update instead of read-check-save: concurrent accepts are
+    // serialised on the row and exactly one of them sees an updated count.
+    LocalDateTime now = LocalDateTime.now();
+    if (deliveryRepository.claim(deliveryId, driver, now) == 0) {
+      throw new DeliveryAlreadyClaimedException(deliveryId, getDeliveryById(deliveryId).getStatus());
     }
+    deliveryEventLog.recordTransition(deliveryId, DeliveryStatus.PENDING, DeliveryStatus.DRIVER_ASSIGNED, driverId, now);
 
-    delivery.setDriver(driver);
-    delivery.setStatus(DeliveryStatus.DRIVER_ASSIGNED);
-    delivery = deliveryRepository.save(delivery);
+    Delivery delivery = getDeliveryById(deliveryId);
+    afterCommit(() -> heatmapService.demandClosed(delivery));
+    afterCommit(() -> dispatchEngine.assign(deliveryId, driverId));
+    etaEngine.track(delivery);
+
+    deliveryOutbox.append(delivery, DeliveryOutboxType.ACCEPTED);
 
-    notificationService.notifyDeliveryAccepted(delivery);
+    DeliveryResponse response = toDeliveryResponse(delivery);
+    deliveryStreamRegistry.publishStatus(response);
+    return response;
+  }
 
-    return toDeliveryResponse(delivery);
+  public void declineDelivery(UUID deliveryId, UUID driverId) {
+    userService.validateAndGetUser(driverId, UserType.DRIVER);
+    dispatchEngine.decline(deliveryId, driverId);
   }
 
   @Transactional
@@ -81,21 +155,37 @@ public class DeliveryService {
       throw new IllegalStateException("Driver is not assigned to this delivery");
     }
 
-    validateStatusTransition(delivery.getStatus(), newStatus);
+    DeliveryStatus previousStatus = delivery.getStatus();
+    validateStatusTransition(previousStatus, newStatus);
 
+    LocalDateTime now = LocalDateTime.now();
     delivery.setStatus(newStatus);
 
     switch (newStatus) {
-      case PICKED_UP -> delivery.setPickedUpAt(LocalDateTime.now());
-      case DELIVERED -> delivery.setDeliveredAt(LocalDateTime.now());
+      case PICKED_UP -> delivery.setPickedUpAt(now);
+      case DELIVERED -> delivery.setDeliveredAt(now);
       default -> {
       }
     }
 
     delivery = deliveryRepository.save(delivery);
-    notificationService.notifyDeliveryStatusUpdate(delivery);
+    deliveryEventLog.recordTransition(deliveryId, previousStatus, newStatus, driverId, now);
+    if (previousStatus == DeliveryStatus.PENDING) {
+      Delivery closed = delivery;
+      afterCommit(() -> heatmapService.demandClosed(closed));
+      afterCommit(() -> dispatchEngine.close(deliveryId));
+    }
+    if (newStatus == DeliveryStatus.DELIVERED || newStatus == DeliveryStatus.CANCELLED) {
+      afterCommit(() -> dispatchEngine.release(driverId));
+      etaEngine.untrack(deliveryId);
+    } else {
+      etaEngine.track(delivery);
+    }
+    deliveryOutbox.append(delivery, DeliveryOutboxType.STATUS_CHANGED);
 
-    return toDeliveryResponse(delivery);
+    DeliveryResponse response = toDeliveryResponse(delivery);
+    deliveryStreamRegistry.publishStatus(response);
+    return response;
   }
 
   public Page<DeliveryResponse> getDeliveriesForUser(UUID userId, Pageable pageable) {
@@ -110,11 +200,116 @@ public class DeliveryService {
       deliveries = deliveryRepository.findAll(pageable);
     }
 
-    return deliveries.map(this::toDeliveryResponse);
+    Map<UUID, Location> driverLocations = driverLocationsOf(deliveries.getContent());
+    return deliveries.map(delivery -> toDeliveryResponse(delivery, driverLocations));
   }
 
+  /**
+   * Keyset-paginated variant of {@link #getDeliveriesForUser}, newest first.
+   * Each page seeks straight to the cursor on the {@code (…, created_at, id)}
+   * indexes and no total is counted, so deep pages cost as much as the first.
+   */
+  public DeliveryCursorPage scrollDeliveriesForUser(UUID userId, String cursor, int size) {
+    User user = userService.validateAndGetUser(userId);
+    KeysetScrollPosition position = DeliveryCursorCodec.decode(cursor);
+    int pageSize = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+    // One extra row tells whether there is a next page.
+    Limit limit = Limit.of(pageSize + 1);
+    LocalDateTime createdAt = (LocalDateTime) position.getKeys().get("createdAt");
+    UUID id = (UUID) position.getKeys().get("id");
+    List<Delivery> rows;
+
+    if (user.getUserType() == UserType.DRIVER) {
+      rows = position.isInitial()
+          ? deliveryRepository.scrollByDriverId(userId, limit)
+          : deliveryRepository.scrollByDriverIdBefore(userId, createdAt, id, limit);
+    } else if (user.getUserType() == UserType.CUSTOMER) {
+      rows = position.isInitial()
+          ? deliveryRepository.scrollByCustomerId(userId, limit)
+          : deliveryRepository.scrollByCustomerIdBefore(userId, createdAt, id, limit);
+    } else {
+      rows = position.isInitial()
+          ? deliveryRepository.scrollAll(limit)
+          : deliveryRepository.scrollAllBefore(createdAt, id, limit);
+    }
+
+    List<Delivery> page = rows.subList(0, Math.min(rows.size(), pageSize));
+    return toCursorPage(Window.from(page, index -> DeliveryCursorCodec.positionOf(page.get(index)),
+        rows.size() > pageSize));
+  }
+
+  /**
+   * Admin search over all deliveries, newest first. Only the filters that are
+   * set become predicates, and results are keyset-scrolled without a count.
+   */
+  public DeliveryCursorPage searchDeliveries(DeliverySearchCriteria criteria, String cursor, int size) {
+    if (criteria.getCreatedFrom() != null && criteria.getCreatedTo() != null
+        && !criteria.getCreatedFrom().isBefore(criteria.getCreatedTo())) {
+      throw new InvalidSearchCriteriaException("createdFrom must be before createdTo");
+    }
+    if (criteria.getMinPrice() != null && criteria.getMaxPrice() != null
+        && criteria.getMinPrice().compareTo(criteria.getMaxPrice()) > 0) {
+      throw new InvalidSearchCriteriaException("minPrice must not exceed maxPrice");
+    }
+    ScrollPosition position = DeliveryCursorCodec.decode(cursor);
+    int limit = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+
+    Window<Delivery> window = deliveryRepository.findBy(DeliverySpecifications.matching(criteria), query -> query
+        .project("customer", "driver")
+        .sortBy(SCROLL_ORDER)
+        .limit(limit)
+        .scroll(position));
+    return toCursorPage(window);
+  }
+
+  /**
+   * Reads from the hot table first and falls back to the archive, so finished
+   * deliveries stay readable after the archiver has moved them.
+   */
   public DeliveryResponse getDeliveryResponseById(UUID deliveryId) {
-    return toDeliveryResponse(getDeliveryById(deliveryId));
+    return deliveryRepository.findById(deliveryId)
+        .or(() -> deliveryArchiver.findArchived(deliveryId))
+        .map(this::toDeliveryResponse)
+        .orElseThrow(() -> new EntityNotFoundException("Delivery not found with id: " + deliveryId));
+  }
+
+  /**
+   * Opens a stream of status changes and driver positions for the customer,
+   * the assigned driver or an admin. Access is checked once here instead of
+   * on every poll.
+   */
+  public SseEmitter openTrackingStream(UUID deliveryId, UUID userId) {
+    Delivery delivery = getDeliveryForParticipant(deliveryId, userId, "Not allowed to track this delivery");
+    return deliveryStreamRegistry.subscribe(toDeliveryResponse(delivery));
+  }
+
+  public List<DeliveryEventResponse> getDeliveryTimeline(UUID deliveryId, UUID userId) {
+    getDeliveryForParticipant(deliveryId, userId, "Not allowed to view this delivery's timeline");
+    return deliveryEventLog.timeline(deliveryId).stream()
+        .map(DeliveryService::toDeliveryEventResponse)
+        .toList();
+  }
+
+  private Optional<GeoPoint> coordinatesOf(String address, Double latitude, Double longitude) {
+    if (latitude != null && longitude != null) {
+      return Optional.of(new GeoPoint(latitude, longitude));
+    }
+    return geocodingService.geocode(address);
+  }
+
+  // The dispatch engine and the heatmap are in memory: they only learn about
+  // changes that committed, so a rollback leaves no phantom demand behind.
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
   }
 
   private Delivery getDeliveryById(UUID deliveryId) {
@@ -122,6 +317,21 @@ public class DeliveryService {
         .orElseThrow(() -> new EntityNotFoundException("Delivery not found with id: " + deliveryId));
   }
 
+  // Live or archived delivery, readable only by its customer, its driver or an admin.
+  private Delivery getDeliveryForParticipant(UUID deliveryId, UUID userId, String deniedMessage) {
+    User user = userService.validateAndGetUser(userId);
+    Delivery delivery = deliveryRepository.findById(deliveryId)
+        .or(() -> deliveryArchiver.findArchived(deliveryId))
+        .orElseThrow(() -> new EntityNotFoundException("Delivery not found with id: " + deliveryId));
+
+    boolean participant = userId.equals(delivery.getCustomer().getId())
+        || (delivery.getDriver() != null && userId.equals(delivery.getDriver().getId()));
+    if (!participant && user.getUserType() != UserType.ADMIN) {
+      throw new AccessDeniedException(deniedMessage);
+    }
+    return delivery;
+  }
+
   private void validateStatusTransition(DeliveryStatus currentStatus, DeliveryStatus newStatus) {
     boolean isValid = switch (currentStatus) {
       case PENDING -> newStatus == DeliveryStatus.DRIVER_ASSIGNED || newStatus == DeliveryStatus.CANCELLED;
@@ -138,12 +348,49 @@ public class DeliveryService {
   }
 
   private DeliveryResponse toDeliveryResponse(Delivery delivery) {
+    Location driverLocation = delivery.getDriver() != null
+        ? locationService.getDriverLocation(delivery.getDriver().getId()).orElse(null)
+        : null;
+    return toDeliveryResponse(delivery, driverLocation);
+  }
+
+  private DeliveryCursorPage toCursorPage(Window<Delivery> window) {
+    Map<UUID, Location> driverLocations = driverLocationsOf(window.getContent());
+    return DeliveryCursorPage.builder()
+        .items(window.getContent().stream().map(delivery -> toDeliveryResponse(delivery, driverLocations)).toList())
+        .hasNext(window.hasNext())
+        .nextCursor(window.hasNext() && !window.isEmpty()
+            ? DeliveryCursorCodec.encode(window.positionAt(window.size() - 1))
+            : null)
+        .build();
+  }
+
+  // One location lookup for the whole page instead of one per delivery.
+  private Map<UUID, Location> driverLocationsOf(List<Delivery> deliveries) {
+    Set<UUID> driverIds = deliveries.stream()
+        .map(Delivery::getDriver)
+        .filter(Objects::nonNull)
+        .map(User::getId)
+        .collect(Collectors.toSet());
+    return driverIds.isEmpty() ? Map.of() : locationService.getDriverLocations(driverIds);
+  }
+
+  private DeliveryResponse toDeliveryResponse(Delivery delivery, Map<UUID, Location> driverLocations) {
+    return toDeliveryResponse(delivery,
+        delivery.getDriver() != null ? driverLocations.get(delivery.getDriver().getId()) : null);
+  }
+
+  private DeliveryResponse toDeliveryResponse(Delivery delivery, Location driverLocation) {
     DeliveryResponse response = new DeliveryResponse();
     response.setId(delivery.getId());
     response.setCustomerId(delivery.getCustomer().getId());
     response.setDriverId(delivery.getDriver() != null ? delivery.getDriver().getId() : null);
     response.setPickupAddress(delivery.getPickupAddress());
     response.setDeliveryAddress(delivery.getDeliveryAddress());
+    response.setPickupLatitude(delivery.getPickupLatitude());
+    response.setPickupLongitude(delivery.getPickupLongitude());
+    response.setDeliveryLatitude(delivery.getDeliveryLatitude());
+    response.setDeliveryLongitude(delivery.getDeliveryLongitude());
     response.setPrice(delivery.getPrice());
     response.setStatus(delivery.getStatus());
     response.setDescription(delivery.getDescription());
@@ -151,15 +398,23 @@ public class DeliveryService {
     response.setUpdatedAt(delivery.getUpdatedAt());
     response.setPickedUpAt(delivery.getPickedUpAt());
     response.setDeliveredAt(delivery.getDeliveredAt());
-    response.setEstimatedDeliveryTime(delivery.getEstimatedDeliveryTime());
+    response.setEstimatedDeliveryTime(etaEngine.currentEta(delivery.getId()).orElse(delivery.getEstimatedDeliveryTime()));
 
-    if (delivery.getDriver() != null) {
-      locationService.getDriverLocation(delivery.getDriver().getId()).ifPresent(location -> {
-        response.setDriverLatitude(location.getLatitude());
-        response.setDriverLongitude(location.getLongitude());
-      });
+    if (driverLocation != null) {
+      response.setDriverLatitude(driverLocation.getLatitude());
+      response.setDriverLongitude(driverLocation.getLongitude());
     }
 
     return response;
   }
+
+  private static DeliveryEventResponse toDeliveryEventResponse(DeliveryEvent event) {
+    return DeliveryEventResponse.builder()
+        .id(event.getId())
+        .fromStatus(event.getFromStatus())
+        .toStatus(event.getToStatus())
+        .actorId(event.getActorId())
+        .occurredAt(event.getOccurredAt())
+        .build();
+  }
 }
\ No newline at end of file
@@ -0,0 +1,362 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.config.DeliveryConfig;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryPositionUpdate;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryResponse;
+import com.sbaldasso.combobackend.modules.location.domain.DriverLocationUpdatedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans delivery tracking updates out to Server-Sent Events streams.
+ *
+ * <p>Open streams are grouped in one channel per delivery, and channels are
+ * indexed by driver, so a status change or a driver ping becomes a single
+ * event queued on every stream of the delivery. Positions are throttled per
+ * delivery and coalesced per connection, which only ever holds the newest
+ * one. Writes happen on a small sender pool; a connection whose queue fills
+ * up is closed, and the client reconnects to a fresh snapshot. An idle
+ * stream costs its emitter, an empty queue and a heartbeat now and then.
+ */
+@Slf4j
+@Component
+public class DeliveryStreamRegistry {
+
+  private static final Set<DeliveryStatus> FINAL_STATUSES = Set.of(DeliveryStatus.DELIVERED, DeliveryStatus.CANCELLED);
+  private static final Event HEARTBEAT = new Event(null, null);
+
+  private final EtaEngine etaEngine;
+  private final DeliveryConfig.Stream config;
+  private final long positionIntervalNanos;
+  private final ConcurrentHashMap<UUID, Channel> channels = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<UUID, Set<UUID>> deliveriesByDriver = new ConcurrentHashMap<>();
+  private ExecutorService sender;
+
+  public DeliveryStreamRegistry(EtaEngine etaEngine, DeliveryConfig deliveryConfig) {
+    this.etaEngine = etaEngine;
+    this.config = deliveryConfig.getStream();
+    this.positionIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getPositionIntervalMillis());
+  }
+
+  @PostConstruct
+  public void start() {
+    AtomicInteger threads = new AtomicInteger();
+    sender = Executors.newFixedThreadPool(config.getSenderThreads(), runnable -> {
+      Thread thread = new Thread(runnable, "delivery-stream-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @PreDestroy
+  public void stop() {
+    sender.shutdownNow();
+    channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    channels.clear();
+    deliveriesByDriver.clear();
+  }
+
+  /**
+   * Opens a stream on a delivery, starting with its current state. Streams on
+   * finished deliveries receive that state and are closed right away.
+   */
+  public SseEmitter subscribe(DeliveryResponse snapshot) {
+    UUID deliveryId = snapshot.getId();
+    SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(config.getTimeoutMinutes()));
+    Subscriber subscriber = new Subscriber(emitter);
+    subscriber.events.add(new Event("status", snapshot));
+
+    if (FINAL_STATUSES.contains(snapshot.getStatus())) {
+      subscriber.closing = true;
+    } else {
+      emitter.onCompletion(() -> unsubscribe(deliveryId, subscriber));
+      emitter.onError(error -> unsubscribe(deliveryId, subscriber));
+      emitter.onTimeout(emitter::complete);
+      Channel channel = channels.compute(deliveryId, (id, current) -> {
+        Channel target = current != null ? current : new Channel(id, System.nanoTime() - positionIntervalNanos);
+        target.subscribers.add(subscriber);
+        return target;
+      });
+      indexDriver(channel, snapshot.getDriverId());
+    }
+    schedule(subscriber);
+    return emitter;
+  }
+
+  /**
+   * Pushes the new state of a delivery to its streams once the surrounding
+   * transaction commits. Streams are closed after a final status.
+   */
+  public void publishStatus(DeliveryResponse delivery) {
+    if (!channels.containsKey(delivery.getId())) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          pushStatus(delivery);
+        }
+      });
+    } else {
+      pushStatus(delivery);
+    }
+  }
+
+  public int getOpenStreams() {
+    return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+  }
+
+  @EventListener
+  public void onDriverLocationUpdated(DriverLocationUpdatedEvent event) {
+    Set<UUID> deliveryIds = deliveriesByDriver.get(event.getDriverId());
+    if (deliveryIds == null) {
+      return;
+    }
+    long now = System.nanoTime();
+    for (UUID deliveryId : deliveryIds) {
+      Channel channel = channels.get(deliveryId);
+      if (channel == null || !channel.claimPositionSlot(now, positionIntervalNanos)) {
+        continue;
+      }
+      Event position = new Event("position", DeliveryPositionUpdate.builder()
+          .deliveryId(deliveryId)
+          .driverLatitude(event.getLatitude())
+          .driverLongitude(event.getLongitude())
+          .speed(event.getSpeed())
+          .heading(event.getHeading())
+          .recordedAt(event.getRecordedAt())
+          .estimatedDeliveryTime(etaEngine.currentEta(deliveryId).orElse(null))
+          .build());
+      for (Subscriber subscriber : channel.subscribers) {
+        if (subscriber.offerPosition(position)) {
+          schedule(subscriber);
+        }
+      }
+    }
+  }
+
+  @Scheduled(fixedRateString = "${app.delivery.stream.heartbeat-millis:15000}")
+  public void heartbeat() {
+    for (Channel channel : channels.values()) {
+      for (Subscriber subscriber : channel.subscribers) {
+        if (subscriber.offerHeartbeat()) {
+          schedule(subscriber);
+        }
+      }
+    }
+  }
+
+  private void pushStatus(DeliveryResponse delivery) {
+    Channel channel = channels.get(delivery.getId());
+    if (channel == null) {
+      return;
+    }
+    boolean last = FINAL_STATUSES.contains(delivery.getStatus());
+    if (last) {
+      channels.remove(delivery.getId(), channel);
+      unindexDriver(channel);
+    } else {
+      indexDriver(channel, delivery.getDriverId());
+    }
+    Event status = new Event("status", delivery);
+    for (Subscriber subscriber : channel.subscribers) {
+      if (subscriber.offer(status, last, config.getBufferSize())) {
+        schedule(subscriber);
+      }
+    }
+  }
+
+  private void unsubscribe(UUID deliveryId, Subscriber subscriber) {
+    subscriber.close();
+    Channel channel = channels.get(deliveryId);
+    if (channel == null) {
+      return;
+    }
+    Channel remaining = channels.computeIfPresent(deliveryId, (id, current) -> {
+      current.subscribers.remove(subscriber);
+      return current.subscribers.isEmpty() ? null : current;
+    });
+    if (remaining == null) {
+      unindexDriver(channel);
+    }
+  }
+
+  private void indexDriver(Channel channel, UUID driverId) {
+    if (driverId == null || driverId.equals(channel.driverId)) {
+      return;
+    }
+    unindexDriver(channel);
+    channel.driverId = driverId;
+    deliveriesByDriver.compute(driverId, (id, deliveries) -> {
+      Set<UUID> target = deliveries != null ? deliveries : ConcurrentHashMap.newKeySet();
+      target.add(channel.deliveryId);
+      return target;
+    });
+  }
+
+  private void unindexDriver(Channel channel) {
+    UUID driverId = channel.driverId;
+    if (driverId != null) {
+      deliveriesByDriver.computeIfPresent(driverId, (id, deliveries) -> {
+        deliveries.remove(channel.deliveryId);
+        return deliveries.isEmpty() ? null : deliveries;
+      });
+    }
+  }
+
+  private void schedule(Subscriber subscriber) {
+    if (subscriber.scheduled.compareAndSet(false, true)) {
+      try {
+        sender.execute(() -> drain(subscriber));
+      } catch (RejectedExecutionException e) {
+        subscriber.scheduled.set(false);
+      }
+    }
+  }
+
+  private void drain(Subscriber subscriber) {
+    while (true) {
+      Event event = subscriber.next();
+      if (event == null) {
+        if (subscriber.isClosing()) {
+          subscriber.emitter.complete();
+        }
+        return;
+      }
+      try {
+        subscriber.emitter.send(event.toSseEvent());
+      } catch (IOException | IllegalStateException e) {
+        // Client went away or the stream already timed out.
+        subscriber.close();
+        subscriber.emitter.completeWithError(e);
+        return;
+      }
+    }
+  }
+
+  private static final class Channel {
+    private final UUID deliveryId;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lastPositionNanos;
+    private volatile UUID driverId;
+
+    private Channel(UUID deliveryId, long lastPositionNanos) {
+      this.deliveryId = deliveryId;
+      this.lastPositionNanos = new AtomicLong(lastPositionNanos);
+    }
+
+    private boolean claimPositionSlot(long now, long intervalNanos) {
+      long last = lastPositionNanos.get();
+      return now - last >= intervalNanos && lastPositionNanos.compareAndSet(last, now);
+    }
+  }
+
+  private static final class Subscriber {
+    private final SseEmitter emitter;
+    private final ArrayDeque<Event> events = new ArrayDeque<>(4);
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private Event position;
+    private boolean closing;
+
+    private Subscriber(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    /**
+     * Queues an event; a connection whose buffer is full is dropped instead.
+     */
+    private synchronized boolean offer(Event event, boolean last, int bufferSize) {
+      if (closing) {
+        return false;
+      }
+      if (events.size() >= bufferSize) {
+        events.clear();
+        position = null;
+        closing = true;
+        return true;
+      }
+      events.add(event);
+      closing = last;
+      return true;
+    }
+
+    private synchronized boolean offerPosition(Event event) {
+      if (closing) {
+        return false;
+      }
+      position = event;
+      return true;
+    }
+
+    private synchronized boolean offerHeartbeat() {
+      if (closing || !events.isEmpty() || position != null) {
+        return false;
+      }
+      events.add(HEARTBEAT);
+      return true;
+    }
+
+    /**
+     * Takes the next event to send, or releases the sender when there is none,
+     * so the next offer schedules a new drain.
+     */
+    private synchronized Event next() {
+      Event event = events.poll();
+      if (event == null) {
+        event = position;
+        position = null;
+      }
+      if (event == null) {
+        scheduled.set(false);
+      }
+      return event;
+    }
+
+    private synchronized boolean isClosing() {
+      return closing;
+    }
+
+    private synchronized void close() {
+      closing = true;
+      events.clear();
+      position = null;
+    }
+  }
+
+  private static final class Event {
+    private final String name;
+    private final Object data;
+
+    private Event(String name, Object data) {
+      this.name = name;
+      this.data = data;
+    }
+
+    // Builders are consumed when sent, so each connection gets its own.
+    private SseEmitter.SseEventBuilder toSseEvent() {
+      return name == null ? SseEmitter.event().comment("heartbeat") : SseEmitter.event().name(name).data(data);
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.config.DeliveryConfig;
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryEtaUpdate;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryRepository;
+import com.sbaldasso.combobackend.modules.location.domain.DriverLocationUpdatedEvent;
+import com.sbaldasso.combobackend.modules.location.service.GeoUtils;
+import com.sbaldasso.combobackend.modules.notification.service.WebSocketService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the estimated delivery time of in-progress deliveries up to date from
+ * their driver's location updates.
+ *
+ * <p>Active deliveries are indexed by driver, so a ping only looks at the
+ * deliveries that driver is carrying and the estimate is a couple of haversine
+ * distances over a smoothed speed. The latest estimate is cached here; the
+ * customer is notified, and the row marked dirty, only when it moves by more
+ * than the configured thresholds. Dirty estimates are written off the ping
+ * thread, every {@code persist-interval-ms}, in one JDBC batch.
+ */
+@Slf4j
+@Service
+public class EtaEngine {
+
+  private static final Set<DeliveryStatus> ACTIVE_STATUSES =
+      Set.of(DeliveryStatus.DRIVER_ASSIGNED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT);
+
+  private static final String UPDATE_ETA_SQL = "UPDATE deliveries SET estimated_delivery_time = ? WHERE id = ?";
+
+  private final DeliveryRepository deliveryRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final WebSocketService webSocketService;
+  private final DeliveryConfig.Eta config;
+  private final ConcurrentHashMap<UUID, Map<UUID, ActiveDelivery>> byDriver = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<UUID, ActiveDelivery> byDelivery = new ConcurrentHashMap<>();
+  // Latest estimate to write per delivery; a newer one replaces an unwritten one.
+  private final ConcurrentHashMap<UUID, LocalDateTime> dirty = new ConcurrentHashMap<>();
+
+  public EtaEngine(DeliveryRepository deliveryRepository, JdbcTemplate jdbcTemplate,
+      WebSocketService webSocketService, DeliveryConfig deliveryConfig) {
+    this.deliveryRepository = deliveryRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.webSocketService = webSocketService;
+    this.config = deliveryConfig.getEta();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadActiveDeliveries() {
+    if (config.isEnabled()) {
+      deliveryRepository.findByStatusIn(ACTIVE_STATUSES).forEach(this::track);
+    }
+  }
+
+  /**
+   * Starts tracking a delivery with an assigned driver, or records its new
+   * status if it is already tracked.
+   */
+  public void track(Delivery delivery) {
+    if (!config.isEnabled() || delivery.getDriver() == null
+        || delivery.getDeliveryLatitude() == null || delivery.getDeliveryLongitude() == null) {
+      return;
+    }
+    ActiveDelivery active = byDelivery.computeIfAbsent(delivery.getId(), id -> new ActiveDelivery(delivery,
+        config.getDefaultSpeedKmh()));
+    synchronized (active) {
+      active.status = delivery.getStatus();
+    }
+    byDriver.computeIfAbsent(active.driverId, id -> new ConcurrentHashMap<>()).put(active.deliveryId, active);
+  }
+
+  public void untrack(UUID deliveryId) {
+    dirty.remove(deliveryId);
+    ActiveDelivery active = byDelivery.remove(deliveryId);
+    if (active != null) {
+      byDriver.computeIfPresent(active.driverId, (id, deliveries) -> {
+        deliveries.remove(deliveryId);
+        return deliveries.isEmpty() ? null : deliveries;
+      });
+    }
+  }
+
+  public Optional<LocalDateTime> currentEta(UUID deliveryId) {
+    ActiveDelivery active = byDelivery.get(deliveryId);
+    if (active == null) {
+      return Optional.empty();
+    }
+    synchronized (active) {
+      return Optional.ofNullable(active.eta);
+    }
+  }
+
+  @EventListener
+  public void onDriverLocationUpdated(DriverLocationUpdatedEvent event) {
+    Map<UUID, ActiveDelivery> deliveries = byDriver.get(event.getDriverId());
+    if (deliveries == null) {
+      return;
+    }
+    deliveries.values().forEach(active -> recompute(active, event));
+  }
+
+  /**
+   * Writes the estimates that moved since the last run. Rows that fail are
+   * put back unless a newer estimate arrived in the meantime.
+   */
+  @Scheduled(fixedDelayString = "${app.delivery.eta.persist-interval-ms:5000}")
+  public void persistDirty() {
+    if (dirty.isEmpty()) {
+      return;
+    }
+    List<Map.Entry<UUID, LocalDateTime>> batch = new ArrayList<>(dirty.size());
+    for (UUID deliveryId : dirty.keySet()) {
+      LocalDateTime eta = dirty.remove(deliveryId);
+      if (eta != null) {
+        batch.add(Map.entry(deliveryId, eta));
+      }
+    }
+    try {
+      jdbcTemplate.batchUpdate(UPDATE_ETA_SQL, batch, batch.size(), (ps, entry) -> {
+        ps.setTimestamp(1, Timestamp.valueOf(entry.getValue()));
+        ps.setObject(2, entry.getKey());
+      });
+    } catch (RuntimeException e) {
+      log.warn("Failed to persist {} delivery ETAs, will retry", batch.size(), e);
+      batch.forEach(entry -> dirty.putIfAbsent(entry.getKey(), entry.getValue()));
+    }
+  }
+
+  @PreDestroy
+  public void persistOnShutdown() {
+    persistDirty();
+  }
+
+  private void recompute(ActiveDelivery active, DriverLocationUpdatedEvent event) {
+    DeliveryEtaUpdate push = null;
+
+    synchronized (active) {
+      if (event.getSpeed() != null) {
+        double observedKmh = Math.min(config.getMaxSpeedKmh(), Math.max(config.getMinSpeedKmh(), event.getSpeed() * 3.6));
+        active.speedKmh += config.getSpeedSmoothing() * (observedKmh - active.speedKmh);
+      }
+
+      double remainingKm;
+      long dwellSeconds = 0;
+      if (active.status == DeliveryStatus.DRIVER_ASSIGNED && active.pickupLatitude != null && active.pickupLongitude != null) {
+        remainingKm = GeoUtils.distanceKm(event.getLatitude(), event.getLongitude(), active.pickupLatitude, active.pickupLongitude)
+            + GeoUtils.distanceKm(active.pickupLatitude, active.pickupLongitude, active.deliveryLatitude, active.deliveryLongitude);
+        dwellSeconds = config.getPickupDwellSeconds();
+      } else {
+        remainingKm = GeoUtils.distanceKm(event.getLatitude(), event.getLongitude(), active.deliveryLatitude, active.deliveryLongitude);
+      }
+      remainingKm *= config.getDetourFactor();
+      long travelSeconds = Math.round(remainingKm / active.speedKmh * 3600);
+      active.eta = event.getRecordedAt().plusSeconds(travelSeconds + dwellSeconds);
+
+      if (movedBy(active.pushedEta, active.eta, config.getPushThresholdSeconds())) {
+        active.pushedEta = active.eta;
+        push = DeliveryEtaUpdate.builder()
+            .deliveryId(active.deliveryId)
+            .status(active.status)
+            .estimatedDeliveryTime(active.eta)
+            .remainingKm(remainingKm)
+            .driverLatitude(event.getLatitude())
+            .driverLongitude(event.getLongitude())
+            .build();
+      }
+      if (movedBy(active.persistedEta, active.eta, config.getPersistThresholdSeconds())) {
+        active.persistedEta = active.eta;
+        dirty.put(active.deliveryId, active.eta);
+      }
+    }
+
+    if (push != null) {
+      webSocketService.sendDeliveryUpdate(active.customerId.toString(), push);
+    }
+  }
+
+  private static boolean movedBy(LocalDateTime previous, LocalDateTime next, int thresholdSeconds) {
+    return previous == null || Math.abs(Duration.between(previous, next).getSeconds()) >= thresholdSeconds;
+  }
+
+  private static final class ActiveDelivery {
+    private final UUID deliveryId;
+    private final UUID driverId;
+    private final UUID customerId;
+    private final Double pickupLatitude;
+    private final Double pickupLongitude;
+    private final double deliveryLatitude;
+    private final double deliveryLongitude;
+    private DeliveryStatus status;
+    private double speedKmh;
+    private LocalDateTime eta;
+    private LocalDateTime pushedEta;
+    private LocalDateTime persistedEta;
+
+    private ActiveDelivery(Delivery delivery, double speedKmh) {
+      this.deliveryId = delivery.getId();
+      this.driverId = delivery.getDriver().getId();
+      this.customerId = delivery.getCustomer().getId();
+      this.pickupLatitude = delivery.getPickupLatitude();
+      this.pickupLongitude = delivery.getPickupLongitude();
+      this.deliveryLatitude = delivery.getDeliveryLatitude();
+      this.deliveryLongitude = delivery.getDeliveryLongitude();
+      this.status = delivery.getStatus();
+      this.speedKmh = speedKmh;
+      this.persistedEta = delivery.getEstimatedDeliveryTime();
+      this.eta = delivery.getEstimatedDeliveryTime();
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.sbaldasso.combobackend.modules.dispatch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.dispatch")
+@Data
+public class DispatchConfig {
+  private boolean enabled = true;
+  private long windowMs = 2000;
+  private int offerTimeoutSeconds = 20;
+  private double searchRadiusKm = 5.0;
+  private int candidatesPerDelivery = 8;
+  private double agingKmPerMinute = 0.5;
+  /**
+   * Offers a delivery may lapse or be declined before it is broadcast instead.
+   */
+  private int maxOfferAttempts = 3;
+  /**
+   * Age at which a delivery nobody took (or nobody was near) is broadcast.
+   */
+  private int broadcastAfterSeconds = 120;
+}
@@ -0,0 +1,13 @@
+package com.sbaldasso.combobackend.modules.dispatch.domain;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Value
+public class DispatchOffer {
+  DispatchRequest request;
+  UUID driverId;
+  LocalDateTime expiresAt;
+}
@@ -0,0 +1,32 @@
+package com.sbaldasso.combobackend.modules.dispatch.domain;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A pending delivery waiting for the dispatcher, with the drivers that already
+ * let an offer for it lapse.
+ */
+@Getter
+public class DispatchRequest {
+
+  private final UUID deliveryId;
+  private final String pickupAddress;
+  private final double pickupLatitude;
+  private final double pickupLongitude;
+  private final LocalDateTime submittedAt;
+  private final Set<UUID> declinedDrivers = new HashSet<>();
+
+  public DispatchRequest(UUID deliveryId, String pickupAddress, double pickupLatitude, double pickupLongitude,
+      LocalDateTime submittedAt) {
+    this.deliveryId = deliveryId;
+    this.pickupAddress = pickupAddress;
+    this.pickupLatitude = pickupLatitude;
+    this.pickupLongitude = pickupLongitude;
+    this.submittedAt = submittedAt;
+  }
+}
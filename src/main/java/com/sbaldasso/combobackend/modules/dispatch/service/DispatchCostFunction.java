@@ -0,0 +1,15 @@
+package com.sbaldasso.combobackend.modules.dispatch.service;
+
+import com.sbaldasso.combobackend.modules.dispatch.domain.DispatchRequest;
+import com.sbaldasso.combobackend.modules.location.domain.NearbyDriver;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cost of assigning a driver to a delivery; the dispatcher prefers lower costs.
+ * Declare another bean of this type as {@code @Primary} to change the matching
+ * policy.
+ */
+public interface DispatchCostFunction {
+  double cost(DispatchRequest request, NearbyDriver driver, LocalDateTime now);
+}
@@ -0,0 +1,296 @@
+package com.sbaldasso.combobackend.modules.dispatch.service;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxType;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryRepository;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryOutbox;
+import com.sbaldasso.combobackend.modules.dispatch.config.DispatchConfig;
+import com.sbaldasso.combobackend.modules.dispatch.domain.DispatchOffer;
+import com.sbaldasso.combobackend.modules.dispatch.domain.DispatchRequest;
+import com.sbaldasso.combobackend.modules.location.domain.NearbyDriver;
+import com.sbaldasso.combobackend.modules.location.service.DriverSpatialIndex;
+import com.sbaldasso.combobackend.modules.notification.service.NotificationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch dispatcher for pending deliveries.
+ *
+ * <p>Deliveries are collected over a short window. At the end of each window
+ * the engine looks up the nearest free drivers of every open delivery in the
+ * spatial index, sorts all candidate pairs by {@link DispatchCostFunction} and
+ * assigns greedily, so each delivery is offered to a single driver and each
+ * driver holds at most one offer. Offers that are not accepted in time are
+ * withdrawn and the delivery goes back to the pool without that driver.
+ * A delivery that used up {@code max-offer-attempts}, or is older than
+ * {@code broadcast-after-seconds} (e.g. no driver within the search radius),
+ * leaves the pool and is broadcast to nearby drivers through the outbox.
+ *
+ * <p>Matching runs on its own single-threaded scheduler. Only that thread
+ * touches the open pool; request threads hand over new and closed deliveries
+ * through concurrent queues.
+ */
+@Slf4j
+@Service
+public class DispatchEngine {
+
+  private static final Set<DeliveryStatus> ACTIVE_STATUSES =
+      Set.of(DeliveryStatus.DRIVER_ASSIGNED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT);
+
+  private final DriverSpatialIndex driverSpatialIndex;
+  private final NotificationService notificationService;
+  private final DeliveryRepository deliveryRepository;
+  private final DeliveryOutbox deliveryOutbox;
+  private final DispatchCostFunction costFunction;
+  private final DispatchConfig config;
+
+  private final ConcurrentLinkedQueue<DispatchRequest> incoming = new ConcurrentLinkedQueue<>();
+  private final Set<UUID> closed = ConcurrentHashMap.newKeySet();
+  private final Set<UUID> engagedDrivers = ConcurrentHashMap.newKeySet();
+  private final ConcurrentHashMap<UUID, DispatchOffer> offers = new ConcurrentHashMap<>();
+  private final Map<UUID, DispatchRequest> open = new LinkedHashMap<>();
+  private ScheduledExecutorService scheduler;
+
+  public DispatchEngine(DriverSpatialIndex driverSpatialIndex, NotificationService notificationService,
+      DeliveryRepository deliveryRepository, DeliveryOutbox deliveryOutbox, DispatchCostFunction costFunction,
+      DispatchConfig dispatchConfig) {
+    this.driverSpatialIndex = driverSpatialIndex;
+    this.notificationService = notificationService;
+    this.deliveryRepository = deliveryRepository;
+    this.deliveryOutbox = deliveryOutbox;
+    this.costFunction = costFunction;
+    this.config = dispatchConfig;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!config.isEnabled()) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "dispatch-engine");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::safeDispatchWindow, config.getWindowMs(), config.getWindowMs(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadPendingDeliveries() {
+    if (config.isEnabled()) {
+      engagedDrivers.addAll(deliveryRepository.findDriverIdsByStatusIn(ACTIVE_STATUSES));
+      deliveryRepository.findDispatchableByStatus(DeliveryStatus.PENDING).forEach(this::submit);
+    }
+  }
+
+  /**
+   * Whether {@link #submit} would take the delivery: the engine is enabled and
+   * the pickup has coordinates. The others are broadcast instead.
+   */
+  public boolean canDispatch(Delivery delivery) {
+    return config.isEnabled() && delivery.getPickupLatitude() != null && delivery.getPickupLongitude() != null;
+  }
+
+  /**
+   * Queues a new delivery for the next window.
+   *
+   * @return {@code false} when the delivery cannot be dispatched (see
+   *     {@link #canDispatch}) and should be broadcast instead
+   */
+  public boolean submit(Delivery delivery) {
+    if (!canDispatch(delivery)) {
+      return false;
+    }
+    incoming.add(new DispatchRequest(delivery.getId(), delivery.getPickupAddress(),
+        delivery.getPickupLatitude(), delivery.getPickupLongitude(), LocalDateTime.now()));
+    return true;
+  }
+
+  /**
+   * Fails when the delivery is currently offered to a different driver.
+   */
+  public void checkOffer(UUID deliveryId, UUID driverId) {
+    DispatchOffer offer = offers.get(deliveryId);
+    if (offer != null && !offer.getDriverId().equals(driverId)) {
+      throw new IllegalStateException("Delivery is currently offered to another driver");
+    }
+  }
+
+  /**
+   * Withdraws the driver's offer right away so the delivery is matched again in
+   * the next window.
+   */
+  public void decline(UUID deliveryId, UUID driverId) {
+    DispatchOffer offer = offers.get(deliveryId);
+    if (offer == null || !offer.getDriverId().equals(driverId)) {
+      throw new IllegalStateException("No pending offer for this driver");
+    }
+    if (offers.remove(deliveryId, offer)) {
+      requeue(offer);
+    }
+  }
+
+  /**
+   * Removes a delivery that left {@code PENDING} (accepted or cancelled).
+   */
+  public void close(UUID deliveryId) {
+    offers.remove(deliveryId);
+    closed.add(deliveryId);
+  }
+
+  /**
+   * Removes an accepted delivery and keeps its driver out of matching until
+   * {@link #release(UUID)}.
+   */
+  public void assign(UUID deliveryId, UUID driverId) {
+    engagedDrivers.add(driverId);
+    close(deliveryId);
+  }
+
+  public void release(UUID driverId) {
+    engagedDrivers.remove(driverId);
+  }
+
+  public Optional<DispatchOffer> getOffer(UUID deliveryId) {
+    return Optional.ofNullable(offers.get(deliveryId));
+  }
+
+  /**
+   * Runs one matching round and returns the number of offers made.
+   */
+  public synchronized int dispatchWindow() {
+    long started = System.nanoTime();
+    LocalDateTime now = LocalDateTime.now();
+
+    offers.values().stream()
+        .filter(offer -> offer.getExpiresAt().isBefore(now))
+        .forEach(offer -> {
+          if (offers.remove(offer.getRequest().getDeliveryId(), offer)) {
+            requeue(offer);
+          }
+        });
+    DispatchRequest next;
+    while ((next = incoming.poll()) != null) {
+      open.put(next.getDeliveryId(), next);
+    }
+    for (UUID deliveryId : closed) {
+      closed.remove(deliveryId);
+      open.remove(deliveryId);
+    }
+    open.keySet().removeAll(offers.keySet());
+    broadcastUnmatched(now);
+    if (open.isEmpty()) {
+      return 0;
+    }
+
+    Set<UUID> busyDrivers = new HashSet<>(engagedDrivers);
+    offers.values().forEach(offer -> busyDrivers.add(offer.getDriverId()));
+
+    List<Candidate> candidates = new ArrayList<>();
+    for (DispatchRequest request : open.values()) {
+      int wanted = config.getCandidatesPerDelivery() + request.getDeclinedDrivers().size();
+      for (NearbyDriver driver : driverSpatialIndex.findNearest(request.getPickupLatitude(),
+          request.getPickupLongitude(), wanted, config.getSearchRadiusKm())) {
+        if (!busyDrivers.contains(driver.getDriverId())
+            && !request.getDeclinedDrivers().contains(driver.getDriverId())) {
+          candidates.add(new Candidate(request, driver, costFunction.cost(request, driver, now)));
+        }
+      }
+    }
+    candidates.sort(Comparator.comparingDouble(candidate -> candidate.cost));
+
+    LocalDateTime expiresAt = now.plusSeconds(config.getOfferTimeoutSeconds());
+    int offered = 0;
+    for (Candidate candidate : candidates) {
+      UUID deliveryId = candidate.request.getDeliveryId();
+      UUID driverId = candidate.driver.getDriverId();
+      if (!open.containsKey(deliveryId) || !busyDrivers.add(driverId)) {
+        continue;
+      }
+      open.remove(deliveryId);
+      offers.put(deliveryId, new DispatchOffer(candidate.request, driverId, expiresAt));
+      notificationService.notifyDeliveryOffer(driverId, deliveryId, candidate.request.getPickupAddress());
+      offered++;
+    }
+
+    log.debug("Dispatch window: {} offers, {} deliveries still open, {} candidates in {} ms",
+        offered, open.size(), candidates.size(), (System.nanoTime() - started) / 1_000_000);
+    return offered;
+  }
+
+  private void safeDispatchWindow() {
+    try {
+      dispatchWindow();
+    } catch (RuntimeException e) {
+      log.error("Dispatch window failed", e);
+    }
+  }
+
+  // Hands deliveries the engine keeps failing to place over to the broadcast.
+  private void broadcastUnmatched(LocalDateTime now) {
+    LocalDateTime cutoff = now.minusSeconds(config.getBroadcastAfterSeconds());
+    List<UUID> unmatched = open.values().stream()
+        .filter(request -> request.getDeclinedDrivers().size() >= config.getMaxOfferAttempts()
+            || request.getSubmittedAt().isBefore(cutoff))
+        .map(DispatchRequest::getDeliveryId)
+        .toList();
+    if (unmatched.isEmpty()) {
+      return;
+    }
+    try {
+      deliveryOutbox.appendAllPending(unmatched, DeliveryOutboxType.BROADCAST);
+    } catch (RuntimeException e) {
+      log.error("Failed to broadcast {} unmatched deliveries, will retry", unmatched.size(), e);
+      return;
+    }
+    unmatched.forEach(open::remove);
+    log.info("Broadcasting {} deliveries the dispatcher could not place", unmatched.size());
+  }
+
+  private void requeue(DispatchOffer offer) {
+    DispatchRequest request = offer.getRequest();
+    request.getDeclinedDrivers().add(offer.getDriverId());
+    incoming.add(request);
+  }
+
+  private static final class Candidate {
+    private final DispatchRequest request;
+    private final NearbyDriver driver;
+    private final double cost;
+
+    private Candidate(DispatchRequest request, NearbyDriver driver, double cost) {
+      this.request = request;
+      this.driver = driver;
+      this.cost = cost;
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.sbaldasso.combobackend.modules.dispatch.service;
+
+import com.sbaldasso.combobackend.modules.dispatch.config.DispatchConfig;
+import com.sbaldasso.combobackend.modules.dispatch.domain.DispatchRequest;
+import com.sbaldasso.combobackend.modules.location.domain.NearbyDriver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Distance to the pickup, discounted by how long the delivery has been waiting
+ * so that old requests are not starved by newer ones next to a driver.
+ */
+@Component
+@RequiredArgsConstructor
+public class PickupDistanceCostFunction implements DispatchCostFunction {
+
+  private final DispatchConfig dispatchConfig;
+
+  @Override
+  public double cost(DispatchRequest request, NearbyDriver driver, LocalDateTime now) {
+    double waitingMinutes = Duration.between(request.getSubmittedAt(), now).toMillis() / 60_000.0;
+    return driver.getDistanceKm() - dispatchConfig.getAgingKmPerMinute() * Math.max(0, waitingMinutes);
+  }
+}
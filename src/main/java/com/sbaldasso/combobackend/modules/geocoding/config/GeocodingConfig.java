@@ -0,0 +1,20 @@
+package com.sbaldasso.combobackend.modules.geocoding.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.geocoding")
+@Data
+public class GeocodingConfig {
+  /**
+   * Normalized addresses kept in memory, least recently used evicted first.
+   */
+  private int cacheSize = 5000;
+
+  /**
+   * Gazetteer read by the file-backed geocoder, one {@code address;latitude;longitude} per line.
+   */
+  private String file = "classpath:geocoding/addresses.csv";
+}
@@ -0,0 +1,9 @@
+package com.sbaldasso.combobackend.modules.geocoding.domain;
+
+import lombok.Value;
+
+@Value
+public class GeoPoint {
+  double latitude;
+  double longitude;
+}
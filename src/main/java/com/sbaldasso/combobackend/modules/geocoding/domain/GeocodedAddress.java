@@ -0,0 +1,28 @@
+package com.sbaldasso.combobackend.modules.geocoding.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "geocoded_addresses")
+@Data
+public class GeocodedAddress {
+
+  @Id
+  @Column(name = "normalized_address", length = 512)
+  private String normalizedAddress;
+
+  @Column(nullable = false)
+  private Double latitude;
+
+  @Column(nullable = false)
+  private Double longitude;
+
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+}
@@ -0,0 +1,28 @@
+package com.sbaldasso.combobackend.modules.geocoding.repository;
+
+import com.sbaldasso.combobackend.modules.geocoding.domain.GeocodedAddress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface GeocodedAddressRepository extends JpaRepository<GeocodedAddress, String> {
+
+  /**
+   * Stores a resolved address unless a concurrent request already did, without
+   * failing the surrounding transaction on the duplicate key.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = """
+      INSERT INTO geocoded_addresses (normalized_address, latitude, longitude, created_at)
+      VALUES (:address, :latitude, :longitude, :createdAt)
+      ON CONFLICT (normalized_address) DO NOTHING""", nativeQuery = true)
+  int insertIfAbsent(@Param("address") String normalizedAddress, @Param("latitude") double latitude,
+      @Param("longitude") double longitude, @Param("createdAt") LocalDateTime createdAt);
+}
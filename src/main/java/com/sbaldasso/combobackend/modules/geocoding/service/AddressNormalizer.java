@@ -0,0 +1,26 @@
+package com.sbaldasso.combobackend.modules.geocoding.service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical form of a free-text address, used as the cache key: accents,
+ * case, punctuation and whitespace do not produce distinct entries.
+ */
+public final class AddressNormalizer {
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private AddressNormalizer() {
+  }
+
+  public static String normalize(String address) {
+    if (address == null) {
+      return "";
+    }
+    String normalized = DIACRITICS.matcher(Normalizer.normalize(address, Normalizer.Form.NFD)).replaceAll("");
+    return SEPARATORS.matcher(normalized.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+  }
+}
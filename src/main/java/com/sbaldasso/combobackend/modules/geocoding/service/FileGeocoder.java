@@ -0,0 +1,63 @@
+package com.sbaldasso.combobackend.modules.geocoding.service;
+
+import com.sbaldasso.combobackend.modules.geocoding.config.GeocodingConfig;
+import com.sbaldasso.combobackend.modules.geocoding.domain.GeoPoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Geocoder backed by a local gazetteer file, for tests and local development.
+ * Each line holds {@code address;latitude;longitude}; blank lines and lines
+ * starting with {@code #} are ignored.
+ */
+@Slf4j
+@Component
+public class FileGeocoder implements Geocoder {
+
+  private final Map<String, GeoPoint> entries = new HashMap<>();
+
+  public FileGeocoder(ResourceLoader resourceLoader, GeocodingConfig geocodingConfig) {
+    Resource resource = resourceLoader.getResource(geocodingConfig.getFile());
+    if (!resource.exists()) {
+      log.warn("Geocoding file {} not found, addresses will not be resolved", geocodingConfig.getFile());
+      return;
+    }
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        parse(line.trim());
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read geocoding file " + geocodingConfig.getFile(), e);
+    }
+    log.info("Loaded {} addresses from {}", entries.size(), geocodingConfig.getFile());
+  }
+
+  @Override
+  public Optional<GeoPoint> geocode(String normalizedAddress) {
+    return Optional.ofNullable(entries.get(normalizedAddress));
+  }
+
+  private void parse(String line) {
+    if (line.isEmpty() || line.startsWith("#")) {
+      return;
+    }
+    String[] fields = line.split(";");
+    if (fields.length != 3) {
+      throw new IllegalStateException("Malformed geocoding entry: " + line);
+    }
+    entries.put(AddressNormalizer.normalize(fields[0]),
+        new GeoPoint(Double.parseDouble(fields[1].trim()), Double.parseDouble(fields[2].trim())));
+  }
+}
@@ -0,0 +1,15 @@
+package com.sbaldasso.combobackend.modules.geocoding.service;
+
+import com.sbaldasso.combobackend.modules.geocoding.domain.GeoPoint;
+
+import java.util.Optional;
+
+/**
+ * Resolves a normalized address to coordinates. Implementations are only
+ * consulted on a miss of both {@link GeocodingService} cache tiers; to plug in
+ * an external provider, declare it as a {@code @Primary} bean.
+ */
+public interface Geocoder {
+
+  Optional<GeoPoint> geocode(String normalizedAddress);
+}
@@ -0,0 +1,70 @@
+package com.sbaldasso.combobackend.modules.geocoding.service;
+
+import com.sbaldasso.combobackend.modules.geocoding.config.GeocodingConfig;
+import com.sbaldasso.combobackend.modules.geocoding.domain.GeoPoint;
+import com.sbaldasso.combobackend.modules.geocoding.repository.GeocodedAddressRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves delivery addresses through two cache tiers in front of the
+ * {@link Geocoder}: an in-memory LRU of normalized addresses, then the
+ * {@code geocoded_addresses} table. Pickups repeat a lot (the same restaurants
+ * over and over), so almost every lookup is served from memory and the
+ * geocoder only sees addresses that were never resolved before.
+ */
+@Slf4j
+@Service
+public class GeocodingService {
+
+  private final Geocoder geocoder;
+  private final GeocodedAddressRepository geocodedAddressRepository;
+  private final Map<String, GeoPoint> cache;
+
+  public GeocodingService(Geocoder geocoder, GeocodedAddressRepository geocodedAddressRepository,
+      GeocodingConfig geocodingConfig) {
+    this.geocoder = geocoder;
+    this.geocodedAddressRepository = geocodedAddressRepository;
+    int cacheSize = geocodingConfig.getCacheSize();
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, GeoPoint> eldest) {
+        return size() > cacheSize;
+      }
+    };
+  }
+
+  public Optional<GeoPoint> geocode(String address) {
+    String key = AddressNormalizer.normalize(address);
+    if (key.isEmpty()) {
+      return Optional.empty();
+    }
+    synchronized (cache) {
+      GeoPoint cached = cache.get(key);
+      if (cached != null) {
+        return Optional.of(cached);
+      }
+    }
+
+    Optional<GeoPoint> point = geocodedAddressRepository.findById(key)
+        .map(row -> new GeoPoint(row.getLatitude(), row.getLongitude()));
+    if (point.isEmpty()) {
+      point = geocoder.geocode(key);
+      point.ifPresent(resolved -> geocodedAddressRepository.insertIfAbsent(
+          key, resolved.getLatitude(), resolved.getLongitude(), LocalDateTime.now()));
+    }
+    if (point.isEmpty()) {
+      log.debug("Could not geocode address '{}'", key);
+      return point;
+    }
+    synchronized (cache) {
+      cache.put(key, point.get());
+    }
+    return point;
+  }
+}
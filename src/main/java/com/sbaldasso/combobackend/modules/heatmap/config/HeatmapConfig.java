@@ -0,0 +1,12 @@
+package com.sbaldasso.combobackend.modules.heatmap.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.heatmap")
+@Data
+public class HeatmapConfig {
+  private long publishIntervalMs = 2000;
+}
@@ -0,0 +1,26 @@
+package com.sbaldasso.combobackend.modules.heatmap.controller;
+
+import com.sbaldasso.combobackend.modules.heatmap.dto.HeatmapSnapshot;
+import com.sbaldasso.combobackend.modules.heatmap.service.HeatmapService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/v1/heatmap")
+@RequiredArgsConstructor
+public class HeatmapController {
+
+  private final HeatmapService heatmapService;
+
+  @GetMapping
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<HeatmapSnapshot> getHeatmap(
+      @RequestParam(required = false) Double minLatitude,
+      @RequestParam(required = false) Double maxLatitude,
+      @RequestParam(required = false) Double minLongitude,
+      @RequestParam(required = false) Double maxLongitude) {
+    return ResponseEntity.ok(heatmapService.getSnapshot(minLatitude, maxLatitude, minLongitude, maxLongitude));
+  }
+}
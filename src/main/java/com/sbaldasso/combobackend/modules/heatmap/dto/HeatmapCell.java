@@ -0,0 +1,13 @@
+package com.sbaldasso.combobackend.modules.heatmap.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class HeatmapCell {
+  private double latitude;
+  private double longitude;
+  private int supply;
+  private int demand;
+}
@@ -0,0 +1,14 @@
+package com.sbaldasso.combobackend.modules.heatmap.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class HeatmapSnapshot {
+  private long sequence;
+  private double cellSizeDegrees;
+  private List<HeatmapCell> cells;
+}
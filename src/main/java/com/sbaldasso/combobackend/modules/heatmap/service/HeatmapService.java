@@ -0,0 +1,142 @@
+package com.sbaldasso.combobackend.modules.heatmap.service;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryRepository;
+import com.sbaldasso.combobackend.modules.heatmap.dto.HeatmapCell;
+import com.sbaldasso.combobackend.modules.heatmap.dto.HeatmapSnapshot;
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.service.GeoGrid;
+import com.sbaldasso.combobackend.modules.notification.service.WebSocketService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts of available drivers (supply) and pending deliveries (demand) per
+ * cell of the driver index grid, kept up to date incrementally.
+ *
+ * <p>Supply moves only when a driver crosses a cell boundary and demand only on
+ * delivery transitions into or out of {@code PENDING}, so maintaining the map
+ * costs nothing per ping and a query is proportional to the occupied cells.
+ * Changed cells are pushed on {@code /topic/heatmap} with their absolute counts
+ * and a sequence number; clients apply deltas newer than their snapshot.
+ */
+@Slf4j
+@Service
+public class HeatmapService {
+
+  private final DeliveryRepository deliveryRepository;
+  private final WebSocketService webSocketService;
+  private final GeoGrid grid;
+  private final ConcurrentHashMap<Long, Counts> cells = new ConcurrentHashMap<>();
+  private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+  private final AtomicLong sequence = new AtomicLong();
+
+  public HeatmapService(DeliveryRepository deliveryRepository, WebSocketService webSocketService,
+      LocationConfig locationConfig) {
+    this.deliveryRepository = deliveryRepository;
+    this.webSocketService = webSocketService;
+    this.grid = new GeoGrid(locationConfig.getIndex().getCellSizeDegrees());
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadPendingDemand() {
+    deliveryRepository.findPickupPointsByStatus(DeliveryStatus.PENDING).forEach(point ->
+        adjust(grid.cellOf(point.getPickupLatitude(), point.getPickupLongitude()), 0, 1));
+  }
+
+  public void adjustSupply(long cell, int delta) {
+    adjust(cell, delta, 0);
+  }
+
+  public void demandOpened(Delivery delivery) {
+    adjustDemand(delivery, 1);
+  }
+
+  public void demandClosed(Delivery delivery) {
+    adjustDemand(delivery, -1);
+  }
+
+  /**
+   * Current counts, optionally restricted to a bounding box.
+   */
+  public HeatmapSnapshot getSnapshot(Double minLatitude, Double maxLatitude, Double minLongitude, Double maxLongitude) {
+    long currentSequence = sequence.get();
+    List<HeatmapCell> result = new ArrayList<>();
+    cells.forEach((cell, counts) -> {
+      double latitude = grid.centerLatitude(cell);
+      double longitude = grid.centerLongitude(cell);
+      if ((minLatitude == null || latitude >= minLatitude) && (maxLatitude == null || latitude <= maxLatitude)
+          && (minLongitude == null || longitude >= minLongitude) && (maxLongitude == null || longitude <= maxLongitude)) {
+        result.add(toCell(cell, counts));
+      }
+    });
+    return snapshot(currentSequence, result);
+  }
+
+  @Scheduled(fixedDelayString = "${app.heatmap.publish-interval-ms:2000}")
+  public void publishDeltas() {
+    if (dirty.isEmpty()) {
+      return;
+    }
+    List<HeatmapCell> changed = new ArrayList<>();
+    for (Long cell : dirty) {
+      dirty.remove(cell);
+      changed.add(toCell(cell, cells.getOrDefault(cell, Counts.EMPTY)));
+    }
+    webSocketService.sendHeatmapUpdate(snapshot(sequence.incrementAndGet(), changed));
+  }
+
+  private void adjustDemand(Delivery delivery, int delta) {
+    if (delivery.getPickupLatitude() != null && delivery.getPickupLongitude() != null) {
+      adjust(grid.cellOf(delivery.getPickupLatitude(), delivery.getPickupLongitude()), 0, delta);
+    }
+  }
+
+  private void adjust(long cell, int supplyDelta, int demandDelta) {
+    cells.compute(cell, (key, counts) -> {
+      Counts current = counts != null ? counts : Counts.EMPTY;
+      Counts next = new Counts(Math.max(0, current.supply + supplyDelta), Math.max(0, current.demand + demandDelta));
+      return next.supply == 0 && next.demand == 0 ? null : next;
+    });
+    dirty.add(cell);
+  }
+
+  private HeatmapCell toCell(long cell, Counts counts) {
+    return HeatmapCell.builder()
+        .latitude(grid.centerLatitude(cell))
+        .longitude(grid.centerLongitude(cell))
+        .supply(counts.supply)
+        .demand(counts.demand)
+        .build();
+  }
+
+  private HeatmapSnapshot snapshot(long snapshotSequence, List<HeatmapCell> result) {
+    return HeatmapSnapshot.builder()
+        .sequence(snapshotSequence)
+        .cellSizeDegrees(grid.getCellSizeDegrees())
+        .cells(result)
+        .build();
+  }
+
+  private static final class Counts {
+    private static final Counts EMPTY = new Counts(0, 0);
+
+    private final int supply;
+    private final int demand;
+
+    private Counts(int supply, int demand) {
+      this.supply = supply;
+      this.demand = demand;
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.sbaldasso.combobackend.modules.location.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.location")
+@Data
+public class LocationConfig {
+  private int updateIntervalSeconds = 10;
+  private Index index = new Index();
+  private WriteBehind writeBehind = new WriteBehind();
+  private History history = new History();
+  private Filter filter = new Filter();
+  private Bulk bulk = new Bulk();
+  private Liveness liveness = new Liveness();
+
+  @Data
+  public static class Index {
+    /**
+     * Edge of a grid cell in degrees. 0.01 is roughly 1.1 km at the equator.
+     */
+    private double cellSizeDegrees = 0.01;
+  }
+
+  @Data
+  public static class WriteBehind {
+    /**
+     * Buffer pings in memory and persist only the latest position per driver.
+     */
+    private boolean enabled = false;
+    private long flushIntervalMs = 1000;
+    private int batchSize = 500;
+  }
+
+  @Data
+  public static class History {
+    private boolean enabled = true;
+    /**
+     * Daily partitions older than this are dropped.
+     */
+    private int retentionDays = 30;
+    private int queueCapacity = 100_000;
+    private long flushIntervalMs = 500;
+    private int batchSize = 1000;
+    private int maxQueryDays = 7;
+    /**
+     * Rows read per round trip when streaming a driver's history.
+     */
+    private int streamFetchSize = 1000;
+  }
+
+  @Data
+  public static class Filter {
+    private boolean enabled = true;
+    /**
+     * Maximum distance between the dead-reckoned and the reported position.
+     */
+    private double distanceThresholdMeters = 30;
+    private double headingThresholdDegrees = 30;
+    /**
+     * A point is always accepted once this much time passed since the last accepted one.
+     */
+    private long maxIntervalSeconds = 60;
+  }
+
+  @Data
+  public static class Bulk {
+    private int maxPoints = 50_000;
+    private int batchSize = 500;
+  }
+
+  @Data
+  public static class Liveness {
+    private boolean enabled = true;
+    /**
+     * Drivers are expired after missing this many update intervals.
+     */
+    private int missedIntervals = 3;
+    private long tickMillis = 1000;
+    private int wheelSize = 512;
+  }
+}
@@ -1,14 +1,30 @@
 package com.sbaldasso.combobackend.modules.location.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.sbaldasso.combobackend.modules.location.domain.Location;
+import com.sbaldasso.combobackend.modules.location.domain.LocationPing;
+import com.sbaldasso.combobackend.modules.location.dto.BulkLocationResult;
+import com.sbaldasso.combobackend.modules.location.dto.DriverLivenessStats;
 import com.sbaldasso.combobackend.modules.location.dto.UpdateLocationRequest;
+import com.sbaldasso.combobackend.modules.location.service.DriverLivenessTracker;
+import com.sbaldasso.combobackend.modules.location.service.LocationBulkIngestService;
 import com.sbaldasso.combobackend.modules.location.service.LocationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @RestController
@@ -17,6 +33,9 @@ import java.util.UUID;
 public class LocationController {
 
   private final LocationService locationService;
+  private final LocationBulkIngestService locationBulkIngestService;
+  private final DriverLivenessTracker driverLivenessTracker;
+  private final ObjectMapper objectMapper;
 
   @PutMapping("/driver")
   @PreAuthorize("hasRole('DRIVER')")
@@ -31,6 +50,18 @@ public class LocationController {
         request.getHeading()));
   }
 
+  /**
+   * Accepts a JSON array of timestamped points. Admins (fleet gateways) may
+   * submit points for any driver; drivers only for themselves.
+   */
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @PreAuthorize("hasAnyRole('DRIVER', 'ADMIN')")
+  public ResponseEntity<BulkLocationResult> bulkUpdateLocations(
+      @RequestAttribute UUID userId,
+      InputStream body) throws IOException {
+    return ResponseEntity.ok(locationBulkIngestService.ingest(userId, body));
+  }
+
   @PutMapping("/driver/availability")
   @PreAuthorize("hasRole('DRIVER')")
   public ResponseEntity<Void> updateAvailability(
@@ -40,6 +71,12 @@ public class LocationController {
     return ResponseEntity.ok().build();
   }
 
+  @GetMapping("/liveness")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<DriverLivenessStats> getLiveness() {
+    return ResponseEntity.ok(driverLivenessTracker.getStats());
+  }
+
   @GetMapping("/driver/{driverId}")
   @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
   public ResponseEntity<Location> getDriverLocation(@PathVariable UUID driverId) {
@@ -47,4 +84,34 @@ public class LocationController {
         .map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
-}
\ No newline at end of file
+
+  @GetMapping("/driver/{driverId}/history")
+  @PreAuthorize("hasRole('ADMIN') or @securityService.isCurrentUser(#driverId)")
+  public ResponseEntity<StreamingResponseBody> getDriverHistory(
+      @PathVariable UUID driverId,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+    // Once the body starts streaming the status is committed, so reject bad ranges first.
+    locationService.validateHistoryRange(from, to);
+    ObjectWriter writer = objectMapper.writerFor(LocationPing.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    StreamingResponseBody body = outputStream -> {
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+        generator.writeStartArray();
+        locationService.streamDriverHistory(driverId, from, to, ping -> {
+          try {
+            writer.writeValue(generator, ping);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+        generator.writeEndArray();
+      }
+    };
+
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(body);
+  }
+}
@@ -0,0 +1,111 @@
+package com.sbaldasso.combobackend.modules.location.controller;
+
+import com.sbaldasso.combobackend.modules.location.domain.LocationPing;
+import com.sbaldasso.combobackend.modules.location.dto.LocationTelemetryAck;
+import com.sbaldasso.combobackend.modules.location.dto.LocationTelemetryBatch;
+import com.sbaldasso.combobackend.modules.location.dto.LocationTelemetryError;
+import com.sbaldasso.combobackend.modules.location.dto.UpdateLocationRequest;
+import com.sbaldasso.combobackend.modules.location.service.LocationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inbound telemetry over the driver's STOMP session, so pings do not pay for a
+ * new HTTPS request each. Frames are sent to {@code /app/location} (one point)
+ * or {@code /app/location/batch}, and acknowledged on
+ * {@code /user/queue/location-ack}.
+ */
+@Slf4j
+@Controller
+@RequiredArgsConstructor
+public class LocationTelemetryController {
+
+  private final LocationService locationService;
+
+  @MessageMapping("/location")
+  @SendToUser("/queue/location-ack")
+  public LocationTelemetryAck updateLocation(Principal principal, @Payload UpdateLocationRequest frame) {
+    LocationTelemetryBatch batch = new LocationTelemetryBatch();
+    batch.setPoints(List.of(frame));
+    return updateLocations(principal, batch);
+  }
+
+  @MessageMapping("/location/batch")
+  @SendToUser("/queue/location-ack")
+  public LocationTelemetryAck updateLocations(Principal principal, @Valid @Payload LocationTelemetryBatch batch) {
+    UUID driverId = requireDriver(principal);
+    if (batch.getPoints() != null && batch.getPoints().size() > LocationTelemetryBatch.MAX_POINTS) {
+      throw new IllegalArgumentException("A telemetry batch cannot exceed " + LocationTelemetryBatch.MAX_POINTS + " points");
+    }
+    LocalDateTime receivedAt = LocalDateTime.now();
+
+    List<UpdateLocationRequest> frames = batch.getPoints() != null ? batch.getPoints() : List.of();
+    List<LocationPing> pings = new ArrayList<>(frames.size());
+    for (UpdateLocationRequest frame : frames) {
+      if (isValid(frame)) {
+        LocalDateTime recordedAt = frame.getRecordedAt() == null || frame.getRecordedAt().isAfter(receivedAt)
+            ? receivedAt
+            : frame.getRecordedAt();
+        pings.add(new LocationPing(driverId, frame.getLatitude(), frame.getLongitude(),
+            frame.getSpeed(), frame.getHeading(), recordedAt));
+      }
+    }
+
+    locationService.updateDriverTrack(driverId, pings);
+
+    return LocationTelemetryAck.builder()
+        .batchId(batch.getBatchId())
+        .accepted(pings.size())
+        .rejected(frames.size() - pings.size())
+        .receivedAt(receivedAt)
+        .build();
+  }
+
+  /**
+   * Answers with a fixed error code; exception messages are logged, never sent.
+   */
+  @MessageExceptionHandler
+  @SendToUser("/queue/errors")
+  public LocationTelemetryError handleException(Exception exception) {
+    if (exception instanceof MethodArgumentNotValidException || exception instanceof MessageConversionException
+        || exception instanceof IllegalArgumentException) {
+      log.debug("Rejected telemetry frame: {}", exception.getMessage());
+      return new LocationTelemetryError(LocationTelemetryError.INVALID_FRAME);
+    }
+    if (exception instanceof AccessDeniedException) {
+      return new LocationTelemetryError(LocationTelemetryError.FORBIDDEN);
+    }
+    log.error("Failed to process location telemetry", exception);
+    return new LocationTelemetryError(LocationTelemetryError.INTERNAL_ERROR);
+  }
+
+  private UUID requireDriver(Principal principal) {
+    if (!(principal instanceof Authentication authentication)
+        || authentication.getAuthorities().stream().noneMatch(a -> "ROLE_DRIVER".equals(a.getAuthority()))) {
+      throw new AccessDeniedException("Only drivers can publish location telemetry");
+    }
+    return UUID.fromString(authentication.getName());
+  }
+
+  private boolean isValid(UpdateLocationRequest frame) {
+    return frame != null
+        && frame.getLatitude() != null && Math.abs(frame.getLatitude()) <= 90
+        && frame.getLongitude() != null && Math.abs(frame.getLongitude()) <= 180;
+  }
+}
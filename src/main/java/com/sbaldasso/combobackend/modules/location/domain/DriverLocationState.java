@@ -0,0 +1,14 @@
+package com.sbaldasso.combobackend.modules.location.domain;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface DriverLocationState {
+  UUID getDriverId();
+
+  Boolean getAvailable();
+
+  LocalDateTime getRecordedAt();
+
+  LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,20 @@
+package com.sbaldasso.combobackend.modules.location.domain;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published after a driver's current location has been applied (not for
+ * pings suppressed as redundant).
+ */
+@Value
+public class DriverLocationUpdatedEvent {
+  UUID driverId;
+  double latitude;
+  double longitude;
+  Double speed;
+  Double heading;
+  LocalDateTime recordedAt;
+}
@@ -37,6 +37,12 @@ public class Location {
   @Column(nullable = false)
   private boolean available = true;
 
+  /**
+   * When the driver captured this position, never later than its receipt;
+   * {@code updatedAt} is when the server stored it.
+   */
+  private LocalDateTime recordedAt;
+
   @CreatedDate
   private LocalDateTime createdAt;
 
@@ -0,0 +1,16 @@
+package com.sbaldasso.combobackend.modules.location.domain;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Value
+public class LocationPing {
+  UUID driverId;
+  double latitude;
+  double longitude;
+  Double speed;
+  Double heading;
+  LocalDateTime recordedAt;
+}
@@ -0,0 +1,13 @@
+package com.sbaldasso.combobackend.modules.location.domain;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+@Value
+public class NearbyDriver {
+  UUID driverId;
+  double latitude;
+  double longitude;
+  double distanceKm;
+}
@@ -0,0 +1,32 @@
+package com.sbaldasso.combobackend.modules.location.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class BulkLocationPoint {
+  @NotNull(message = "Driver id is required")
+  private UUID driverId;
+
+  @NotNull(message = "Latitude is required")
+  @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+  @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+  private Double latitude;
+
+  @NotNull(message = "Longitude is required")
+  @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+  @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+  private Double longitude;
+
+  private Double speed;
+
+  private Double heading;
+
+  @NotNull(message = "Recorded at is required")
+  private LocalDateTime recordedAt;
+}
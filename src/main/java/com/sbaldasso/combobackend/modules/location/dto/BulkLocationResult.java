@@ -0,0 +1,18 @@
+package com.sbaldasso.combobackend.modules.location.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkLocationResult {
+  private int received;
+  private int accepted;
+  private int rejected;
+  /**
+   * Drivers whose newest accepted point was not newer than their current
+   * position; their points are kept in history only.
+   */
+  private int driversStale;
+  private int driversUpdated;
+}
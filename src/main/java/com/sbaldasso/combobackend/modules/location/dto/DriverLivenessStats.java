@@ -0,0 +1,12 @@
+package com.sbaldasso.combobackend.modules.location.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class DriverLivenessStats {
+  private int live;
+  private int stale;
+  private long expiredTotal;
+}
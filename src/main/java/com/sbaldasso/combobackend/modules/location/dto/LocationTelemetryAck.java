@@ -0,0 +1,15 @@
+package com.sbaldasso.combobackend.modules.location.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class LocationTelemetryAck {
+  private String batchId;
+  private int accepted;
+  private int rejected;
+  private LocalDateTime receivedAt;
+}
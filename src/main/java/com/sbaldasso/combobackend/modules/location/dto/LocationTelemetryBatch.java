@@ -0,0 +1,22 @@
+package com.sbaldasso.combobackend.modules.location.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class LocationTelemetryBatch {
+  public static final int MAX_POINTS = 500;
+
+  /**
+   * Client-chosen identifier echoed back in the acknowledgement.
+   */
+  private String batchId;
+
+  // Invalid points are counted as rejected one by one rather than failing the batch.
+  @NotEmpty(message = "At least one point is required")
+  @Size(max = MAX_POINTS, message = "A telemetry batch cannot exceed " + MAX_POINTS + " points")
+  private List<UpdateLocationRequest> points;
+}
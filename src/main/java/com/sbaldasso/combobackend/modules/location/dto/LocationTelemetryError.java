@@ -0,0 +1,17 @@
+package com.sbaldasso.combobackend.modules.location.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Sent on {@code /user/queue/errors} when a telemetry frame is refused.
+ */
+@Data
+@AllArgsConstructor
+public class LocationTelemetryError {
+  public static final String INVALID_FRAME = "INVALID_FRAME";
+  public static final String FORBIDDEN = "FORBIDDEN";
+  public static final String INTERNAL_ERROR = "INTERNAL_ERROR";
+
+  private String code;
+}
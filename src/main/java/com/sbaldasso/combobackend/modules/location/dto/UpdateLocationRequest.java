@@ -3,6 +3,8 @@ package com.sbaldasso.combobackend.modules.location.dto;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 public class UpdateLocationRequest {
   @NotNull(message = "Latitude is required")
@@ -14,4 +16,9 @@ public class UpdateLocationRequest {
   private Double speed;
 
   private Double heading;
+
+  /**
+   * Client-side capture time. Optional; the server receive time is used when absent.
+   */
+  private LocalDateTime recordedAt;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.sbaldasso.combobackend.modules.location.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBulkUploadException extends IllegalArgumentException {
+
+  public InvalidBulkUploadException(String message) {
+    super(message);
+  }
+
+  public InvalidBulkUploadException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,12 @@
+package com.sbaldasso.combobackend.modules.location.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidHistoryRangeException extends IllegalArgumentException {
+
+  public InvalidHistoryRangeException(String message) {
+    super(message);
+  }
+}
@@ -1,9 +1,15 @@
 package com.sbaldasso.combobackend.modules.location.repository;
 
+import com.sbaldasso.combobackend.modules.location.domain.DriverLocationState;
 import com.sbaldasso.combobackend.modules.location.domain.Location;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,4 +19,16 @@ public interface LocationRepository extends JpaRepository<Location, UUID> {
   Optional<Location> findByDriverId(UUID driverId);
 
   List<Location> findByAvailableTrue();
-}
\ No newline at end of file
+
+  @Query("select l from Location l join fetch l.driver where l.driver.id in :driverIds")
+  List<Location> findByDriverIdIn(@Param("driverIds") Collection<UUID> driverIds);
+
+  @Query("select l.driver.id as driverId, l.available as available, l.recordedAt as recordedAt, "
+      + "l.updatedAt as updatedAt from Location l where l.driver.id in :driverIds")
+  List<DriverLocationState> findStatesByDriverIdIn(@Param("driverIds") Collection<UUID> driverIds);
+
+  @Transactional
+  @Modifying
+  @Query("update Location l set l.available = false where l.driver.id in :driverIds and l.available = true")
+  int markUnavailable(@Param("driverIds") Collection<UUID> driverIds);
+}
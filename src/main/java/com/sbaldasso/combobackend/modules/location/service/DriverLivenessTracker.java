@@ -0,0 +1,167 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.dto.DriverLivenessStats;
+import com.sbaldasso.combobackend.modules.location.repository.LocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the last ping of every available driver and expires the ones that go
+ * silent for {@code missed-intervals} update intervals.
+ *
+ * <p>Deadlines live in a hashed timing wheel: a ping only drops the driver into
+ * the slot of its new deadline, and each tick visits a single slot. Entries left
+ * behind by earlier pings are discarded lazily when their slot comes round, so
+ * the cost per tick does not grow with the size of the fleet.
+ */
+@Slf4j
+@Component
+public class DriverLivenessTracker {
+
+  private static final int UPDATE_CHUNK_SIZE = 1000;
+
+  private final LocationRepository locationRepository;
+  private final DriverSpatialIndex driverSpatialIndex;
+  private final LocationUpdateFilter locationUpdateFilter;
+  private final LocationWriteBuffer locationWriteBuffer;
+  private final LocationConfig.Liveness config;
+  private final long timeoutTicks;
+  private final long startNanos = System.nanoTime();
+
+  private final Set<UUID>[] wheel;
+  private final ConcurrentHashMap<UUID, Long> deadlines = new ConcurrentHashMap<>();
+  private final Set<UUID> staleDrivers = ConcurrentHashMap.newKeySet();
+  private final AtomicLong currentTick = new AtomicLong();
+  private final AtomicLong expiredTotal = new AtomicLong();
+
+  @SuppressWarnings("unchecked")
+  public DriverLivenessTracker(
+      LocationRepository locationRepository,
+      DriverSpatialIndex driverSpatialIndex,
+      LocationUpdateFilter locationUpdateFilter,
+      LocationWriteBuffer locationWriteBuffer,
+      LocationConfig locationConfig) {
+    this.locationRepository = locationRepository;
+    this.driverSpatialIndex = driverSpatialIndex;
+    this.locationUpdateFilter = locationUpdateFilter;
+    this.locationWriteBuffer = locationWriteBuffer;
+    this.config = locationConfig.getLiveness();
+    long timeoutMillis = 1000L * locationConfig.getUpdateIntervalSeconds() * config.getMissedIntervals();
+    this.timeoutTicks = Math.max(1, timeoutMillis / config.getTickMillis());
+    this.wheel = new Set[config.getWheelSize()];
+    for (int i = 0; i < wheel.length; i++) {
+      wheel[i] = ConcurrentHashMap.newKeySet();
+    }
+  }
+
+  /**
+   * Starts (or restarts) tracking a driver that is available for work.
+   */
+  public void track(UUID driverId) {
+    if (!config.isEnabled()) {
+      return;
+    }
+    staleDrivers.remove(driverId);
+    schedule(driverId);
+  }
+
+  /**
+   * Records a sign of life for a driver that is already tracked or was expired.
+   *
+   * @return {@code true} when the driver had been expired and is alive again
+   */
+  public boolean touch(UUID driverId) {
+    if (!config.isEnabled()) {
+      return false;
+    }
+    boolean revived = staleDrivers.remove(driverId);
+    if (revived || deadlines.containsKey(driverId)) {
+      schedule(driverId);
+    }
+    return revived;
+  }
+
+  public void untrack(UUID driverId) {
+    deadlines.remove(driverId);
+    staleDrivers.remove(driverId);
+  }
+
+  public DriverLivenessStats getStats() {
+    return DriverLivenessStats.builder()
+        .live(deadlines.size())
+        .stale(staleDrivers.size())
+        .expiredTotal(expiredTotal.get())
+        .build();
+  }
+
+  @Scheduled(fixedRateString = "${app.location.liveness.tick-millis:1000}")
+  public void tick() {
+    if (!config.isEnabled()) {
+      return;
+    }
+    long targetTick = (System.nanoTime() - startNanos) / 1_000_000 / config.getTickMillis();
+    expire(advanceTo(targetTick));
+  }
+
+  List<UUID> advanceTo(long targetTick) {
+    List<UUID> expired = new ArrayList<>();
+    long tick = currentTick.get();
+    while (tick < targetTick) {
+      tick++;
+      int slot = (int) (tick % wheel.length);
+      Iterator<UUID> iterator = wheel[slot].iterator();
+      while (iterator.hasNext()) {
+        UUID driverId = iterator.next();
+        Long deadline = deadlines.get(driverId);
+        if (deadline == null) {
+          iterator.remove();
+        } else if (deadline <= tick) {
+          iterator.remove();
+          if (deadlines.remove(driverId, deadline)) {
+            expired.add(driverId);
+          }
+        } else if (deadline % wheel.length != slot) {
+          // A later ping already re-queued the driver in another slot.
+          iterator.remove();
+        }
+      }
+      currentTick.set(tick);
+    }
+    return expired;
+  }
+
+  private void schedule(UUID driverId) {
+    long deadline = currentTick.get() + timeoutTicks;
+    deadlines.put(driverId, deadline);
+    wheel[(int) (deadline % wheel.length)].add(driverId);
+  }
+
+  void expire(List<UUID> driverIds) {
+    if (driverIds.isEmpty()) {
+      return;
+    }
+    driverIds.forEach(driverId -> {
+      staleDrivers.add(driverId);
+      driverSpatialIndex.remove(driverId);
+      locationUpdateFilter.forget(driverId);
+      locationWriteBuffer.setAvailable(driverId, false);
+    });
+    expiredTotal.addAndGet(driverIds.size());
+    int updated = 0;
+    for (int from = 0; from < driverIds.size(); from += UPDATE_CHUNK_SIZE) {
+      updated += locationRepository.markUnavailable(
+          driverIds.subList(from, Math.min(from + UPDATE_CHUNK_SIZE, driverIds.size())));
+    }
+    log.info("Expired {} silent drivers ({} marked unavailable)", driverIds.size(), updated);
+  }
+}
@@ -0,0 +1,169 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.heatmap.service.HeatmapService;
+import com.sbaldasso.combobackend.modules.location.domain.NearbyDriver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-grid index of the positions of available drivers.
+ *
+ * <p>Each cell is its own concurrent bucket, so moving a driver only contends on
+ * the two cells involved and queries only visit the cells overlapping the search
+ * area instead of the whole fleet. Cell changes are forwarded to the heatmap,
+ * so its supply counts follow every path that moves or removes a driver.
+ */
+@Component
+public class DriverSpatialIndex {
+
+  private final GeoGrid grid;
+  private final double cellSizeDegrees;
+  private final HeatmapService heatmapService;
+  private final ConcurrentHashMap<UUID, Position> positions = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, Set<UUID>> cells = new ConcurrentHashMap<>();
+
+  public DriverSpatialIndex(LocationConfig locationConfig, HeatmapService heatmapService) {
+    this.cellSizeDegrees = locationConfig.getIndex().getCellSizeDegrees();
+    this.grid = new GeoGrid(cellSizeDegrees);
+    this.heatmapService = heatmapService;
+  }
+
+  public void update(UUID driverId, double latitude, double longitude) {
+    Position next = new Position(latitude, longitude, grid.cellOf(latitude, longitude));
+    positions.compute(driverId, (id, previous) -> {
+      if (previous == null || previous.cell != next.cell) {
+        if (previous != null) {
+          removeFromCell(previous.cell, id);
+          heatmapService.adjustSupply(previous.cell, -1);
+        }
+        addToCell(next.cell, id);
+        heatmapService.adjustSupply(next.cell, 1);
+      }
+      return next;
+    });
+  }
+
+  public void remove(UUID driverId) {
+    positions.computeIfPresent(driverId, (id, previous) -> {
+      removeFromCell(previous.cell, id);
+      heatmapService.adjustSupply(previous.cell, -1);
+      return null;
+    });
+  }
+
+  public boolean contains(UUID driverId) {
+    return positions.containsKey(driverId);
+  }
+
+  public int size() {
+    return positions.size();
+  }
+
+  public List<UUID> availableDriverIds() {
+    return new ArrayList<>(positions.keySet());
+  }
+
+  /**
+   * Drivers within {@code radiusKm} of the given point, closest first.
+   */
+  public List<NearbyDriver> findWithinRadius(double latitude, double longitude, double radiusKm) {
+    int rowSpan = (int) Math.ceil(radiusKm / GeoUtils.KM_PER_DEGREE_LATITUDE / cellSizeDegrees);
+    int colSpan = (int) Math.ceil(radiusKm / GeoUtils.kmPerDegreeLongitude(latitude) / cellSizeDegrees);
+    int row = grid.rowOf(latitude);
+    int col = grid.colOf(longitude);
+
+    List<NearbyDriver> result = new ArrayList<>();
+    for (int r = row - rowSpan; r <= row + rowSpan; r++) {
+      for (int c = col - colSpan; c <= col + colSpan; c++) {
+        collect(GeoGrid.key(r, c), latitude, longitude, radiusKm, result);
+      }
+    }
+    result.sort(Comparator.comparingDouble(NearbyDriver::getDistanceKm));
+    return result;
+  }
+
+  /**
+   * The {@code k} drivers closest to the given point, searching rings of cells
+   * outwards until the answer is settled or {@code maxRadiusKm} is exceeded.
+   */
+  public List<NearbyDriver> findNearest(double latitude, double longitude, int k, double maxRadiusKm) {
+    if (k <= 0) {
+      return List.of();
+    }
+    double cellKm = cellSizeDegrees * GeoUtils.kmPerDegreeLongitude(latitude);
+    int maxRing = (int) Math.ceil(maxRadiusKm / GeoUtils.kmPerDegreeLongitude(latitude) / cellSizeDegrees);
+    int row = grid.rowOf(latitude);
+    int col = grid.colOf(longitude);
+
+    List<NearbyDriver> candidates = new ArrayList<>();
+    for (int ring = 0; ring <= maxRing; ring++) {
+      for (int r = row - ring; r <= row + ring; r++) {
+        if (r == row - ring || r == row + ring) {
+          for (int c = col - ring; c <= col + ring; c++) {
+            collect(GeoGrid.key(r, c), latitude, longitude, maxRadiusKm, candidates);
+          }
+        } else {
+          collect(GeoGrid.key(r, col - ring), latitude, longitude, maxRadiusKm, candidates);
+          collect(GeoGrid.key(r, col + ring), latitude, longitude, maxRadiusKm, candidates);
+        }
+      }
+      candidates.sort(Comparator.comparingDouble(NearbyDriver::getDistanceKm));
+      // Every point closer than ring * cellKm lies inside the rings scanned so far.
+      if (candidates.size() >= k && candidates.get(k - 1).getDistanceKm() <= ring * cellKm) {
+        break;
+      }
+    }
+    return candidates.size() > k ? new ArrayList<>(candidates.subList(0, k)) : candidates;
+  }
+
+  private void collect(long cell, double latitude, double longitude, double radiusKm, List<NearbyDriver> into) {
+    Set<UUID> bucket = cells.get(cell);
+    if (bucket == null) {
+      return;
+    }
+    for (UUID driverId : bucket) {
+      Position position = positions.get(driverId);
+      if (position == null || position.cell != cell) {
+        continue;
+      }
+      double distance = GeoUtils.distanceKm(latitude, longitude, position.latitude, position.longitude);
+      if (distance <= radiusKm) {
+        into.add(new NearbyDriver(driverId, position.latitude, position.longitude, distance));
+      }
+    }
+  }
+
+  private void addToCell(long cell, UUID driverId) {
+    cells.compute(cell, (key, bucket) -> {
+      Set<UUID> target = bucket != null ? bucket : ConcurrentHashMap.newKeySet();
+      target.add(driverId);
+      return target;
+    });
+  }
+
+  private void removeFromCell(long cell, UUID driverId) {
+    cells.computeIfPresent(cell, (key, bucket) -> {
+      bucket.remove(driverId);
+      return bucket.isEmpty() ? null : bucket;
+    });
+  }
+
+  private static final class Position {
+    private final double latitude;
+    private final double longitude;
+    private final long cell;
+
+    private Position(double latitude, double longitude, long cell) {
+      this.latitude = latitude;
+      this.longitude = longitude;
+      this.cell = cell;
+    }
+  }
+}
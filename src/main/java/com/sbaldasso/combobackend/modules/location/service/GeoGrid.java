@@ -0,0 +1,50 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+/**
+ * Fixed latitude/longitude grid whose cells are addressed by a single
+ * {@code long} key (row in the high half, column in the low half).
+ */
+public final class GeoGrid {
+
+  private final double cellSizeDegrees;
+
+  public GeoGrid(double cellSizeDegrees) {
+    this.cellSizeDegrees = cellSizeDegrees;
+  }
+
+  public double getCellSizeDegrees() {
+    return cellSizeDegrees;
+  }
+
+  public long cellOf(double latitude, double longitude) {
+    return key(rowOf(latitude), colOf(longitude));
+  }
+
+  public int rowOf(double latitude) {
+    return (int) Math.floor((latitude + 90.0) / cellSizeDegrees);
+  }
+
+  public int colOf(double longitude) {
+    return (int) Math.floor((longitude + 180.0) / cellSizeDegrees);
+  }
+
+  public double centerLatitude(long cell) {
+    return (row(cell) + 0.5) * cellSizeDegrees - 90.0;
+  }
+
+  public double centerLongitude(long cell) {
+    return (col(cell) + 0.5) * cellSizeDegrees - 180.0;
+  }
+
+  public static long key(int row, int col) {
+    return ((long) row << 32) | (col & 0xffffffffL);
+  }
+
+  public static int row(long cell) {
+    return (int) (cell >> 32);
+  }
+
+  public static int col(long cell) {
+    return (int) cell;
+  }
+}
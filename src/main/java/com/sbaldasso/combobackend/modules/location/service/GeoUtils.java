@@ -0,0 +1,53 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+public final class GeoUtils {
+
+  public static final double EARTH_RADIUS_KM = 6371.0088;
+  public static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+  private GeoUtils() {
+  }
+
+  /**
+   * Great-circle distance between two points using the haversine formula.
+   */
+  public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+        + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+        * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+  }
+
+  /**
+   * Kilometres covered by one degree of longitude at the given latitude.
+   */
+  public static double kmPerDegreeLongitude(double latitude) {
+    return KM_PER_DEGREE_LATITUDE * Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+  }
+
+  /**
+   * Point reached after travelling {@code distanceKm} from a start point along
+   * the given compass bearing. Returns {@code [latitude, longitude]}.
+   */
+  public static double[] destination(double latitude, double longitude, double bearingDegrees, double distanceKm) {
+    double angular = distanceKm / EARTH_RADIUS_KM;
+    double bearing = Math.toRadians(bearingDegrees);
+    double lat1 = Math.toRadians(latitude);
+    double lon1 = Math.toRadians(longitude);
+    double lat2 = Math.asin(Math.sin(lat1) * Math.cos(angular)
+        + Math.cos(lat1) * Math.sin(angular) * Math.cos(bearing));
+    double lon2 = lon1 + Math.atan2(Math.sin(bearing) * Math.sin(angular) * Math.cos(lat1),
+        Math.cos(angular) - Math.sin(lat1) * Math.sin(lat2));
+    return new double[] {Math.toDegrees(lat2), Math.toDegrees(lon2)};
+  }
+
+  /**
+   * Smallest absolute difference between two compass headings, in degrees.
+   */
+  public static double headingDifference(double a, double b) {
+    double diff = Math.abs(a - b) % 360.0;
+    return diff > 180.0 ? 360.0 - diff : diff;
+  }
+}
@@ -0,0 +1,96 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.sbaldasso.combobackend.modules.location.domain.Location;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes driver positions to {@code locations} with one multi-row upsert per
+ * batch. The upsert is monotonic: a driver's row only moves to a position
+ * captured after the one it holds, so a late replay or a slow flush can never
+ * rewind it, whatever it was compared with beforehand.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationBatchWriter {
+
+  // The rows travel as one array per column: a JDBC batch would not report
+  // which rows the WHERE skipped (reWriteBatchedInserts returns no counts).
+  private static final String UPSERT_SQL = """
+      INSERT INTO locations (id, driver_id, latitude, longitude, speed, heading, available, recorded_at, created_at,
+                             updated_at)
+      SELECT * FROM unnest(?::uuid[], ?::uuid[], ?::float8[], ?::float8[], ?::float8[], ?::float8[], ?::boolean[],
+                           ?::timestamp[], ?::timestamp[], ?::timestamp[])
+          ON CONFLICT (driver_id) DO UPDATE
+         SET latitude = EXCLUDED.latitude, longitude = EXCLUDED.longitude, speed = EXCLUDED.speed,
+             heading = EXCLUDED.heading, recorded_at = EXCLUDED.recorded_at, updated_at = EXCLUDED.updated_at
+       WHERE locations.recorded_at IS NULL OR locations.recorded_at < EXCLUDED.recorded_at
+      RETURNING driver_id""";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Upserts at most one row per driver.
+   *
+   * @return the drivers whose row was written; the others already held a
+   *     newer or equally recent position
+   */
+  public Set<UUID> upsert(List<Location> rows) {
+    if (rows.isEmpty()) {
+      return Set.of();
+    }
+    int size = rows.size();
+    UUID[] ids = new UUID[size];
+    UUID[] driverIds = new UUID[size];
+    Double[] latitudes = new Double[size];
+    Double[] longitudes = new Double[size];
+    Double[] speeds = new Double[size];
+    Double[] headings = new Double[size];
+    Boolean[] available = new Boolean[size];
+    Timestamp[] recordedAt = new Timestamp[size];
+    Timestamp[] createdAt = new Timestamp[size];
+    Timestamp[] updatedAt = new Timestamp[size];
+    for (int i = 0; i < size; i++) {
+      Location location = rows.get(i);
+      ids[i] = UUID.randomUUID();
+      driverIds[i] = location.getDriver().getId();
+      latitudes[i] = location.getLatitude();
+      longitudes[i] = location.getLongitude();
+      speeds[i] = location.getSpeed();
+      headings[i] = location.getHeading();
+      available[i] = location.isAvailable();
+      recordedAt[i] = toTimestamp(location.getRecordedAt());
+      createdAt[i] = toTimestamp(location.getCreatedAt() != null ? location.getCreatedAt() : location.getUpdatedAt());
+      updatedAt[i] = toTimestamp(location.getUpdatedAt());
+    }
+
+    List<UUID> written = jdbcTemplate.query(connection -> {
+      PreparedStatement ps = connection.prepareStatement(UPSERT_SQL);
+      ps.setArray(1, connection.createArrayOf("uuid", ids));
+      ps.setArray(2, connection.createArrayOf("uuid", driverIds));
+      ps.setArray(3, connection.createArrayOf("float8", latitudes));
+      ps.setArray(4, connection.createArrayOf("float8", longitudes));
+      ps.setArray(5, connection.createArrayOf("float8", speeds));
+      ps.setArray(6, connection.createArrayOf("float8", headings));
+      ps.setArray(7, connection.createArrayOf("boolean", available));
+      ps.setArray(8, connection.createArrayOf("timestamp", recordedAt));
+      ps.setArray(9, connection.createArrayOf("timestamp", createdAt));
+      ps.setArray(10, connection.createArrayOf("timestamp", updatedAt));
+      return ps;
+    }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+    return new HashSet<>(written);
+  }
+
+  private static Timestamp toTimestamp(LocalDateTime value) {
+    return value != null ? Timestamp.valueOf(value) : null;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,263 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.domain.DriverLocationState;
+import com.sbaldasso.combobackend.modules.location.domain.DriverLocationUpdatedEvent;
+import com.sbaldasso.combobackend.modules.location.domain.Location;
+import com.sbaldasso.combobackend.modules.location.domain.LocationPing;
+import com.sbaldasso.combobackend.modules.location.dto.BulkLocationPoint;
+import com.sbaldasso.combobackend.modules.location.dto.BulkLocationResult;
+import com.sbaldasso.combobackend.modules.location.exception.InvalidBulkUploadException;
+import com.sbaldasso.combobackend.modules.location.repository.LocationRepository;
+import com.sbaldasso.combobackend.modules.notification.service.WebSocketService;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import com.sbaldasso.combobackend.modules.user.domain.UserType;
+import com.sbaldasso.combobackend.modules.user.service.UserService;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk ingestion of timestamped points for many drivers, for fleet gateways
+ * and apps replaying positions buffered while offline.
+ *
+ * <p>The JSON array is parsed and validated one element at a time; elements
+ * that are invalid or do not bind are counted as rejected. Accepted
+ * points are written to the location history in chunks, and only the newest
+ * point per driver is kept in memory; once the body is consumed those are
+ * applied to {@code locations} with batched statements in one transaction,
+ * skipping drivers whose current position is already newer, both on a
+ * snapshot read beforehand and, authoritatively, in the upsert itself. Indexes, pushes
+ * and {@link DriverLocationUpdatedEvent}s follow once that transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class LocationBulkIngestService {
+
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final UserService userService;
+  private final LocationRepository locationRepository;
+  private final LocationBatchWriter locationBatchWriter;
+  private final LocationWriteBuffer locationWriteBuffer;
+  private final LocationHistoryStore locationHistoryStore;
+  private final LocationUpdateFilter locationUpdateFilter;
+  private final DriverSpatialIndex driverSpatialIndex;
+  private final DriverLivenessTracker driverLivenessTracker;
+  private final WebSocketService webSocketService;
+  private final LocationConfig locationConfig;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
+
+  public BulkLocationResult ingest(UUID submitterId, InputStream body) throws IOException {
+    User submitter = userService.validateAndGetUser(submitterId);
+    boolean gateway = submitter.getUserType() == UserType.ADMIN;
+    LocationConfig.Bulk config = locationConfig.getBulk();
+    LocalDateTime receivedAt = LocalDateTime.now();
+
+    Ingest ingest = new Ingest();
+    List<LocationPing> chunk = new ArrayList<>(config.getBatchSize());
+
+    try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new InvalidBulkUploadException("Expected a JSON array of location points");
+      }
+      for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+        if (token == null) {
+          throw new InvalidBulkUploadException("Unexpected end of the location array");
+        }
+        if (++ingest.received > config.getMaxPoints()) {
+          throw new InvalidBulkUploadException("A bulk upload cannot exceed " + config.getMaxPoints() + " points");
+        }
+        BulkLocationPoint point = readPoint(parser, token);
+        if (point == null || !validator.validate(point).isEmpty()
+            || (!gateway && !submitterId.equals(point.getDriverId()))) {
+          ingest.rejected++;
+          continue;
+        }
+        chunk.add(toPing(point, receivedAt));
+        if (chunk.size() >= config.getBatchSize()) {
+          ingest.accept(chunk);
+          chunk.clear();
+        }
+      }
+    } catch (JsonParseException e) {
+      throw new InvalidBulkUploadException("Malformed JSON in bulk upload", e);
+    }
+    ingest.accept(chunk);
+
+    int driversUpdated = applyNewest(ingest.newest, config.getBatchSize(), receivedAt);
+
+    return BulkLocationResult.builder()
+        .received(ingest.received)
+        .accepted(ingest.accepted)
+        .rejected(ingest.rejected)
+        .driversStale(ingest.newest.size() - driversUpdated)
+        .driversUpdated(driversUpdated)
+        .build();
+  }
+
+  private int applyNewest(Map<UUID, LocationPing> newest, int batchSize, LocalDateTime receivedAt) {
+    if (newest.isEmpty()) {
+      return 0;
+    }
+    Map<UUID, DriverLocationState> states = locationRepository.findStatesByDriverIdIn(newest.keySet()).stream()
+        .collect(Collectors.toMap(DriverLocationState::getDriverId, Function.identity()));
+
+    List<Location> rows = new ArrayList<>();
+    for (LocationPing ping : newest.values()) {
+      DriverLocationState state = states.get(ping.getDriverId());
+      if (isOutdated(ping, state)) {
+        continue;
+      }
+      rows.add(toLocation(ping, state == null || Boolean.TRUE.equals(state.getAvailable()), receivedAt));
+    }
+
+    // The snapshot check above only saves work; the upsert itself refuses to
+    // move a driver back, so a concurrent newer write is never overwritten.
+    Set<UUID> written = new HashSet<>();
+    transactionTemplate.executeWithoutResult(status -> {
+      for (int from = 0; from < rows.size(); from += batchSize) {
+        written.addAll(locationBatchWriter.upsert(rows.subList(from, Math.min(from + batchSize, rows.size()))));
+      }
+      List<Location> applied = rows.stream().filter(row -> written.contains(row.getDriver().getId())).toList();
+      afterCommit(() -> publishApplied(applied, receivedAt));
+    });
+    return written.size();
+  }
+
+  // Listeners such as EtaEngine anchor speed and ETA on the event time, so it
+  // is the server receive time, as for single pings, not the client capture time.
+  private void publishApplied(List<Location> rows, LocalDateTime receivedAt) {
+    for (Location row : rows) {
+      UUID driverId = row.getDriver().getId();
+      locationWriteBuffer.evict(driverId);
+      locationUpdateFilter.forget(driverId);
+      if (row.isAvailable()) {
+        driverSpatialIndex.update(driverId, row.getLatitude(), row.getLongitude());
+        driverLivenessTracker.track(driverId);
+      }
+      webSocketService.sendLocationUpdate(driverId.toString(), row);
+      eventPublisher.publishEvent(new DriverLocationUpdatedEvent(driverId, row.getLatitude(), row.getLongitude(),
+          row.getSpeed(), row.getHeading(), receivedAt));
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  // Both sides are capture times on the driver's clock, clamped to their receipt.
+  private boolean isOutdated(LocationPing ping, DriverLocationState state) {
+    Optional<LocalDateTime> buffered = locationWriteBuffer.peek(ping.getDriverId()).map(Location::getRecordedAt);
+    LocalDateTime current = buffered.orElse(state != null ? state.getRecordedAt() : null);
+    return current != null && !ping.getRecordedAt().isAfter(current);
+  }
+
+  /**
+   * Reads one array element. Elements that are not objects, or whose fields
+   * do not bind, are consumed whole and returned as {@code null}.
+   */
+  private BulkLocationPoint readPoint(JsonParser parser, JsonToken token) throws IOException {
+    if (token != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return null;
+    }
+    JsonNode element = objectMapper.readTree(parser);
+    try {
+      return objectMapper.treeToValue(element, BulkLocationPoint.class);
+    } catch (JsonProcessingException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private LocationPing toPing(BulkLocationPoint point, LocalDateTime receivedAt) {
+    LocalDateTime recordedAt = point.getRecordedAt().isAfter(receivedAt) ? receivedAt : point.getRecordedAt();
+    return new LocationPing(point.getDriverId(), point.getLatitude(), point.getLongitude(),
+        point.getSpeed(), point.getHeading(), recordedAt);
+  }
+
+  private Location toLocation(LocationPing ping, boolean available, LocalDateTime receivedAt) {
+    Location location = new Location();
+    location.setDriver(new User(ping.getDriverId()));
+    location.setLatitude(ping.getLatitude());
+    location.setLongitude(ping.getLongitude());
+    location.setSpeed(ping.getSpeed());
+    location.setHeading(ping.getHeading());
+    location.setAvailable(available);
+    location.setRecordedAt(ping.getRecordedAt());
+    location.setUpdatedAt(receivedAt);
+    return location;
+  }
+
+  private class Ingest {
+    private int received;
+    private int accepted;
+    private int rejected;
+    private final Map<UUID, LocationPing> newest = new HashMap<>();
+    private final Set<UUID> knownDrivers = new HashSet<>();
+    private final Set<UUID> unknownDrivers = new HashSet<>();
+
+    private void accept(List<LocationPing> chunk) {
+      if (chunk.isEmpty()) {
+        return;
+      }
+      Set<UUID> unresolved = chunk.stream()
+          .map(LocationPing::getDriverId)
+          .filter(id -> !knownDrivers.contains(id) && !unknownDrivers.contains(id))
+          .collect(Collectors.toSet());
+      if (!unresolved.isEmpty()) {
+        Set<UUID> drivers = userService.findActiveDriverIds(unresolved);
+        for (UUID id : unresolved) {
+          (drivers.contains(id) ? knownDrivers : unknownDrivers).add(id);
+        }
+      }
+
+      List<LocationPing> valid = new ArrayList<>(chunk.size());
+      for (LocationPing ping : chunk) {
+        if (!knownDrivers.contains(ping.getDriverId())) {
+          rejected++;
+          continue;
+        }
+        valid.add(ping);
+        newest.merge(ping.getDriverId(), ping,
+            (current, candidate) -> candidate.getRecordedAt().isAfter(current.getRecordedAt()) ? candidate : current);
+      }
+      accepted += valid.size();
+      locationHistoryStore.appendAll(valid);
+    }
+  }
+}
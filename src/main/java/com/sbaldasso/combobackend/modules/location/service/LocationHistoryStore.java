@@ -0,0 +1,250 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.domain.LocationPing;
+import com.sbaldasso.combobackend.modules.location.exception.InvalidHistoryRangeException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only history of every driver ping, stored in one table per day
+ * ({@code location_history_yyyyMMdd}).
+ *
+ * <p>Pings are queued without blocking the caller and inserted in batches by a
+ * background drainer. Retention is enforced by dropping whole daily tables,
+ * which avoids row-by-row deletes on the ingest tables.
+ */
+@Slf4j
+@Component
+public class LocationHistoryStore {
+
+  private static final String TABLE_PREFIX = "location_history_";
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final Pattern PARTITION_NAME = Pattern.compile(TABLE_PREFIX + "(\\d{8})", Pattern.CASE_INSENSITIVE);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate readTransaction;
+  private final LocationConfig.History config;
+  private final BlockingQueue<LocationPing> queue;
+  private final Set<LocalDate> knownPartitions = ConcurrentHashMap.newKeySet();
+  private final AtomicLong droppedPings = new AtomicLong();
+
+  public LocationHistoryStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+      LocationConfig locationConfig) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setReadOnly(true);
+    this.config = locationConfig.getHistory();
+    this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+  }
+
+  /**
+   * Queues a ping for persistence. Never blocks; when the queue is full the
+   * ping is dropped and counted.
+   */
+  public void append(LocationPing ping) {
+    if (!config.isEnabled()) {
+      return;
+    }
+    if (!queue.offer(ping)) {
+      droppedPings.incrementAndGet();
+    }
+  }
+
+  /**
+   * Writes pings straight away, bypassing the queue. Used by bulk uploads whose
+   * size would otherwise overflow it.
+   */
+  public void appendAll(List<LocationPing> pings) {
+    if (config.isEnabled() && !pings.isEmpty()) {
+      write(pings);
+    }
+  }
+
+  public long getDroppedPings() {
+    return droppedPings.get();
+  }
+
+  @Scheduled(fixedDelayString = "${app.location.history.flush-interval-ms:500}")
+  public void drain() {
+    List<LocationPing> batch = new ArrayList<>(config.getBatchSize());
+    while (queue.drainTo(batch, config.getBatchSize()) > 0) {
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  @PreDestroy
+  public void drainOnShutdown() {
+    drain();
+  }
+
+  /**
+   * Streams a driver's pings between {@code from} and {@code to} in time order.
+   *
+   * <p>Runs in a read-only transaction with a fetch size: the PostgreSQL driver
+   * only reads through a cursor with autocommit off, and otherwise loads the
+   * whole result before the first row reaches the consumer.
+   */
+  public void stream(UUID driverId, LocalDateTime from, LocalDateTime to, Consumer<LocationPing> consumer) {
+    validateRange(from, to);
+    readTransaction.executeWithoutResult(status -> {
+      for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+        if (!partitionExists(day)) {
+          continue;
+        }
+        String sql = "SELECT latitude, longitude, speed, heading, recorded_at FROM " + tableName(day)
+            + " WHERE driver_id = ? AND recorded_at >= ? AND recorded_at <= ? ORDER BY recorded_at";
+        jdbcTemplate.query(
+            connection -> {
+              PreparedStatement ps = connection.prepareStatement(sql);
+              ps.setFetchSize(config.getStreamFetchSize());
+              ps.setObject(1, driverId);
+              ps.setTimestamp(2, Timestamp.valueOf(from));
+              ps.setTimestamp(3, Timestamp.valueOf(to));
+              return ps;
+            },
+            rs -> {
+              consumer.accept(new LocationPing(
+                  driverId,
+                  rs.getDouble("latitude"),
+                  rs.getDouble("longitude"),
+                  rs.getObject("speed", Double.class),
+                  rs.getObject("heading", Double.class),
+                  rs.getTimestamp("recorded_at").toLocalDateTime()));
+            });
+      }
+    });
+  }
+
+  /**
+   * Rejects ranges {@link #stream} would refuse, so callers can fail before
+   * committing a response.
+   */
+  public void validateRange(LocalDateTime from, LocalDateTime to) {
+    if (to.isBefore(from)) {
+      throw new InvalidHistoryRangeException("History range must end after it starts");
+    }
+    if (from.plusDays(config.getMaxQueryDays()).isBefore(to)) {
+      throw new InvalidHistoryRangeException("History range cannot exceed " + config.getMaxQueryDays() + " days");
+    }
+  }
+
+  @Scheduled(cron = "${app.location.history.retention-cron:0 15 * * * *}")
+  public void dropExpiredPartitions() {
+    LocalDate oldestKept = LocalDate.now().minusDays(config.getRetentionDays());
+    List<String> tables = jdbcTemplate.queryForList(
+        "SELECT table_name FROM information_schema.tables WHERE table_schema = CURRENT_SCHEMA AND LOWER(table_name) LIKE ?",
+        String.class, TABLE_PREFIX + "%");
+    for (String table : tables) {
+      Matcher matcher = PARTITION_NAME.matcher(table);
+      if (!matcher.matches()) {
+        continue;
+      }
+      LocalDate day;
+      try {
+        day = LocalDate.parse(matcher.group(1), PARTITION_SUFFIX);
+      } catch (DateTimeParseException e) {
+        log.warn("Skipping {}: not a location history partition", table);
+        continue;
+      }
+      if (day.isBefore(oldestKept)) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + tableName(day));
+        knownPartitions.remove(day);
+        log.info("Dropped expired location history partition {}", tableName(day));
+      }
+    }
+  }
+
+  private void write(List<LocationPing> batch) {
+    LocalDate oldestKept = LocalDate.now().minusDays(config.getRetentionDays());
+    Map<LocalDate, List<LocationPing>> byDay = new TreeMap<>();
+    for (LocationPing ping : batch) {
+      LocalDate day = ping.getRecordedAt().toLocalDate();
+      if (!day.isBefore(oldestKept)) {
+        byDay.computeIfAbsent(day, d -> new ArrayList<>()).add(ping);
+      }
+    }
+
+    byDay.forEach((day, pings) -> {
+      try {
+        ensurePartition(day);
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO " + tableName(day)
+                + " (driver_id, latitude, longitude, speed, heading, recorded_at) VALUES (?, ?, ?, ?, ?, ?)",
+            pings, pings.size(), (ps, ping) -> {
+              ps.setObject(1, ping.getDriverId());
+              ps.setDouble(2, ping.getLatitude());
+              ps.setDouble(3, ping.getLongitude());
+              ps.setObject(4, ping.getSpeed(), Types.DOUBLE);
+              ps.setObject(5, ping.getHeading(), Types.DOUBLE);
+              ps.setTimestamp(6, Timestamp.valueOf(ping.getRecordedAt()));
+            });
+      } catch (RuntimeException e) {
+        droppedPings.addAndGet(pings.size());
+        log.error("Failed to write {} location history rows for {}", pings.size(), day, e);
+      }
+    });
+  }
+
+  private void ensurePartition(LocalDate day) {
+    if (knownPartitions.contains(day)) {
+      return;
+    }
+    String table = tableName(day);
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+        + "driver_id UUID NOT NULL, "
+        + "latitude DOUBLE PRECISION NOT NULL, "
+        + "longitude DOUBLE PRECISION NOT NULL, "
+        + "speed DOUBLE PRECISION, "
+        + "heading DOUBLE PRECISION, "
+        + "recorded_at TIMESTAMP NOT NULL)");
+    jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + table + "_driver_idx ON " + table + " (driver_id, recorded_at)");
+    knownPartitions.add(day);
+  }
+
+  private boolean partitionExists(LocalDate day) {
+    if (knownPartitions.contains(day)) {
+      return true;
+    }
+    Integer count = jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM information_schema.tables"
+            + " WHERE table_schema = CURRENT_SCHEMA AND LOWER(table_name) = ?",
+        Integer.class, tableName(day));
+    if (count != null && count > 0) {
+      knownPartitions.add(day);
+      return true;
+    }
+    return false;
+  }
+
+  private static String tableName(LocalDate day) {
+    return TABLE_PREFIX + PARTITION_SUFFIX.format(day);
+  }
+}
@@ -1,14 +1,40 @@
 package com.sbaldasso.combobackend.modules.location.service;
 
 import com.sbaldasso.combobackend.modules.location.domain.Location;
+import com.sbaldasso.combobackend.modules.location.domain.LocationPing;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface LocationService {
   Optional<Location> getDriverLocation(UUID driverId);
 
+  /**
+   * Current locations of several drivers with a single lookup, keyed by driver
+   * id. Drivers without a location are absent from the map.
+   */
+  Map<UUID, Location> getDriverLocations(Collection<UUID> driverIds);
+
   Location updateDriverLocation(UUID driverId, Double latitude, Double longitude, Double speed, Double heading);
 
+  /**
+   * Records a driver's track in history and applies its newest point as the
+   * driver's current location.
+   */
+  Optional<Location> updateDriverTrack(UUID driverId, List<LocationPing> pings);
+
   void setDriverAvailability(UUID driverId, boolean isAvailable);
+
+  /**
+   * Throws {@link com.sbaldasso.combobackend.modules.location.exception.InvalidHistoryRangeException}
+   * for a range {@link #streamDriverHistory} would reject.
+   */
+  void validateHistoryRange(LocalDateTime from, LocalDateTime to);
+
+  void streamDriverHistory(UUID driverId, LocalDateTime from, LocalDateTime to, Consumer<LocationPing> consumer);
 }
\ No newline at end of file
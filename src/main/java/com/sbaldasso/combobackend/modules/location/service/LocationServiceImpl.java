@@ -1,16 +1,30 @@
 package com.sbaldasso.combobackend.modules.location.service;
 
+import com.sbaldasso.combobackend.modules.location.domain.DriverLocationUpdatedEvent;
 import com.sbaldasso.combobackend.modules.location.domain.Location;
+import com.sbaldasso.combobackend.modules.location.domain.LocationPing;
 import com.sbaldasso.combobackend.modules.location.repository.LocationRepository;
 import com.sbaldasso.combobackend.modules.user.domain.User;
 import com.sbaldasso.combobackend.modules.user.service.UserService;
 import com.sbaldasso.combobackend.modules.notification.service.WebSocketService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -19,44 +33,179 @@ public class LocationServiceImpl implements LocationService {
   private final LocationRepository locationRepository;
   private final UserService userService;
   private final WebSocketService webSocketService;
+  private final DriverSpatialIndex driverSpatialIndex;
+  private final LocationWriteBuffer locationWriteBuffer;
+  private final LocationHistoryStore locationHistoryStore;
+  private final LocationUpdateFilter locationUpdateFilter;
+  private final DriverLivenessTracker driverLivenessTracker;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void loadAvailableDrivers() {
+    locationRepository.findByAvailableTrue().forEach(location -> {
+      driverSpatialIndex.update(location.getDriver().getId(), location.getLatitude(), location.getLongitude());
+      driverLivenessTracker.track(location.getDriver().getId());
+    });
+  }
 
   @Override
-  @Transactional
   public Location updateDriverLocation(UUID driverId, Double latitude, Double longitude, Double speed, Double heading) {
-    User driver = userService.validateAndGetUser(driverId);
+    LocationPing ping = new LocationPing(driverId, latitude, longitude, speed, heading, LocalDateTime.now());
+    locationHistoryStore.append(ping);
+    return applyIfSignificant(ping);
+  }
 
-    Location location = locationRepository.findByDriverId(driverId)
-        .orElseGet(() -> {
-          Location newLocation = new Location();
-          newLocation.setDriver(driver);
-          return newLocation;
-        });
-
-    location.setLatitude(latitude);
-    location.setLongitude(longitude);
-    location.setSpeed(speed);
-    location.setHeading(heading);
-
-    Location savedLocation = locationRepository.save(location);
-    
-    // Send real-time location update via WebSocket
-    webSocketService.sendLocationUpdate(driverId.toString(), savedLocation);
-    
-    return savedLocation;
+  @Override
+  public Optional<Location> updateDriverTrack(UUID driverId, List<LocationPing> pings) {
+    if (pings.isEmpty()) {
+      return Optional.empty();
+    }
+    List<LocationPing> ordered = pings.stream()
+        .sorted(Comparator.comparing(LocationPing::getRecordedAt))
+        .toList();
+    ordered.forEach(locationHistoryStore::append);
+
+    return Optional.of(applyIfSignificant(ordered.get(ordered.size() - 1)));
   }
 
   @Override
   @Transactional
   public void setDriverAvailability(UUID driverId, boolean isAvailable) {
+    if (locationWriteBuffer.isEnabled()) {
+      locationWriteBuffer.flush(driverId);
+      locationWriteBuffer.setAvailable(driverId, isAvailable);
+    }
+
     Location location = locationRepository.findByDriverId(driverId)
         .orElseThrow(() -> new IllegalStateException("Driver location not found"));
 
     location.setAvailable(isAvailable);
     locationRepository.save(location);
+    locationUpdateFilter.forget(driverId);
+
+    if (isAvailable) {
+      driverSpatialIndex.update(driverId, location.getLatitude(), location.getLongitude());
+      driverLivenessTracker.track(driverId);
+    } else {
+      driverSpatialIndex.remove(driverId);
+      driverLivenessTracker.untrack(driverId);
+    }
   }
 
   @Override
   public Optional<Location> getDriverLocation(UUID driverId) {
+    if (locationWriteBuffer.isEnabled()) {
+      Optional<Location> buffered = locationWriteBuffer.peek(driverId);
+      if (buffered.isPresent()) {
+        return buffered;
+      }
+    }
     return locationRepository.findByDriverId(driverId);
   }
+
+  @Override
+  public Map<UUID, Location> getDriverLocations(Collection<UUID> driverIds) {
+    Map<UUID, Location> locations = new HashMap<>();
+    List<UUID> missing = new ArrayList<>();
+    for (UUID driverId : driverIds) {
+      Optional<Location> buffered = locationWriteBuffer.isEnabled()
+          ? locationWriteBuffer.peek(driverId)
+          : Optional.empty();
+      if (buffered.isPresent()) {
+        locations.put(driverId, buffered.get());
+      } else {
+        missing.add(driverId);
+      }
+    }
+    if (!missing.isEmpty()) {
+      locationRepository.findByDriverIdIn(missing)
+          .forEach(location -> locations.put(location.getDriver().getId(), location));
+    }
+    return locations;
+  }
+
+  @Override
+  public void validateHistoryRange(LocalDateTime from, LocalDateTime to) {
+    locationHistoryStore.validateRange(from, to);
+  }
+
+  @Override
+  public void streamDriverHistory(UUID driverId, LocalDateTime from, LocalDateTime to, Consumer<LocationPing> consumer) {
+    locationHistoryStore.stream(driverId, from, to, consumer);
+  }
+
+  private Location applyIfSignificant(LocationPing ping) {
+    UUID driverId = ping.getDriverId();
+    if (driverLivenessTracker.touch(driverId)) {
+      // The driver was expired for missing pings and is back: make them available again.
+      transactionTemplate.execute(status -> {
+        setDriverAvailability(driverId, true);
+        return null;
+      });
+    }
+
+    Optional<Location> lastAccepted = locationUpdateFilter.suppress(driverId, ping.getLatitude(),
+        ping.getLongitude(), ping.getSpeed(), ping.getHeading(), ping.getRecordedAt());
+    if (lastAccepted.isPresent()) {
+      return lastAccepted.get();
+    }
+
+    Location savedLocation = applyDriverLocation(ping);
+    locationUpdateFilter.accept(driverId, savedLocation, ping.getRecordedAt());
+    eventPublisher.publishEvent(new DriverLocationUpdatedEvent(driverId, ping.getLatitude(), ping.getLongitude(),
+        ping.getSpeed(), ping.getHeading(), ping.getRecordedAt()));
+    return savedLocation;
+  }
+
+  private Location applyDriverLocation(LocationPing ping) {
+    UUID driverId = ping.getDriverId();
+    Location savedLocation = locationWriteBuffer.isEnabled()
+        ? bufferDriverLocation(ping)
+        : transactionTemplate.execute(status -> saveDriverLocation(ping));
+
+    if (savedLocation.isAvailable()) {
+      driverSpatialIndex.update(driverId, ping.getLatitude(), ping.getLongitude());
+      driverLivenessTracker.track(driverId);
+    }
+
+    // Send real-time location update via WebSocket
+    webSocketService.sendLocationUpdate(driverId.toString(), savedLocation);
+
+    return savedLocation;
+  }
+
+  private Location saveDriverLocation(LocationPing ping) {
+    User driver = userService.validateAndGetUser(ping.getDriverId());
+
+    Location location = locationRepository.findByDriverId(ping.getDriverId())
+        .orElseGet(() -> newLocation(driver));
+
+    location.setLatitude(ping.getLatitude());
+    location.setLongitude(ping.getLongitude());
+    location.setSpeed(ping.getSpeed());
+    location.setHeading(ping.getHeading());
+    location.setRecordedAt(ping.getRecordedAt());
+
+    return locationRepository.save(location);
+  }
+
+  private Location bufferDriverLocation(LocationPing ping) {
+    UUID driverId = ping.getDriverId();
+    // Only the first ping of a driver touches the database; later ones stay in memory until flushed.
+    if (!locationWriteBuffer.isTracked(driverId)) {
+      User driver = userService.validateAndGetUser(driverId);
+      locationWriteBuffer.track(locationRepository.findByDriverId(driverId)
+          .orElseGet(() -> newLocation(driver)));
+    }
+    return locationWriteBuffer.offer(driverId, ping.getLatitude(), ping.getLongitude(), ping.getSpeed(),
+        ping.getHeading(), ping.getRecordedAt());
+  }
+
+  private Location newLocation(User driver) {
+    Location newLocation = new Location();
+    newLocation.setDriver(driver);
+    return newLocation;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.domain.Location;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dead-reckoning filter for driver pings.
+ *
+ * <p>From the last accepted point, its speed (m/s) and heading the filter
+ * predicts where the driver should be now. A ping that stays within the
+ * configured distance and heading thresholds of that prediction, and arrives
+ * before {@code max-interval-seconds}, adds no information and is suppressed:
+ * it is neither persisted nor broadcast.
+ */
+@Component
+public class LocationUpdateFilter {
+
+  private final LocationConfig.Filter config;
+  private final ConcurrentHashMap<UUID, State> states = new ConcurrentHashMap<>();
+
+  public LocationUpdateFilter(LocationConfig locationConfig) {
+    this.config = locationConfig.getFilter();
+  }
+
+  /**
+   * Returns the last accepted location when the ping is redundant, or empty
+   * when it should be applied.
+   */
+  public Optional<Location> suppress(UUID driverId, double latitude, double longitude,
+      Double speed, Double heading, LocalDateTime at) {
+    if (!config.isEnabled()) {
+      return Optional.empty();
+    }
+    State state = states.get(driverId);
+    if (state == null) {
+      return Optional.empty();
+    }
+    return isRedundant(state, latitude, longitude, heading, at) ? Optional.of(state.location) : Optional.empty();
+  }
+
+  public void accept(UUID driverId, Location location, LocalDateTime at) {
+    if (config.isEnabled()) {
+      states.put(driverId, new State(location, at));
+    }
+  }
+
+  public void forget(UUID driverId) {
+    states.remove(driverId);
+  }
+
+  private boolean isRedundant(State state, double latitude, double longitude, Double heading, LocalDateTime at) {
+    Location last = state.location;
+    long elapsedMillis = Duration.between(state.acceptedAt, at).toMillis();
+    if (elapsedMillis < 0 || elapsedMillis >= config.getMaxIntervalSeconds() * 1000) {
+      return false;
+    }
+
+    double predictedLatitude = last.getLatitude();
+    double predictedLongitude = last.getLongitude();
+    if (last.getSpeed() != null && last.getSpeed() > 0 && last.getHeading() != null) {
+      double travelledKm = last.getSpeed() * elapsedMillis / 1_000_000.0;
+      double[] predicted = GeoUtils.destination(predictedLatitude, predictedLongitude, last.getHeading(), travelledKm);
+      predictedLatitude = predicted[0];
+      predictedLongitude = predicted[1];
+    }
+
+    double deviationMeters = GeoUtils.distanceKm(predictedLatitude, predictedLongitude, latitude, longitude) * 1000;
+    if (deviationMeters > config.getDistanceThresholdMeters()) {
+      return false;
+    }
+
+    return heading == null || last.getHeading() == null
+        || GeoUtils.headingDifference(heading, last.getHeading()) <= config.getHeadingThresholdDegrees();
+  }
+
+  private static final class State {
+    private final Location location;
+    private final LocalDateTime acceptedAt;
+
+    private State(Location location, LocalDateTime acceptedAt) {
+      this.location = location;
+      this.acceptedAt = acceptedAt;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.domain.Location;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for driver positions.
+ *
+ * <p>Pings overwrite the latest in-memory snapshot of the driver and mark it
+ * dirty; a background flusher writes only the dirty snapshots to
+ * {@code locations} as JDBC batches, so a driver pinging ten times between two
+ * flushes costs a single row update.
+ */
+@Slf4j
+@Component
+public class LocationWriteBuffer {
+
+  private final LocationBatchWriter locationBatchWriter;
+  private final LocationConfig.WriteBehind config;
+  private final ConcurrentHashMap<UUID, Location> latest = new ConcurrentHashMap<>();
+  private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+
+  public LocationWriteBuffer(LocationBatchWriter locationBatchWriter, LocationConfig locationConfig) {
+    this.locationBatchWriter = locationBatchWriter;
+    this.config = locationConfig.getWriteBehind();
+  }
+
+  public boolean isEnabled() {
+    return config.isEnabled();
+  }
+
+  public boolean isTracked(UUID driverId) {
+    return latest.containsKey(driverId);
+  }
+
+  /**
+   * Starts tracking a driver from its persisted row, or from a new unsaved one.
+   */
+  public void track(Location location) {
+    latest.putIfAbsent(location.getDriver().getId(), copyOf(location));
+  }
+
+  public Location offer(UUID driverId, Double latitude, Double longitude, Double speed, Double heading,
+      LocalDateTime recordedAt) {
+    Location location = latest.compute(driverId, (id, previous) -> {
+      if (previous == null) {
+        throw new IllegalStateException("Driver location is not tracked: " + driverId);
+      }
+      Location next = copyOf(previous);
+      next.setLatitude(latitude);
+      next.setLongitude(longitude);
+      next.setSpeed(speed);
+      next.setHeading(heading);
+      next.setRecordedAt(recordedAt);
+      next.setUpdatedAt(LocalDateTime.now());
+      return next;
+    });
+    dirty.add(driverId);
+    return location;
+  }
+
+  public Optional<Location> peek(UUID driverId) {
+    return Optional.ofNullable(latest.get(driverId));
+  }
+
+  public void setAvailable(UUID driverId, boolean available) {
+    latest.computeIfPresent(driverId, (id, previous) -> {
+      Location next = copyOf(previous);
+      next.setAvailable(available);
+      return next;
+    });
+  }
+
+  /**
+   * Stops tracking a driver whose row was written by another path, so the next
+   * read or ping starts again from the database.
+   */
+  public void evict(UUID driverId) {
+    dirty.remove(driverId);
+    latest.remove(driverId);
+  }
+
+  @Scheduled(fixedDelayString = "${app.location.write-behind.flush-interval-ms:1000}")
+  public void flush() {
+    if (dirty.isEmpty()) {
+      return;
+    }
+    List<Location> batch = new ArrayList<>();
+    for (UUID driverId : dirty) {
+      dirty.remove(driverId);
+      Location location = latest.get(driverId);
+      if (location != null) {
+        batch.add(location);
+      }
+      if (batch.size() >= config.getBatchSize()) {
+        write(batch);
+        batch = new ArrayList<>();
+      }
+    }
+    if (!batch.isEmpty()) {
+      write(batch);
+    }
+  }
+
+  /**
+   * Persists a single driver's pending position right away, e.g. before a
+   * synchronous read-modify-write of its row.
+   */
+  public void flush(UUID driverId) {
+    if (dirty.remove(driverId)) {
+      Location location = latest.get(driverId);
+      if (location != null) {
+        write(List.of(location));
+      }
+    }
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    if (!dirty.isEmpty()) {
+      log.info("Flushing {} buffered driver locations before shutdown", dirty.size());
+      flush();
+    }
+  }
+
+  private synchronized void write(List<Location> batch) {
+    try {
+      locationBatchWriter.upsert(batch);
+    } catch (RuntimeException e) {
+      log.error("Failed to flush {} driver locations, will retry", batch.size(), e);
+      batch.forEach(location -> dirty.add(location.getDriver().getId()));
+    }
+  }
+
+  private static Location copyOf(Location source) {
+    Location copy = new Location();
+    copy.setId(source.getId());
+    copy.setDriver(source.getDriver());
+    copy.setLatitude(source.getLatitude());
+    copy.setLongitude(source.getLongitude());
+    copy.setSpeed(source.getSpeed());
+    copy.setHeading(source.getHeading());
+    copy.setAvailable(source.isAvailable());
+    copy.setCreatedAt(source.getCreatedAt());
+    copy.setRecordedAt(source.getRecordedAt());
+    copy.setUpdatedAt(source.getUpdatedAt());
+    return copy;
+  }
+}
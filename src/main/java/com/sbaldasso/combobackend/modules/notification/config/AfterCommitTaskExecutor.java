@@ -0,0 +1,83 @@
+package com.sbaldasso.combobackend.modules.notification.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thread pool that holds tasks submitted inside a transaction until it
+ * commits, and drops them if it rolls back. {@code @Async} side effects of a
+ * delivery change therefore never run before the change is visible, nor for
+ * a change that did not happen, and never add to the transaction's latency.
+ *
+ * <p>A task the saturated pool hands back to the caller (caller-runs) runs on
+ * the committing thread, where the committed transaction is still bound; it
+ * gets a transaction of its own so its writes do not join that one and get
+ * lost.
+ */
+@Slf4j
+public class AfterCommitTaskExecutor extends ThreadPoolTaskExecutor {
+
+  private final TransactionTemplate callerTransaction;
+
+  public AfterCommitTaskExecutor(PlatformTransactionManager transactionManager) {
+    this.callerTransaction = new TransactionTemplate(transactionManager);
+    this.callerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      super.execute(task);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        Thread committing = Thread.currentThread();
+        try {
+          AfterCommitTaskExecutor.super.execute(() -> {
+            if (Thread.currentThread() == committing) {
+              callerTransaction.executeWithoutResult(status -> task.run());
+            } else {
+              task.run();
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          // The transaction is already committed; failing the caller now would not undo it.
+          log.warn("{} rejected a side effect after commit", getThreadNamePrefix());
+        }
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED && task instanceof Future<?> future) {
+          future.cancel(false);
+        }
+      }
+    });
+  }
+
+  @Override
+  public Future<?> submit(Runnable task) {
+    FutureTask<Object> future = new FutureTask<>(task, null);
+    execute(future);
+    return future;
+  }
+
+  @Override
+  public <T> Future<T> submit(Callable<T> task) {
+    FutureTask<T> future = new FutureTask<>(task);
+    execute(future);
+    return future;
+  }
+}
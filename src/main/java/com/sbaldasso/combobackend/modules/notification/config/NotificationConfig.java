@@ -0,0 +1,72 @@
+package com.sbaldasso.combobackend.modules.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.notification")
+@Data
+public class NotificationConfig {
+  private int cleanupOlderThanDays = 30;
+  private double nearbyRadiusKm = 5.0;
+  /**
+   * Drivers notified of a new delivery request, closest to the pickup first.
+   */
+  private int maxRecipients = 500;
+  /**
+   * Rows per multi-row insert; PostgreSQL allows 65535 bind parameters per statement, 8 per row here.
+   */
+  private int insertRowsPerStatement = 1000;
+  private Executor executor = new Executor();
+  private Push push = new Push();
+  private Unread unread = new Unread();
+
+  @Data
+  public static class Executor {
+    private int corePoolSize = 4;
+    private int maxPoolSize = 8;
+    /**
+     * Side effects waiting for a thread; once full the rejection policy applies.
+     */
+    private int queueCapacity = 1000;
+    /**
+     * CALLER_RUNS slows the submitting request down instead of losing work
+     * (after a commit, the task runs in a new transaction); ABORT, DISCARD and
+     * DISCARD_OLDEST drop it.
+     */
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+    private int awaitTerminationSeconds = 10;
+  }
+
+  @Data
+  public static class Push {
+    private boolean enabled = true;
+    /**
+     * Coalescing window: notifications of a user created within it share one frame.
+     */
+    private long flushIntervalMs = 250;
+    private int maxPerFrame = 50;
+  }
+
+  @Data
+  public static class Unread {
+    /**
+     * How often pending counter changes are added to notification_unread_counts.
+     */
+    private long flushIntervalMs = 1000;
+    /**
+     * How long a summary value read from the database is trusted; bounds how
+     * late changes flushed by other nodes show up in the badge.
+     */
+    private long cacheTtlMs = 30000;
+    private int batchSize = 500;
+  }
+
+  public enum RejectionPolicy {
+    CALLER_RUNS,
+    ABORT,
+    DISCARD,
+    DISCARD_OLDEST
+  }
+}
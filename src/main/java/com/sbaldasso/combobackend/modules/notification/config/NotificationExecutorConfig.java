@@ -0,0 +1,74 @@
+package com.sbaldasso.combobackend.modules.notification.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded pool for notification and WebSocket side effects, selected with
+ * {@code @Async(NotificationExecutorConfig.NOTIFICATION_EXECUTOR)}.
+ *
+ * <p>Metrics, all tagged {@code name=notificationExecutor}: actuator binds
+ * {@code executor.queued}, {@code executor.active}, {@code executor.pool.size}
+ * and {@code executor.completed} for every pool bean; {@code executor.rejected}
+ * counts tasks that hit the rejection policy.
+ */
+@Configuration
+public class NotificationExecutorConfig {
+
+  public static final String NOTIFICATION_EXECUTOR = "notificationExecutor";
+
+  @Bean(NOTIFICATION_EXECUTOR)
+  public ThreadPoolTaskExecutor notificationExecutor(NotificationConfig notificationConfig, MeterRegistry meterRegistry,
+      PlatformTransactionManager transactionManager) {
+    NotificationConfig.Executor config = notificationConfig.getExecutor();
+    Counter rejected = Counter.builder("executor.rejected")
+        .tag("name", NOTIFICATION_EXECUTOR)
+        .register(meterRegistry);
+    RejectedExecutionHandler policy = rejectionHandler(config.getRejectionPolicy());
+
+    ThreadPoolTaskExecutor executor = new AfterCommitTaskExecutor(transactionManager);
+    executor.setThreadNamePrefix("notification-");
+    executor.setCorePoolSize(config.getCorePoolSize());
+    executor.setMaxPoolSize(config.getMaxPoolSize());
+    executor.setQueueCapacity(config.getQueueCapacity());
+    executor.setRejectedExecutionHandler((task, pool) -> {
+      rejected.increment();
+      policy.rejectedExecution(task, pool);
+    });
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(config.getAwaitTerminationSeconds());
+    return executor;
+  }
+
+  /**
+   * Boot only creates its default executor when no other one exists, so it is
+   * declared here to keep plain {@code @Async} and MVC async requests off the
+   * notification pool.
+   */
+  @Lazy
+  @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+      AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+  public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+    return builder.build();
+  }
+
+  private static RejectedExecutionHandler rejectionHandler(NotificationConfig.RejectionPolicy policy) {
+    return switch (policy) {
+      case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+      case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+      case DISCARD -> new ThreadPoolExecutor.DiscardPolicy();
+      case DISCARD_OLDEST -> new ThreadPoolExecutor.DiscardOldestPolicy();
+    };
+  }
+}
@@ -1,6 +1,7 @@
 package com.sbaldasso.combobackend.modules.notification.controller;
 
 import com.sbaldasso.combobackend.modules.notification.domain.Notification;
+import com.sbaldasso.combobackend.modules.notification.dto.UnreadCountResponse;
 import com.sbaldasso.combobackend.modules.notification.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -26,6 +27,14 @@ public class NotificationController {
     return ResponseEntity.ok(notificationService.getUserNotifications(userId, pageable));
   }
 
+  @GetMapping("/unread-count")
+  @PreAuthorize("isAuthenticated()")
+  public ResponseEntity<UnreadCountResponse> getUnreadCount(@RequestAttribute UUID userId) {
+    return ResponseEntity.ok(UnreadCountResponse.builder()
+        .unread(notificationService.getUnreadCount(userId))
+        .build());
+  }
+
   @PutMapping("/{notificationId}/read")
   @PreAuthorize("isAuthenticated()")
   public ResponseEntity<Void> markAsRead(@PathVariable UUID notificationId) {
@@ -2,6 +2,7 @@ package com.sbaldasso.combobackend.modules.notification.domain;
 
 public enum NotificationType {
   NEW_DELIVERY_REQUEST,
+  DELIVERY_OFFER,
   DELIVERY_ACCEPTED,
   DELIVERY_PICKED_UP,
   DELIVERY_COMPLETED,
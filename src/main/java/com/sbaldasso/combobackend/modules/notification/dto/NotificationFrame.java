@@ -0,0 +1,19 @@
+package com.sbaldasso.combobackend.modules.notification.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Notifications created for one user since the previous frame, oldest first.
+ */
+@Data
+@Builder
+public class NotificationFrame {
+  private List<PushedNotification> notifications;
+  /**
+   * Older notifications of the burst were left out; the client should reload the list.
+   */
+  private boolean truncated;
+}
@@ -0,0 +1,19 @@
+package com.sbaldasso.combobackend.modules.notification.dto;
+
+import com.sbaldasso.combobackend.modules.notification.domain.NotificationType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+public class PushedNotification {
+  private UUID id;
+  private String title;
+  private String message;
+  private NotificationType type;
+  private String data;
+  private LocalDateTime createdAt;
+}
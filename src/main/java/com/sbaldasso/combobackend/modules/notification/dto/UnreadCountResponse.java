@@ -0,0 +1,10 @@
+package com.sbaldasso.combobackend.modules.notification.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UnreadCountResponse {
+  private long unread;
+}
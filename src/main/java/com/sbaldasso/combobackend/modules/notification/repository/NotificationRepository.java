@@ -4,9 +4,13 @@ import com.sbaldasso.combobackend.modules.notification.domain.Notification;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -14,4 +18,15 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
   Page<Notification> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
 
   void deleteByCreatedAtBefore(LocalDateTime date);
+
+  /**
+   * Marks the notification read unless it already is, in a single statement.
+   * Returns 1 for the one caller that flipped it and 0 for everyone else.
+   */
+  @Modifying(clearAutomatically = true, flushAutomatically = true)
+  @Query("update Notification n set n.read = true, n.readAt = :readAt where n.id = :id and n.read = false")
+  int markRead(@Param("id") UUID id, @Param("readAt") LocalDateTime readAt);
+
+  @Query("select n.user.id from Notification n where n.id = :id")
+  Optional<UUID> findUserIdById(@Param("id") UUID id);
 }
\ No newline at end of file
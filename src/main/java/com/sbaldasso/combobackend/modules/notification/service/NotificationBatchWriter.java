@@ -0,0 +1,67 @@
+package com.sbaldasso.combobackend.modules.notification.service;
+
+import com.sbaldasso.combobackend.modules.notification.config.NotificationConfig;
+import com.sbaldasso.combobackend.modules.notification.domain.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inserts notifications with multi-row {@code INSERT ... VALUES (...), (...)}
+ * statements, so fanning a delivery out to thousands of drivers costs a
+ * handful of round trips instead of one per row.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationBatchWriter {
+
+  private static final String INSERT_SQL = """
+      INSERT INTO notifications (id, user_id, title, message, type, data, read, created_at)
+      VALUES\s""";
+
+  private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NotificationConfig notificationConfig;
+
+  /**
+   * Assigns ids and creation times to the notifications that have none and
+   * inserts them.
+   *
+   * @return the number of rows inserted
+   */
+  public int insert(List<Notification> notifications) {
+    int rowsPerStatement = notificationConfig.getInsertRowsPerStatement();
+    LocalDateTime now = LocalDateTime.now();
+    int inserted = 0;
+    for (int from = 0; from < notifications.size(); from += rowsPerStatement) {
+      List<Notification> rows = notifications.subList(from, Math.min(from + rowsPerStatement, notifications.size()));
+      inserted += jdbcTemplate.update(INSERT_SQL + String.join(", ", Collections.nCopies(rows.size(), ROW)), ps -> {
+        int index = 1;
+        for (Notification notification : rows) {
+          if (notification.getId() == null) {
+            notification.setId(UUID.randomUUID());
+          }
+          if (notification.getCreatedAt() == null) {
+            notification.setCreatedAt(now);
+          }
+          ps.setObject(index++, notification.getId());
+          ps.setObject(index++, notification.getUser().getId());
+          ps.setString(index++, notification.getTitle());
+          ps.setString(index++, notification.getMessage());
+          ps.setString(index++, notification.getType().name());
+          ps.setString(index++, notification.getData());
+          ps.setBoolean(index++, notification.isRead());
+          ps.setTimestamp(index++, Timestamp.valueOf(notification.getCreatedAt()));
+        }
+      });
+    }
+    return inserted;
+  }
+}
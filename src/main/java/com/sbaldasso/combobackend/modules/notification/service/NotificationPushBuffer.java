@@ -0,0 +1,111 @@
+package com.sbaldasso.combobackend.modules.notification.service;
+
+import com.sbaldasso.combobackend.modules.notification.config.NotificationConfig;
+import com.sbaldasso.combobackend.modules.notification.domain.Notification;
+import com.sbaldasso.combobackend.modules.notification.dto.NotificationFrame;
+import com.sbaldasso.combobackend.modules.notification.dto.PushedNotification;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes persisted notifications to {@code /topic/notifications/{userId}}.
+ *
+ * <p>Notifications are queued once their transaction commits and flushed
+ * every {@code flush-interval-ms} as one frame per user, so a burst reaches
+ * the client as a single message. Frames are sent from the flush thread, so
+ * a user's frames leave in order. Users without a connected STOMP session
+ * are skipped when queuing; they catch up over REST when they come back.
+ */
+@Component
+public class NotificationPushBuffer {
+
+  private final WebSocketService webSocketService;
+  private final SimpUserRegistry simpUserRegistry;
+  private final NotificationConfig.Push config;
+  private final ConcurrentHashMap<UUID, Pending> pending = new ConcurrentHashMap<>();
+
+  public NotificationPushBuffer(WebSocketService webSocketService, SimpUserRegistry simpUserRegistry,
+      NotificationConfig notificationConfig) {
+    this.webSocketService = webSocketService;
+    this.simpUserRegistry = simpUserRegistry;
+    this.config = notificationConfig.getPush();
+  }
+
+  public void enqueue(List<Notification> notifications) {
+    if (!config.isEnabled() || notifications.isEmpty()) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          add(notifications);
+        }
+      });
+    } else {
+      add(notifications);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.notification.push.flush-interval-ms:250}")
+  public void flush() {
+    for (UUID userId : pending.keySet()) {
+      Pending frame = pending.remove(userId);
+      if (frame != null) {
+        webSocketService.sendNotification(userId.toString(), NotificationFrame.builder()
+            .notifications(new ArrayList<>(frame.notifications))
+            .truncated(frame.truncated)
+            .build());
+      }
+    }
+  }
+
+  private void add(List<Notification> notifications) {
+    for (Notification notification : notifications) {
+      UUID userId = notification.getUser().getId();
+      if (simpUserRegistry.getUser(userId.toString()) == null) {
+        continue;
+      }
+      PushedNotification pushed = toPushed(notification);
+      pending.compute(userId, (id, frame) -> {
+        Pending target = frame != null ? frame : new Pending();
+        target.add(pushed, config.getMaxPerFrame());
+        return target;
+      });
+    }
+  }
+
+  private static PushedNotification toPushed(Notification notification) {
+    return PushedNotification.builder()
+        .id(notification.getId())
+        .title(notification.getTitle())
+        .message(notification.getMessage())
+        .type(notification.getType())
+        .data(notification.getData())
+        .createdAt(notification.getCreatedAt())
+        .build();
+  }
+
+  // Only touched inside pending.compute, or after pending.remove handed it to the flusher.
+  private static final class Pending {
+    private final ArrayDeque<PushedNotification> notifications = new ArrayDeque<>(2);
+    private boolean truncated;
+
+    private void add(PushedNotification notification, int max) {
+      if (notifications.size() >= max) {
+        notifications.pollFirst();
+        truncated = true;
+      }
+      notifications.addLast(notification);
+    }
+  }
+}
@@ -5,17 +5,24 @@ import com.sbaldasso.combobackend.modules.notification.domain.Notification;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface NotificationService {
   void notifyNearbyDrivers(Delivery delivery);
 
+  void notifyNearbyDrivers(List<Delivery> deliveries);
+
+  void notifyDeliveryOffer(UUID driverId, UUID deliveryId, String pickupAddress);
+
   void notifyDeliveryAccepted(Delivery delivery);
 
   void notifyDeliveryStatusUpdate(Delivery delivery);
 
   Page<Notification> getUserNotifications(UUID userId, Pageable pageable);
 
+  long getUnreadCount(UUID userId);
+
   void markNotificationAsRead(UUID notificationId);
 
   void deleteOldNotifications();
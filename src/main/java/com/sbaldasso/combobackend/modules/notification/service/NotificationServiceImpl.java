@@ -1,51 +1,70 @@
 package com.sbaldasso.combobackend.modules.notification.service;
 
 import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
-import com.sbaldasso.combobackend.modules.location.domain.Location;
-import com.sbaldasso.combobackend.modules.location.repository.LocationRepository;
+import com.sbaldasso.combobackend.modules.location.domain.NearbyDriver;
+import com.sbaldasso.combobackend.modules.location.service.DriverSpatialIndex;
+import com.sbaldasso.combobackend.modules.notification.config.NotificationConfig;
 import com.sbaldasso.combobackend.modules.notification.domain.Notification;
 import com.sbaldasso.combobackend.modules.notification.domain.NotificationType;
 import com.sbaldasso.combobackend.modules.notification.repository.NotificationRepository;
-import com.sbaldasso.combobackend.modules.user.domain.UserType;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationServiceImpl implements NotificationService {
 
   private final NotificationRepository notificationRepository;
-  private final LocationRepository locationRepository;
+  private final NotificationBatchWriter notificationBatchWriter;
+  private final NotificationPushBuffer notificationPushBuffer;
+  private final NotificationUnreadCounter notificationUnreadCounter;
+  private final DriverSpatialIndex driverSpatialIndex;
+  private final NotificationConfig notificationConfig;
+  private final MeterRegistry meterRegistry;
 
+  // Called by the delivery outbox dispatcher, which retries on failure, so it
+  // runs synchronously; the same goes for the accepted and status notifications.
   @Override
-  @Async
   @Transactional
   public void notifyNearbyDrivers(Delivery delivery) {
+    fanOut(List.of(delivery));
+  }
 
-    List<Location> nearbyDrivers = locationRepository.findByAvailableTrue();
-
-    nearbyDrivers.forEach(location -> {
-      Notification notification = new Notification();
-      notification.setUser(location.getDriver());
-      notification.setTitle("New Delivery Request");
-      notification.setMessage("New delivery request from " + delivery.getPickupAddress());
-      notification.setType(NotificationType.NEW_DELIVERY_REQUEST);
-      notification.setData(delivery.getId().toString());
+  /**
+   * Notifies the drivers near each delivery of a batch, inserting all the
+   * notifications in one transaction.
+   */
+  @Override
+  @Transactional
+  public void notifyNearbyDrivers(List<Delivery> deliveries) {
+    fanOut(deliveries);
+  }
 
-      notificationRepository.save(notification);
-    });
+  @Override
+  @Transactional
+  public void notifyDeliveryOffer(UUID driverId, UUID deliveryId, String pickupAddress) {
+    createNotification(
+        driverId,
+        "Delivery Offer",
+        "You have been offered a delivery from " + pickupAddress,
+        NotificationType.DELIVERY_OFFER,
+        deliveryId.toString());
   }
 
   @Override
-  @Async
   @Transactional
   public void notifyDeliveryAccepted(Delivery delivery) {
     createNotification(
@@ -57,7 +76,6 @@ public class NotificationServiceImpl implements NotificationService {
   }
 
   @Override
-  @Async
   @Transactional
   public void notifyDeliveryStatusUpdate(Delivery delivery) {
     switch (delivery.getStatus()) {
@@ -85,7 +103,9 @@ public class NotificationServiceImpl implements NotificationService {
                 NotificationType.DELIVERY_CANCELLED,
                 delivery.getId().toString());
           }
-          default -> throw new IllegalArgumentException("Unexpected value: " + delivery.getStatus());
+          default -> {
+            // Other transitions are not notified to the customer.
+          }
     }
   }
 
@@ -94,14 +114,19 @@ public class NotificationServiceImpl implements NotificationService {
     return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
   }
 
+  @Override
+  public long getUnreadCount(UUID userId) {
+    return notificationUnreadCounter.unreadCount(userId);
+  }
+
   @Override
   @Transactional
   public void markNotificationAsRead(UUID notificationId) {
-    notificationRepository.findById(notificationId).ifPresent(notification -> {
-      notification.setRead(true);
-      notification.setReadAt(LocalDateTime.now());
-      notificationRepository.save(notification);
-    });
+    // Conditional update: of two concurrent calls only one sees a row change,
+    // so the unread badge is decremented once.
+    if (notificationRepository.markRead(notificationId, LocalDateTime.now()) == 1) {
+      notificationRepository.findUserIdById(notificationId).ifPresent(notificationUnreadCounter::recordRead);
+    }
   }
 
   @Override
@@ -109,17 +134,72 @@ public class NotificationServiceImpl implements NotificationService {
   public void deleteOldNotifications() {
     LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
     notificationRepository.deleteByCreatedAtBefore(cutoffDate);
+    // Unread notifications may be among the deleted ones.
+    notificationUnreadCounter.reconcileAfterCommit();
+  }
+
+  // Multi-row inserts instead of one save per driver; the rate is logged and
+  // exported as notifications.fanout / notifications.fanout.rows.
+  private void fanOut(List<Delivery> deliveries) {
+    long start = System.nanoTime();
+    List<Notification> notifications = new ArrayList<>();
+    deliveries.forEach(delivery -> findNearbyDriverIds(delivery)
+        .forEach(driverId -> notifications.add(newDeliveryRequest(driverId, delivery))));
+    int inserted = notificationBatchWriter.insert(notifications);
+    notificationUnreadCounter.recordCreated(notifications);
+    notificationPushBuffer.enqueue(notifications);
+    long elapsedNanos = System.nanoTime() - start;
+
+    meterRegistry.timer("notifications.fanout").record(elapsedNanos, TimeUnit.NANOSECONDS);
+    meterRegistry.counter("notifications.fanout.rows").increment(inserted);
+    if (inserted > 0) {
+      log.info("Fanned out {} notifications for {} deliveries in {} ms ({} rows/s)", inserted, deliveries.size(),
+          TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(inserted * 1e9 / Math.max(1, elapsedNanos)));
+    }
+  }
+
+  /**
+   * The drivers within the configured radius of the pickup, closest first and
+   * at most {@code max-recipients} of them. Deliveries without pickup
+   * coordinates go to any available drivers, under the same cap.
+   */
+  private List<UUID> findNearbyDriverIds(Delivery delivery) {
+    if (delivery.getPickupLatitude() == null || delivery.getPickupLongitude() == null) {
+      return driverSpatialIndex.availableDriverIds().stream()
+          .limit(notificationConfig.getMaxRecipients())
+          .toList();
+    }
+    return driverSpatialIndex.findWithinRadius(
+            delivery.getPickupLatitude(),
+            delivery.getPickupLongitude(),
+            notificationConfig.getNearbyRadiusKm())
+        .stream()
+        .limit(notificationConfig.getMaxRecipients())
+        .map(NearbyDriver::getDriverId)
+        .toList();
+  }
+
+  private Notification newDeliveryRequest(UUID driverId, Delivery delivery) {
+    Notification notification = new Notification();
+    notification.setUser(new User(driverId));
+    notification.setTitle("New Delivery Request");
+    notification.setMessage("New delivery request from " + delivery.getPickupAddress());
+    notification.setType(NotificationType.NEW_DELIVERY_REQUEST);
+    notification.setData(delivery.getId().toString());
+    return notification;
   }
 
   private void createNotification(UUID userId, String title, String message,
       NotificationType type, String data) {
     Notification notification = new Notification();
-    notification.setUser(new com.sbaldasso.combobackend.modules.user.domain.User(userId));
+    notification.setUser(new User(userId));
     notification.setTitle(title);
     notification.setMessage(message);
     notification.setType(type);
     notification.setData(data);
 
     notificationRepository.save(notification);
+    notificationUnreadCounter.recordCreated(List.of(notification));
+    notificationPushBuffer.enqueue(List.of(notification));
   }
 }
\ No newline at end of file
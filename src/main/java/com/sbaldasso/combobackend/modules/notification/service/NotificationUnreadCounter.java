@@ -0,0 +1,255 @@
+package com.sbaldasso.combobackend.modules.notification.service;
+
+import com.sbaldasso.combobackend.modules.notification.config.NotificationConfig;
+import com.sbaldasso.combobackend.modules.notification.domain.Notification;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Unread notification counts per user, behind the unread badge.
+ *
+ * <p>Creating a notification and marking one as read adjust an in-memory
+ * counter once the transaction commits. Every {@code flush-interval-ms} the
+ * pending changes are added to {@code notification_unread_counts} in one
+ * batch. A badge read is the summary value, cached for {@code cache-ttl-ms},
+ * plus the changes not flushed yet, so it never counts {@code notifications}
+ * rows. Deltas lost in a crash and rows removed by the cleanup are repaired
+ * by {@link #reconcile()}, which recomputes the summary from
+ * {@code notifications} nightly.
+ */
+@Slf4j
+@Component
+public class NotificationUnreadCounter {
+
+  private static final long UNKNOWN = -1;
+
+  private static final String LOAD_SQL = "SELECT unread FROM notification_unread_counts WHERE user_id = ?";
+
+  private static final String ADD_SQL = """
+      INSERT INTO notification_unread_counts (user_id, unread, updated_at)
+      VALUES (?, GREATEST(?, 0), ?)
+      ON CONFLICT (user_id) DO UPDATE
+      SET unread = GREATEST(notification_unread_counts.unread + ?, 0), updated_at = EXCLUDED.updated_at""";
+
+  private static final String RECOUNT_SQL = """
+      INSERT INTO notification_unread_counts (user_id, unread, updated_at)
+      SELECT user_id, COUNT(*), ? FROM notifications WHERE NOT read GROUP BY user_id
+      ON CONFLICT (user_id) DO UPDATE
+      SET unread = EXCLUDED.unread, updated_at = EXCLUDED.updated_at
+      WHERE notification_unread_counts.unread <> EXCLUDED.unread""";
+
+  private static final String CLEAR_SQL = """
+      UPDATE notification_unread_counts c SET unread = 0, updated_at = ?
+      WHERE c.unread <> 0
+        AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.user_id = c.user_id AND NOT n.read)""";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NotificationConfig.Unread config;
+  private final long cacheTtlNanos;
+  private final TransactionTemplate reconcileTransaction;
+  private final ConcurrentHashMap<UUID, Counter> counters = new ConcurrentHashMap<>();
+
+  public NotificationUnreadCounter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+      NotificationConfig notificationConfig) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.config = notificationConfig.getUnread();
+    this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(config.getCacheTtlMs());
+    this.reconcileTransaction = new TransactionTemplate(transactionManager);
+    this.reconcileTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  public long unreadCount(UUID userId) {
+    Counter counter = counters.computeIfAbsent(userId, id -> new Counter());
+    long persisted = counter.persisted;
+    if (persisted == UNKNOWN || System.nanoTime() - counter.loadedAt > cacheTtlNanos) {
+      persisted = load(userId, counter);
+    }
+    return Math.max(0, persisted + counter.pending.sum());
+  }
+
+  public void recordCreated(List<Notification> notifications) {
+    if (notifications.isEmpty()) {
+      return;
+    }
+    Map<UUID, Long> created = notifications.stream()
+        .collect(Collectors.groupingBy(notification -> notification.getUser().getId(), Collectors.counting()));
+    afterCommit(() -> created.forEach(this::add));
+  }
+
+  public void recordRead(UUID userId) {
+    afterCommit(() -> add(userId, -1));
+  }
+
+  /**
+   * Reconciles the summary once the surrounding transaction commits, e.g.
+   * after notifications were deleted in bulk.
+   */
+  public void reconcileAfterCommit() {
+    afterCommit(this::reconcile);
+  }
+
+  @Scheduled(fixedDelayString = "${app.notification.unread.flush-interval-ms:1000}")
+  public synchronized void flush() {
+    long now = System.nanoTime();
+    List<Change> changes = new ArrayList<>();
+    counters.forEach((userId, counter) -> {
+      long delta = counter.pending.sum();
+      if (delta != 0) {
+        changes.add(new Change(userId, counter, delta));
+      } else if (counter.isStale(now, cacheTtlNanos)) {
+        evict(userId, counter);
+      }
+    });
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+    long writeStarted = System.nanoTime();
+    try {
+      jdbcTemplate.batchUpdate(ADD_SQL, changes, config.getBatchSize(), (ps, change) -> {
+        ps.setObject(1, change.userId);
+        ps.setLong(2, change.delta);
+        ps.setTimestamp(3, updatedAt);
+        ps.setLong(4, change.delta);
+      });
+    } catch (RuntimeException e) {
+      log.error("Failed to flush unread counts of {} users, will retry", changes.size(), e);
+      return;
+    }
+    for (Change change : changes) {
+      change.counter.applyFlushed(change.delta, writeStarted);
+    }
+  }
+
+  /**
+   * Recomputes every user's count from {@code notifications}. Changes
+   * committed while the recount runs may be counted twice until the next
+   * reconciliation.
+   */
+  @Scheduled(cron = "${app.notification.unread.reconcile-cron:0 45 3 * * *}")
+  public synchronized void reconcile() {
+    flush();
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    Integer corrected = reconcileTransaction.execute(status ->
+        jdbcTemplate.update(RECOUNT_SQL, now) + jdbcTemplate.update(CLEAR_SQL, now));
+    counters.values().forEach(Counter::invalidate);
+    log.info("Reconciled unread notification counts, {} users corrected", corrected);
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+
+  private void add(UUID userId, long delta) {
+    while (true) {
+      Counter counter = counters.computeIfAbsent(userId, id -> new Counter());
+      synchronized (counter) {
+        if (!counter.evicted) {
+          counter.pending.add(delta);
+          return;
+        }
+      }
+      // Evicted after we looked it up: it is never flushed again, so use a fresh one.
+      counters.remove(userId, counter);
+    }
+  }
+
+  private long load(UUID userId, Counter counter) {
+    synchronized (counter) {
+      if (!counter.isStale(System.nanoTime(), cacheTtlNanos)) {
+        return counter.persisted;
+      }
+      List<Long> unread = jdbcTemplate.queryForList(LOAD_SQL, Long.class, userId);
+      counter.persisted = unread.isEmpty() ? 0 : unread.get(0);
+      counter.loadedAt = System.nanoTime();
+      return counter.persisted;
+    }
+  }
+
+  private void evict(UUID userId, Counter counter) {
+    synchronized (counter) {
+      if (counter.pending.sum() != 0) {
+        return;
+      }
+      counter.evicted = true;
+    }
+    counters.remove(userId, counter);
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private static final class Counter {
+    // Committed changes not yet added to the summary; updated under the
+    // counter's lock, so evict never drops one, and read without it.
+    private final LongAdder pending = new LongAdder();
+    // Summary value as of loadedAt, or UNKNOWN; written under the counter's lock.
+    private volatile long persisted = UNKNOWN;
+    private volatile long loadedAt;
+    private volatile boolean evicted;
+
+    private boolean isStale(long now, long ttlNanos) {
+      return persisted == UNKNOWN || now - loadedAt > ttlNanos;
+    }
+
+    /**
+     * Moves a flushed delta from pending to persisted. A value loaded after
+     * the write started may already include it, so it is dropped instead.
+     */
+    private synchronized void applyFlushed(long delta, long writeStarted) {
+      if (persisted != UNKNOWN && loadedAt - writeStarted < 0) {
+        persisted += delta;
+      } else {
+        persisted = UNKNOWN;
+      }
+      pending.add(-delta);
+    }
+
+    private synchronized void invalidate() {
+      persisted = UNKNOWN;
+    }
+  }
+
+  private static final class Change {
+    private final UUID userId;
+    private final Counter counter;
+    private final long delta;
+
+    private Change(UUID userId, Counter counter, long delta) {
+      this.userId = userId;
+      this.counter = counter;
+      this.delta = delta;
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package com.sbaldasso.combobackend.modules.notification.service;
 
+import com.sbaldasso.combobackend.modules.notification.config.NotificationExecutorConfig;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -14,10 +16,23 @@ public class WebSocketService {
     messagingTemplate.convertAndSend("/topic/location/" + driverId, locationUpdate);
   }
 
+  @Async(NotificationExecutorConfig.NOTIFICATION_EXECUTOR)
   public void sendDeliveryUpdate(String userId, Object deliveryUpdate) {
     messagingTemplate.convertAndSend("/topic/delivery/" + userId, deliveryUpdate);
   }
 
+  // Synchronous: DeliveryOutboxDispatcher deletes the outbox row once this
+  // returns, so a failed send has to surface as an exception and be retried.
+  public void sendDeliveryStatus(String userId, Object statusUpdate) {
+    messagingTemplate.convertAndSend("/topic/delivery/" + userId, statusUpdate);
+  }
+
+  public void sendHeatmapUpdate(Object heatmapUpdate) {
+    messagingTemplate.convertAndSend("/topic/heatmap", heatmapUpdate);
+  }
+
+  // Synchronous: NotificationPushBuffer sends a user's frames one after the
+  // other from its flush thread, and a pool could reorder them.
   public void sendNotification(String userId, Object notification) {
     messagingTemplate.convertAndSend("/topic/notifications/" + userId, notification);
   }
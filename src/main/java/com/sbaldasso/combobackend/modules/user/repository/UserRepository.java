@@ -5,8 +5,11 @@ import com.sbaldasso.combobackend.modules.user.domain.UserType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,4 +23,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
   Page<User> findByUserType(UserType userType, Pageable pageable);
 
   List<User> findByUserTypeAndActive(UserType userType, boolean active);
+
+  @Query("select u.id from User u where u.id in :ids and u.userType = :userType and u.active = :active")
+  List<UUID> findIdsByIdInAndUserTypeAndActive(
+      @Param("ids") Collection<UUID> ids,
+      @Param("userType") UserType userType,
+      @Param("active") boolean active);
 }
\ No newline at end of file
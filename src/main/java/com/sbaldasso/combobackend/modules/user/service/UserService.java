@@ -3,6 +3,8 @@ package com.sbaldasso.combobackend.modules.user.service;
 import com.sbaldasso.combobackend.modules.user.domain.User;
 import com.sbaldasso.combobackend.modules.user.domain.UserType;
 
+import java.util.Collection;
+import java.util.Set;
 import java.util.UUID;
 
 public interface UserService {
@@ -11,4 +13,6 @@ public interface UserService {
   User validateAndGetUser(UUID userId, UserType expectedType);
 
   boolean isUserActive(UUID userId);
+
+  Set<UUID> findActiveDriverIds(Collection<UUID> userIds);
 }
\ No newline at end of file
@@ -14,6 +14,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -43,6 +46,14 @@ public class UserServiceImpl implements UserService {
     return validateAndGetUser(userId).isActive();
   }
 
+  @Override
+  public Set<UUID> findActiveDriverIds(Collection<UUID> userIds) {
+    if (userIds.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(userRepository.findIdsByIdInAndUserTypeAndActive(userIds, UserType.DRIVER, true));
+  }
+
   @Transactional
   public UserResponse createUser(CreateUserRequest request) {
     if (userRepository.existsByEmail(request.getEmail())) {
@@ -0,0 +1,182 @@
+-- Baseline schema. deliveries and notifications are range-partitioned by
+-- created_at, one partition per month; PartitionMaintenance keeps partitions
+-- created ahead of time and the DEFAULT partitions only catch stragglers.
+-- Unique keys on partitioned tables must include the partition key, so their
+-- primary keys are (id, created_at) and no foreign key can point at them.
+--
+-- Existing databases are baselined at version 0 so this script still runs;
+-- tables left by ddl-auto must be renamed first (see README, "Database
+-- migrations").
+
+CREATE TABLE users (
+    id          UUID         NOT NULL PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    email       VARCHAR(255) NOT NULL,
+    password    VARCHAR(255) NOT NULL,
+    phone       VARCHAR(255) NOT NULL,
+    user_type   VARCHAR(255) NOT NULL,
+    active      BOOLEAN      NOT NULL DEFAULT TRUE,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+-- UserRepository.findByUserTypeAndActive / findByUserType
+CREATE INDEX idx_users_type_active ON users (user_type, active);
+
+CREATE TABLE locations (
+    id          UUID             NOT NULL PRIMARY KEY,
+    driver_id   UUID             NOT NULL REFERENCES users (id),
+    latitude    DOUBLE PRECISION NOT NULL,
+    longitude   DOUBLE PRECISION NOT NULL,
+    speed       DOUBLE PRECISION,
+    heading     DOUBLE PRECISION,
+    available   BOOLEAN          NOT NULL DEFAULT TRUE,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    -- One current position per driver: findByDriverId, findByDriverIdIn and
+    -- the batched UPDATE ... WHERE driver_id = ? of LocationBatchWriter.
+    CONSTRAINT uk_locations_driver UNIQUE (driver_id)
+);
+
+-- LocationRepository.findByAvailableTrue, loaded on startup.
+CREATE INDEX idx_locations_available ON locations (driver_id) WHERE available;
+
+CREATE TABLE deliveries (
+    id                       UUID             NOT NULL,
+    customer_id              UUID             NOT NULL REFERENCES users (id),
+    driver_id                UUID             REFERENCES users (id),
+    pickup_address           VARCHAR(255)     NOT NULL,
+    delivery_address         VARCHAR(255)     NOT NULL,
+    pickup_latitude          DOUBLE PRECISION,
+    pickup_longitude         DOUBLE PRECISION,
+    delivery_latitude        DOUBLE PRECISION,
+    delivery_longitude       DOUBLE PRECISION,
+    price                    NUMERIC(38, 2)   NOT NULL,
+    status                   VARCHAR(255)     NOT NULL,
+    description              VARCHAR(255),
+    created_at               TIMESTAMP(6)     NOT NULL,
+    updated_at               TIMESTAMP(6),
+    picked_up_at             TIMESTAMP(6),
+    delivered_at             TIMESTAMP(6),
+    estimated_delivery_time  TIMESTAMP(6),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- findByCustomerId / findByDriverId pages and keyset scrolls, newest first.
+CREATE INDEX idx_deliveries_customer_created ON deliveries (customer_id, created_at, id);
+CREATE INDEX idx_deliveries_driver_created ON deliveries (driver_id, created_at, id);
+-- Admin listing and scroll over everything.
+CREATE INDEX idx_deliveries_created ON deliveries (created_at, id);
+-- Admin search by status, findByStatusIn, findPickupPointsByStatus,
+-- findDispatchableByStatus and the archiver's terminal-status walk.
+CREATE INDEX idx_deliveries_status_created ON deliveries (status, created_at, id);
+-- findDriverIdsByStatusIn: drivers currently carrying a delivery.
+CREATE INDEX idx_deliveries_active_driver ON deliveries (driver_id)
+    WHERE status IN ('DRIVER_ASSIGNED', 'PICKED_UP', 'IN_TRANSIT');
+
+CREATE TABLE deliveries_default PARTITION OF deliveries DEFAULT;
+
+CREATE TABLE deliveries_archive (
+    id                       UUID             NOT NULL PRIMARY KEY,
+    customer_id              UUID             NOT NULL,
+    driver_id                UUID,
+    pickup_address           VARCHAR(255)     NOT NULL,
+    delivery_address         VARCHAR(255)     NOT NULL,
+    pickup_latitude          DOUBLE PRECISION,
+    pickup_longitude         DOUBLE PRECISION,
+    delivery_latitude        DOUBLE PRECISION,
+    delivery_longitude       DOUBLE PRECISION,
+    price                    NUMERIC(38, 2)   NOT NULL,
+    status                   VARCHAR(255)     NOT NULL,
+    description              VARCHAR(255),
+    created_at               TIMESTAMP(6),
+    updated_at               TIMESTAMP(6),
+    picked_up_at             TIMESTAMP(6),
+    delivered_at             TIMESTAMP(6),
+    estimated_delivery_time  TIMESTAMP(6),
+    archived_at              TIMESTAMP(6)     NOT NULL
+);
+
+CREATE INDEX idx_deliveries_archive_customer_created ON deliveries_archive (customer_id, created_at);
+
+CREATE TABLE delivery_events (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    delivery_id  UUID         NOT NULL,
+    from_status  VARCHAR(255),
+    to_status    VARCHAR(255) NOT NULL,
+    actor_id     UUID         NOT NULL,
+    occurred_at  TIMESTAMP(6) NOT NULL,
+    payload      TEXT
+);
+
+-- DeliveryEventRepository.findByDeliveryIdOrderByIdAsc
+CREATE INDEX idx_delivery_events_delivery ON delivery_events (delivery_id, id);
+
+CREATE TABLE notifications (
+    id          UUID         NOT NULL,
+    user_id     UUID         NOT NULL REFERENCES users (id),
+    title       VARCHAR(255) NOT NULL,
+    message     VARCHAR(255) NOT NULL,
+    type        VARCHAR(255) NOT NULL,
+    data        VARCHAR(255),
+    read        BOOLEAN      NOT NULL DEFAULT FALSE,
+    created_at  TIMESTAMP(6) NOT NULL,
+    read_at     TIMESTAMP(6),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- NotificationRepository.findByUserIdOrderByCreatedAtDesc
+CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at DESC);
+
+CREATE TABLE notifications_default PARTITION OF notifications DEFAULT;
+
+-- Monthly partitions from the previous month to three months ahead.
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', now()) - INTERVAL '1 month';
+    parent      TEXT;
+BEGIN
+    FOR i IN 0..4 LOOP
+        FOREACH parent IN ARRAY ARRAY['deliveries', 'notifications'] LOOP
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           parent || '_p' || to_char(month_start, 'YYYYMM'), parent,
+                           month_start, (month_start + INTERVAL '1 month')::DATE);
+        END LOOP;
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+CREATE TABLE ratings (
+    id            UUID         NOT NULL PRIMARY KEY,
+    delivery_id   UUID         NOT NULL,
+    from_user_id  UUID         NOT NULL REFERENCES users (id),
+    to_user_id    UUID         NOT NULL REFERENCES users (id),
+    rating        INTEGER      NOT NULL,
+    comment       VARCHAR(255),
+    created_at    TIMESTAMP(6)
+);
+
+CREATE INDEX idx_ratings_delivery ON ratings (delivery_id);
+CREATE INDEX idx_ratings_to_user ON ratings (to_user_id);
+
+CREATE TABLE payments (
+    id              UUID           NOT NULL PRIMARY KEY,
+    delivery_id     UUID           NOT NULL,
+    amount          NUMERIC(38, 2) NOT NULL,
+    status          VARCHAR(255)   NOT NULL,
+    method          VARCHAR(255)   NOT NULL,
+    transaction_id  VARCHAR(255),
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    paid_at         TIMESTAMP(6),
+    failure_reason  VARCHAR(255),
+    CONSTRAINT uk_payments_delivery UNIQUE (delivery_id)
+);
+
+CREATE TABLE geocoded_addresses (
+    normalized_address  VARCHAR(512)     NOT NULL PRIMARY KEY,
+    latitude            DOUBLE PRECISION NOT NULL,
+    longitude           DOUBLE PRECISION NOT NULL,
+    created_at          TIMESTAMP(6)     NOT NULL
+);
@@ -0,0 +1,16 @@
+-- Side effects of delivery changes, written in the same transaction as the
+-- change and drained by DeliveryOutboxDispatcher.
+CREATE TABLE delivery_outbox (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    delivery_id   UUID          NOT NULL,
+    type          VARCHAR(255)  NOT NULL,
+    status        VARCHAR(255)  NOT NULL,
+    created_at    TIMESTAMP(6)  NOT NULL,
+    available_at  TIMESTAMP(6)  NOT NULL,
+    attempts      INTEGER       NOT NULL DEFAULT 0,
+    last_error    VARCHAR(1000),
+    failed_at     TIMESTAMP(6)
+);
+
+-- DeliveryOutboxRepository.claimDue: due rows in id order, dead letters excluded.
+CREATE INDEX idx_delivery_outbox_available ON delivery_outbox (available_at, id) WHERE failed_at IS NULL;
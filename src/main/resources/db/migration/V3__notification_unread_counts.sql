@@ -0,0 +1,16 @@
+-- Unread notifications per user, behind the unread badge. NotificationUnreadCounter
+-- adds committed changes in batches and reconciles it with notifications nightly.
+CREATE TABLE notification_unread_counts (
+    user_id     UUID         NOT NULL PRIMARY KEY REFERENCES users (id),
+    unread      BIGINT       NOT NULL DEFAULT 0,
+    updated_at  TIMESTAMP(6) NOT NULL
+);
+
+-- NotificationUnreadCounter.reconcile: unread rows grouped by user.
+CREATE INDEX idx_notifications_user_unread ON notifications (user_id) WHERE NOT read;
+
+INSERT INTO notification_unread_counts (user_id, unread, updated_at)
+SELECT user_id, COUNT(*), now()
+FROM notifications
+WHERE NOT read
+GROUP BY user_id;
@@ -0,0 +1,5 @@
+-- Capture time of the current position on the driver's clock, so bulk replays
+-- are compared with it rather than with updated_at, the server write time.
+ALTER TABLE locations ADD COLUMN recorded_at TIMESTAMP(6);
+
+UPDATE locations SET recorded_at = updated_at;
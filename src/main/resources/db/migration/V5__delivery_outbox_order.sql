@@ -0,0 +1,3 @@
+-- DeliveryOutboxRepository.claimDue: looks up older live events of the same
+-- delivery, so a delivery's events are handed out one at a time, in order.
+CREATE INDEX idx_delivery_outbox_delivery ON delivery_outbox (delivery_id, id) WHERE failed_at IS NULL;
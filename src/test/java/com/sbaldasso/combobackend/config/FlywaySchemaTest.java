@@ -0,0 +1,310 @@
+package com.sbaldasso.combobackend.config;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxEvent;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryOutboxRepository;
+import com.sbaldasso.combobackend.modules.location.domain.Location;
+import com.sbaldasso.combobackend.modules.location.service.LocationBatchWriter;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Applies the Flyway migrations to a real PostgreSQL, validates the entity
+ * mappings against them and checks the plans of the hot lookups.
+ */
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=true",
+    "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(LocationBatchWriter.class)
+class FlywaySchemaTest {
+
+  @Container
+  @ServiceConnection
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private DeliveryOutboxRepository deliveryOutboxRepository;
+  @Autowired
+  private LocationBatchWriter locationBatchWriter;
+
+  private UUID customerId;
+  private UUID driverId;
+
+  @BeforeEach
+  void seed() {
+    jdbcTemplate.update("""
+        INSERT INTO users (id, name, email, password, phone, user_type, active, created_at)
+        SELECT gen_random_uuid(), 'user ' || i, 'user' || i || '@example.com', 'secret', '5511999999999',
+               CASE WHEN i % 2 = 0 THEN 'DRIVER' ELSE 'CUSTOMER' END, TRUE, now()
+        FROM generate_series(1, 2000) AS i
+        """);
+    customerId = jdbcTemplate.queryForObject(
+        "SELECT id FROM users WHERE user_type = 'CUSTOMER' LIMIT 1", UUID.class);
+    driverId = jdbcTemplate.queryForObject(
+        "SELECT id FROM users WHERE user_type = 'DRIVER' LIMIT 1", UUID.class);
+
+    jdbcTemplate.update("""
+        INSERT INTO locations (id, driver_id, latitude, longitude, available, created_at, updated_at)
+        SELECT gen_random_uuid(), id, -23.55, -46.63, random() < 0.1, now(), now()
+        FROM users WHERE user_type = 'DRIVER'
+        """);
+
+    // Twenty thousand deliveries spread over the current and previous month,
+    // almost all of them finished.
+    jdbcTemplate.update("""
+        INSERT INTO deliveries (id, customer_id, driver_id, pickup_address, delivery_address, price, status, created_at)
+        SELECT gen_random_uuid(), c.id, d.id, 'pickup', 'drop-off', 25.00,
+               CASE WHEN i % 500 = 0 THEN 'PENDING' ELSE 'DELIVERED' END,
+               date_trunc('month', now()) - INTERVAL '20 days' + (i % 40) * INTERVAL '1 day'
+        FROM generate_series(1, 20000) AS i
+        JOIN LATERAL (SELECT id FROM users WHERE user_type = 'CUSTOMER' OFFSET i % 1000 LIMIT 1) c ON TRUE
+        JOIN LATERAL (SELECT id FROM users WHERE user_type = 'DRIVER' OFFSET i % 1000 LIMIT 1) d ON TRUE
+        """);
+
+    jdbcTemplate.update("""
+        INSERT INTO notifications (id, user_id, title, message, type, read, created_at)
+        SELECT gen_random_uuid(), u.id, 'title', 'message', 'NEW_DELIVERY_REQUEST', FALSE,
+               date_trunc('month', now()) + (i % 20) * INTERVAL '1 hour'
+        FROM generate_series(1, 20000) AS i
+        JOIN LATERAL (SELECT id FROM users OFFSET i % 2000 LIMIT 1) u ON TRUE
+        """);
+
+    jdbcTemplate.execute("ANALYZE");
+  }
+
+  @Test
+  void customerHistoryUsesIndex() {
+    String plan = explain("SELECT * FROM deliveries WHERE customer_id = '" + customerId
+        + "' ORDER BY created_at DESC, id DESC LIMIT 20");
+
+    assertFalse(plan.contains("Seq Scan"), plan);
+    assertTrue(plan.contains("idx_deliveries_customer") || plan.contains("customer_id_created_at"), plan);
+  }
+
+  @Test
+  void driverHistoryUsesIndex() {
+    String plan = explain("SELECT * FROM deliveries WHERE driver_id = '" + driverId
+        + "' ORDER BY created_at DESC, id DESC LIMIT 20");
+
+    assertFalse(plan.contains("Seq Scan"), plan);
+    assertTrue(plan.contains("idx_deliveries_driver_created") || plan.contains("driver_id_created_at"), plan);
+  }
+
+  @Test
+  void engagedDriversUseThePartialIndex() {
+    String plan = explain("SELECT DISTINCT driver_id FROM deliveries"
+        + " WHERE status IN ('DRIVER_ASSIGNED', 'PICKED_UP', 'IN_TRANSIT') AND driver_id IS NOT NULL");
+
+    assertNoSeqScanOnPopulatedPartitions(plan);
+    assertTrue(plan.contains("idx_deliveries_active_driver") || plan.contains("_driver_id_idx"), plan);
+  }
+
+  @Test
+  void idLookupsProbeThePrimaryKeyOfEveryPartition() {
+    UUID deliveryId = jdbcTemplate.queryForObject("SELECT id FROM deliveries LIMIT 1", UUID.class);
+    List<String> lookups = List.of(
+        // findById
+        "SELECT * FROM deliveries WHERE id = '" + deliveryId + "'",
+        // claim
+        "UPDATE deliveries SET driver_id = '" + driverId + "', status = 'DRIVER_ASSIGNED', updated_at = now()"
+            + " WHERE id = '" + deliveryId + "' AND status = 'PENDING'",
+        // EtaEngine.persistDirty
+        "UPDATE deliveries SET estimated_delivery_time = now() WHERE id = '" + deliveryId + "'");
+
+    for (String lookup : lookups) {
+      String plan = explain(lookup);
+
+      // id is not the partition key: nothing is pruned, every partition is
+      // probed, each through its (id, created_at) primary key.
+      for (String partition : partitionsOf("deliveries")) {
+        assertTrue(plan.contains(" on " + partition + " "), partition + " missing from\n" + plan);
+      }
+      assertNoSeqScanOnPopulatedPartitions(plan);
+      assertTrue(plan.contains("_pkey"), plan);
+    }
+  }
+
+  @Test
+  void archiverDeleteIsPrunedToOnePartition() {
+    LocalDate month = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+    String plan = explain("""
+        DELETE FROM deliveries
+         WHERE created_at >= '%1$s' AND created_at < '%2$s'
+           AND id IN (
+             SELECT d.id FROM deliveries d
+              WHERE d.status IN ('DELIVERED', 'CANCELLED')
+                AND d.created_at >= '%1$s' AND d.created_at < '%2$s'
+                AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.delivery_id = d.id)
+                AND NOT EXISTS (SELECT 1 FROM ratings r WHERE r.delivery_id = d.id)
+              ORDER BY d.created_at
+              LIMIT 500
+              FOR UPDATE SKIP LOCKED)
+        """.formatted(month, month.plusMonths(1)));
+
+    assertTrue(plan.contains(partitionName(month)), plan);
+    assertFalse(plan.contains(partitionName(month.plusMonths(1))), plan);
+    assertFalse(plan.contains("deliveries_default"), plan);
+  }
+
+  @Test
+  void deepCustomerCursorSeeksTheIndex() {
+    Map<String, Object> cursor = jdbcTemplate.queryForMap("SELECT created_at, id FROM deliveries WHERE customer_id = '"
+        + customerId + "' ORDER BY created_at DESC, id DESC OFFSET 15 LIMIT 1");
+    String plan = explain("SELECT * FROM deliveries WHERE customer_id = '" + customerId
+        + "' AND (created_at, id) < ('" + cursor.get("created_at") + "', '" + cursor.get("id")
+        + "') ORDER BY created_at DESC, id DESC LIMIT 20");
+
+    // The keyset bound is part of the index condition, not a filter applied
+    // while walking every row before the cursor.
+    assertFalse(plan.contains("Seq Scan"), plan);
+    assertTrue(plan.lines().anyMatch(line -> line.contains("Index Cond") && line.contains("ROW(created_at, id) <")),
+        plan);
+    assertFalse(plan.lines().anyMatch(line -> line.contains("Filter") && line.contains("created_at")), plan);
+  }
+
+  @Test
+  void notificationsOfUserUseIndex() {
+    String plan = explain("SELECT * FROM notifications WHERE user_id = '" + customerId
+        + "' ORDER BY created_at DESC LIMIT 20");
+
+    assertFalse(plan.contains("Seq Scan"), plan);
+  }
+
+  @Test
+  void driverLocationUsesUniqueKey() {
+    String plan = explain("SELECT * FROM locations WHERE driver_id = '" + driverId + "'");
+
+    assertFalse(plan.contains("Seq Scan"), plan);
+  }
+
+  @Test
+  void createdAtRangeIsPrunedToOnePartition() {
+    LocalDate month = LocalDate.now().withDayOfMonth(1);
+    String plan = explain("SELECT count(*) FROM deliveries WHERE created_at >= '" + month
+        + "' AND created_at < '" + month.plusMonths(1) + "'");
+
+    assertTrue(plan.contains(partitionName(month)), plan);
+    assertFalse(plan.contains(partitionName(month.minusMonths(1))), plan);
+    assertFalse(plan.contains("deliveries_default"), plan);
+  }
+
+  @Test
+  void monthlyPartitionsExistAhead() {
+    LocalDate month = LocalDate.now().withDayOfMonth(1);
+    List<String> partitions = partitionsOf("deliveries");
+
+    for (int i = 0; i <= 3; i++) {
+      String expected = partitionName(month.plusMonths(i));
+      assertTrue(partitions.contains(expected), "missing " + expected);
+    }
+    assertEquals(1, partitions.stream().filter("deliveries_default"::equals).count());
+  }
+
+  @Test
+  void outboxClaimsOnlyTheOldestLiveEventOfEachDelivery() {
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    UUID parked = UUID.randomUUID();
+    long firstHead = outboxEvent(first, "ACCEPTED", null);
+    outboxEvent(first, "STATUS_CHANGED", null);
+    long secondHead = outboxEvent(second, "BROADCAST", null);
+    outboxEvent(parked, "ACCEPTED", LocalDateTime.now());
+    long afterParked = outboxEvent(parked, "STATUS_CHANGED", null);
+
+    List<Long> claimed = deliveryOutboxRepository.claimDue(LocalDateTime.now(), 10).stream()
+        .map(DeliveryOutboxEvent::getId)
+        .toList();
+
+    assertEquals(List.of(firstHead, secondHead, afterParked), claimed);
+  }
+
+  @Test
+  void locationUpsertNeverMovesADriverBack() {
+    LocalDateTime now = LocalDateTime.now().withNano(0);
+    UUID newDriverId = jdbcTemplate.queryForObject(
+        "SELECT id FROM users WHERE user_type = 'DRIVER' OFFSET 1 LIMIT 1", UUID.class);
+    jdbcTemplate.update("UPDATE locations SET recorded_at = ? WHERE driver_id = ?", now, driverId);
+    jdbcTemplate.update("DELETE FROM locations WHERE driver_id = ?", newDriverId);
+
+    Set<UUID> written = locationBatchWriter.upsert(List.of(
+        location(driverId, 1.0, now.minusSeconds(5)),
+        location(newDriverId, 2.0, now.minusSeconds(5))));
+
+    assertEquals(Set.of(newDriverId), written);
+    assertEquals(-23.55, jdbcTemplate.queryForObject(
+        "SELECT latitude FROM locations WHERE driver_id = ?", Double.class, driverId));
+
+    assertEquals(Set.of(driverId), locationBatchWriter.upsert(List.of(location(driverId, 3.0, now.plusSeconds(5)))));
+    assertEquals(3.0, jdbcTemplate.queryForObject(
+        "SELECT latitude FROM locations WHERE driver_id = ?", Double.class, driverId));
+  }
+
+  private Location location(UUID driverId, double latitude, LocalDateTime recordedAt) {
+    Location location = new Location();
+    location.setDriver(new User(driverId));
+    location.setLatitude(latitude);
+    location.setLongitude(-46.63);
+    location.setAvailable(true);
+    location.setRecordedAt(recordedAt);
+    location.setUpdatedAt(LocalDateTime.now());
+    return location;
+  }
+
+  private long outboxEvent(UUID deliveryId, String type, LocalDateTime failedAt) {
+    return jdbcTemplate.queryForObject("""
+        INSERT INTO delivery_outbox (delivery_id, type, status, created_at, available_at, failed_at)
+        VALUES (?, ?, 'PENDING', now(), now() - INTERVAL '1 second', ?) RETURNING id
+        """, Long.class, deliveryId, type, failedAt);
+  }
+
+  private List<String> partitionsOf(String table) {
+    return jdbcTemplate.queryForList("""
+        SELECT c.relname FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname = ?
+        """, String.class, table);
+  }
+
+  private static String partitionName(LocalDate month) {
+    return "deliveries_p" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+  }
+
+  // The seeded rows live in the previous and the current month; the empty
+  // partitions ahead may be scanned sequentially at no cost.
+  private static void assertNoSeqScanOnPopulatedPartitions(String plan) {
+    LocalDate month = LocalDate.now().withDayOfMonth(1);
+    assertFalse(plan.contains("Seq Scan on " + partitionName(month) + " "), plan);
+    assertFalse(plan.contains("Seq Scan on " + partitionName(month.minusMonths(1)) + " "), plan);
+  }
+
+  private String explain(String sql) {
+    return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+  }
+}
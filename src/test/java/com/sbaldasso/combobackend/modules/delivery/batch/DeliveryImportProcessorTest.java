@@ -0,0 +1,72 @@
+package com.sbaldasso.combobackend.modules.delivery.batch;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.dto.CreateDeliveryRequest;
+import com.sbaldasso.combobackend.modules.geocoding.domain.GeoPoint;
+import com.sbaldasso.combobackend.modules.geocoding.service.GeocodingService;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeliveryImportProcessorTest {
+  @Mock
+  private GeocodingService geocodingService;
+
+  private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+  private final UUID customerId = UUID.randomUUID();
+  private DeliveryImportProcessor processor;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    processor = new DeliveryImportProcessor(validator, geocodingService, customerId);
+  }
+
+  @Test
+  void process_buildsPendingDeliveryForTheImportingCustomer() {
+    when(geocodingService.geocode("Rua Augusta, 1500")).thenReturn(Optional.of(new GeoPoint(-23.5574, -46.6607)));
+    CreateDeliveryRequest row = row("Rua Augusta, 1500", "Avenida Paulista, 1578", BigDecimal.TEN);
+    row.setDeliveryLatitude(-23.5614);
+    row.setDeliveryLongitude(-46.6559);
+
+    Delivery delivery = processor.process(row);
+
+    assertNotNull(delivery.getId());
+    assertEquals(customerId, delivery.getCustomer().getId());
+    assertEquals(DeliveryStatus.PENDING, delivery.getStatus());
+    assertEquals(-23.5574, delivery.getPickupLatitude());
+    assertEquals(-23.5614, delivery.getDeliveryLatitude());
+    assertNotNull(delivery.getCreatedAt());
+    verify(geocodingService, never()).geocode("Avenida Paulista, 1578");
+  }
+
+  @Test
+  void process_rejectsRowsThatFailRequestConstraints() {
+    CreateDeliveryRequest row = row("Rua Augusta, 1500", " ", BigDecimal.valueOf(-1));
+
+    InvalidImportRowException exception = assertThrows(InvalidImportRowException.class, () -> processor.process(row));
+
+    assertTrue(exception.getMessage().contains("Delivery address is required"));
+    assertTrue(exception.getMessage().contains("Price must be positive"));
+    verifyNoInteractions(geocodingService);
+  }
+
+  private CreateDeliveryRequest row(String pickupAddress, String deliveryAddress, BigDecimal price) {
+    CreateDeliveryRequest row = new CreateDeliveryRequest();
+    row.setPickupAddress(pickupAddress);
+    row.setDeliveryAddress(deliveryAddress);
+    row.setPrice(price);
+    return row;
+  }
+}
@@ -0,0 +1,108 @@
+package com.sbaldasso.combobackend.modules.delivery.batch;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxType;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryEventLog;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryOutbox;
+import com.sbaldasso.combobackend.modules.dispatch.service.DispatchEngine;
+import com.sbaldasso.combobackend.modules.heatmap.service.HeatmapService;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.batch.item.Chunk;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+class DeliveryImportWriterTest {
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private DeliveryEventLog deliveryEventLog;
+  @Mock
+  private HeatmapService heatmapService;
+  @Mock
+  private DispatchEngine dispatchEngine;
+  @Mock
+  private DeliveryOutbox deliveryOutbox;
+  @InjectMocks
+  private DeliveryImportWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  void write_insertsDeliveriesAndEventsInOneBatchEach() {
+    writer.write(new Chunk<>(delivery(), delivery(), delivery()));
+
+    verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO deliveries"), argThat(items -> items.size() == 3),
+        eq(3), any(ParameterizedPreparedStatementSetter.class));
+    verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO delivery_events"), argThat(items -> items.size() == 3),
+        eq(3), any(ParameterizedPreparedStatementSetter.class));
+    verify(dispatchEngine, never()).submit(any());
+    verifyNoInteractions(heatmapService);
+  }
+
+  @Test
+  void write_queuesABroadcastForDeliveriesTheEngineCannotTake() {
+    Delivery dispatched = delivery();
+    Delivery broadcast = delivery();
+    when(dispatchEngine.canDispatch(dispatched)).thenReturn(true);
+
+    writer.write(new Chunk<>(dispatched, broadcast));
+
+    verify(deliveryOutbox).appendAll(List.of(broadcast), DeliveryOutboxType.BROADCAST);
+  }
+
+  @Test
+  void afterChunk_handsEachDeliveryToTheHeatmapAndTheEngineOnce() {
+    Delivery first = delivery();
+    Delivery second = delivery();
+    writer.write(new Chunk<>(first, second));
+
+    writer.afterChunk(null);
+    writer.afterChunk(null);
+
+    verify(heatmapService).demandOpened(first);
+    verify(heatmapService).demandOpened(second);
+    verify(dispatchEngine, times(1)).submit(first);
+    verify(dispatchEngine, times(1)).submit(second);
+  }
+
+  @Test
+  void afterChunkError_announcesNothing() {
+    writer.write(new Chunk<>(delivery()));
+
+    writer.afterChunkError(null);
+    writer.afterChunk(null);
+
+    verifyNoInteractions(heatmapService);
+    verify(dispatchEngine, never()).submit(any());
+  }
+
+  private Delivery delivery() {
+    LocalDateTime now = LocalDateTime.now();
+    Delivery delivery = new Delivery();
+    delivery.setId(UUID.randomUUID());
+    delivery.setCustomer(new User(UUID.randomUUID()));
+    delivery.setPickupAddress("Rua A, 1");
+    delivery.setDeliveryAddress("Rua B, 2");
+    delivery.setPrice(BigDecimal.TEN);
+    delivery.setStatus(DeliveryStatus.PENDING);
+    delivery.setCreatedAt(now);
+    delivery.setUpdatedAt(now);
+    return delivery;
+  }
+}
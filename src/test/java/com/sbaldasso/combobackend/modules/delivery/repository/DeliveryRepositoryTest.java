@@ -1,23 +1,257 @@
 package com.sbaldasso.combobackend.modules.delivery.repository;
 
 import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryResponse;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliverySearchCriteria;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryArchiver;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryEventLog;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryOutbox;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryService;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryStreamRegistry;
+import com.sbaldasso.combobackend.modules.delivery.service.EtaEngine;
+import com.sbaldasso.combobackend.modules.dispatch.service.DispatchEngine;
+import com.sbaldasso.combobackend.modules.geocoding.service.GeocodingService;
+import com.sbaldasso.combobackend.modules.heatmap.service.HeatmapService;
+import com.sbaldasso.combobackend.modules.location.domain.Location;
+import com.sbaldasso.combobackend.modules.location.repository.LocationRepository;
+import com.sbaldasso.combobackend.modules.location.service.DriverLivenessTracker;
+import com.sbaldasso.combobackend.modules.location.service.DriverSpatialIndex;
+import com.sbaldasso.combobackend.modules.location.service.LocationHistoryStore;
+import com.sbaldasso.combobackend.modules.location.service.LocationService;
+import com.sbaldasso.combobackend.modules.location.service.LocationServiceImpl;
+import com.sbaldasso.combobackend.modules.location.service.LocationUpdateFilter;
+import com.sbaldasso.combobackend.modules.location.service.LocationWriteBuffer;
+import com.sbaldasso.combobackend.modules.notification.service.WebSocketService;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import com.sbaldasso.combobackend.modules.user.domain.UserType;
+import com.sbaldasso.combobackend.modules.user.repository.UserRepository;
+import com.sbaldasso.combobackend.modules.user.service.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class DeliveryRepositoryTest {
+  private static final int DRIVERS = 200;
+
   @Autowired
   private DeliveryRepository deliveryRepository;
+  @Autowired
+  private UserRepository userRepository;
+  @Autowired
+  private LocationRepository locationRepository;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+  @Autowired
+  private TestEntityManager entityManager;
 
   @Test
   void findById_returnsEmptyIfNotFound() {
     Optional<Delivery> delivery = deliveryRepository.findById(UUID.randomUUID());
     assertTrue(delivery.isEmpty());
   }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void claim_hasExactlyOneWinnerUnderConcurrentAccepts() throws Exception {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    User customer = userRepository.save(user(UserType.CUSTOMER, "customer"));
+    List<User> drivers = new ArrayList<>();
+    for (int i = 0; i < DRIVERS; i++) {
+      drivers.add(userRepository.save(user(UserType.DRIVER, "driver" + i)));
+    }
+    Delivery delivery = deliveryRepository.save(pendingDelivery(customer));
+
+    ExecutorService executor = Executors.newFixedThreadPool(32);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (User driver : drivers) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return transactionTemplate.execute(status ->
+              deliveryRepository.claim(delivery.getId(), driver, LocalDateTime.now()));
+        }));
+      }
+      start.countDown();
+
+      int winners = 0;
+      for (Future<Integer> result : results) {
+        winners += result.get(30, TimeUnit.SECONDS);
+      }
+
+      Delivery claimed = deliveryRepository.findById(delivery.getId()).orElseThrow();
+      assertEquals(1, winners);
+      assertEquals(DeliveryStatus.DRIVER_ASSIGNED, claimed.getStatus());
+      assertNotNull(claimed.getDriver());
+    } finally {
+      executor.shutdownNow();
+      deliveryRepository.deleteById(delivery.getId());
+      userRepository.deleteAll(drivers);
+      userRepository.delete(customer);
+    }
+  }
+
+  @Test
+  void deliveryPageWithDriverLocations_usesConstantNumberOfQueries() {
+    User customer = userRepository.save(user(UserType.CUSTOMER, "customer"));
+    for (int i = 0; i < 30; i++) {
+      User driver = userRepository.save(user(UserType.DRIVER, "driver" + i));
+      Delivery delivery = pendingDelivery(customer);
+      delivery.setDriver(driver);
+      deliveryRepository.save(delivery);
+      Location location = new Location();
+      location.setDriver(driver);
+      location.setLatitude(-23.55);
+      location.setLongitude(-46.63);
+      locationRepository.save(location);
+    }
+    entityManager.flush();
+
+    assertEquals(statementsForPage(customer, 5), statementsForPage(customer, 25));
+  }
+
+  @Test
+  void scrollByCustomerId_visitsEveryDeliveryOnceNewestFirst() {
+    User customer = userRepository.save(user(UserType.CUSTOMER, "customer"));
+    for (int i = 0; i < 30; i++) {
+      deliveryRepository.save(pendingDelivery(customer));
+    }
+    entityManager.flush();
+    // Cursors must come from values read back from the database, not from
+    // cached entities holding createdAt with more precision than the column.
+    entityManager.clear();
+
+    List<Delivery> seen = new ArrayList<>();
+    List<Delivery> page = deliveryRepository.scrollByCustomerId(customer.getId(), Limit.of(7));
+    while (!page.isEmpty()) {
+      seen.addAll(page);
+      Delivery last = page.get(page.size() - 1);
+      page = deliveryRepository.scrollByCustomerIdBefore(customer.getId(), last.getCreatedAt(), last.getId(),
+          Limit.of(7));
+    }
+
+    assertEquals(30, seen.size());
+    assertEquals(30, seen.stream().map(Delivery::getId).distinct().count());
+    for (int i = 1; i < seen.size(); i++) {
+      assertFalse(seen.get(i).getCreatedAt().isAfter(seen.get(i - 1).getCreatedAt()));
+    }
+  }
+
+  @Test
+  void findBy_searchAppliesOnlyTheGivenFiltersAcrossPages() {
+    User customer = userRepository.save(user(UserType.CUSTOMER, "customer"));
+    User other = userRepository.save(user(UserType.CUSTOMER, "other"));
+    for (int i = 0; i < 20; i++) {
+      Delivery delivery = pendingDelivery(i % 4 == 0 ? other : customer);
+      delivery.setPrice(BigDecimal.valueOf(5 + i));
+      delivery.setStatus(i % 2 == 0 ? DeliveryStatus.PENDING : DeliveryStatus.CANCELLED);
+      deliveryRepository.save(delivery);
+    }
+    entityManager.flush();
+    // See scrollByCustomerId_visitsEveryDeliveryOnceNewestFirst.
+    entityManager.clear();
+    DeliverySearchCriteria criteria = new DeliverySearchCriteria();
+    criteria.setCustomerId(customer.getId());
+    criteria.setStatus(DeliveryStatus.PENDING);
+    criteria.setMinPrice(BigDecimal.valueOf(10));
+    Sort order = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    List<Delivery> seen = new ArrayList<>();
+    ScrollPosition position = ScrollPosition.keyset();
+    Window<Delivery> window;
+    do {
+      ScrollPosition from = position;
+      window = deliveryRepository.findBy(DeliverySpecifications.matching(criteria),
+          query -> query.sortBy(order).limit(2).scroll(from));
+      seen.addAll(window.getContent());
+      if (!window.isEmpty()) {
+        position = window.positionAt(window.size() - 1);
+      }
+    } while (window.hasNext());
+
+    // Prices 5 + i for even i not divisible by 4, at least 10: i = 6, 10, 14, 18.
+    assertEquals(4, seen.size());
+    assertTrue(seen.stream().allMatch(delivery -> delivery.getCustomer().getId().equals(customer.getId())
+        && delivery.getStatus() == DeliveryStatus.PENDING
+        && delivery.getPrice().compareTo(BigDecimal.TEN) >= 0));
+  }
+
+  // Through the service, as the controller pages: the deliveries with their
+  // customer and driver, then one lookup for all the drivers' locations.
+  private long statementsForPage(User customer, int size) {
+    UserService userService = mock(UserService.class);
+    when(userService.validateAndGetUser(customer.getId())).thenReturn(customer);
+    LocationWriteBuffer locationWriteBuffer = mock(LocationWriteBuffer.class);
+    LocationService locationService = new LocationServiceImpl(locationRepository, userService,
+        mock(WebSocketService.class), mock(DriverSpatialIndex.class), locationWriteBuffer,
+        mock(LocationHistoryStore.class), mock(LocationUpdateFilter.class), mock(DriverLivenessTracker.class),
+        new TransactionTemplate(transactionManager), mock(ApplicationEventPublisher.class));
+    DeliveryService deliveryService = new DeliveryService(deliveryRepository, userService, locationService,
+        mock(DeliveryOutbox.class), mock(HeatmapService.class), mock(DispatchEngine.class),
+        mock(DeliveryEventLog.class), mock(EtaEngine.class), mock(GeocodingService.class),
+        mock(DeliveryArchiver.class), mock(DeliveryStreamRegistry.class));
+
+    entityManager.clear();
+    Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    Page<DeliveryResponse> page = deliveryService.getDeliveriesForUser(customer.getId(), PageRequest.of(0, size));
+    assertEquals(size, page.getNumberOfElements());
+    assertTrue(page.stream().allMatch(delivery -> delivery.getDriverLatitude() != null));
+
+    return statistics.getPrepareStatementCount();
+  }
+
+  private User user(UserType type, String name) {
+    User user = new User();
+    user.setName(name);
+    user.setEmail(name + "-" + UUID.randomUUID() + "@example.com");
+    user.setPassword("secret");
+    user.setPhone("5511999999999");
+    user.setUserType(type);
+    return user;
+  }
+
+  private Delivery pendingDelivery(User customer) {
+    Delivery delivery = new Delivery();
+    delivery.setCustomer(customer);
+    delivery.setPickupAddress("Rua A, 1");
+    delivery.setDeliveryAddress("Rua B, 2");
+    delivery.setPrice(BigDecimal.TEN);
+    delivery.setStatus(DeliveryStatus.PENDING);
+    return delivery;
+  }
 }
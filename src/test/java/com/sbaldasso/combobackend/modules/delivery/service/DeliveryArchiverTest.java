@@ -0,0 +1,89 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.config.DeliveryConfig;
+import com.sbaldasso.combobackend.modules.delivery.domain.ArchivedDelivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.repository.ArchivedDeliveryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeliveryArchiverTest {
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private ArchivedDeliveryRepository archivedDeliveryRepository;
+
+  private DeliveryConfig config;
+  private DeliveryArchiver archiver;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    config = new DeliveryConfig();
+    config.getArchive().setChunkSize(2);
+    config.getArchive().setPauseMillis(0);
+    archiver = new DeliveryArchiver(jdbcTemplate, archivedDeliveryRepository, config);
+  }
+
+  @Test
+  void archive_movesChunksUntilAWindowIsDrained() {
+    oldestFinishedDelivery(LocalDateTime.now().minusDays(config.getArchive().getRetentionDays() + 1));
+    when(jdbcTemplate.update(startsWith("WITH moved"), any(), any(), any(), any(), any(), any())).thenReturn(2, 2, 1, 0);
+
+    archiver.archive();
+
+    verify(jdbcTemplate, atLeast(3)).update(startsWith("WITH moved"), any(), any(), any(), any(), eq(2), any());
+    verify(jdbcTemplate, atMost(4)).update(startsWith("WITH moved"), any(), any(), any(), any(), eq(2), any());
+  }
+
+  @Test
+  void archive_stopsAtTheChunkBudget() {
+    config.getArchive().setMaxChunksPerRun(5);
+    oldestFinishedDelivery(LocalDateTime.now().minusYears(2));
+    when(jdbcTemplate.update(startsWith("WITH moved"), any(), any(), any(), any(), any(), any())).thenReturn(2);
+
+    archiver.archive();
+
+    verify(jdbcTemplate, times(5)).update(startsWith("WITH moved"), any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void archive_doesNothingWithoutFinishedDeliveriesPastRetention() {
+    oldestFinishedDelivery(null);
+
+    archiver.archive();
+
+    verify(jdbcTemplate, never()).update(anyString(), any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void findArchived_restoresTheDeliveryShape() {
+    ArchivedDelivery archived = new ArchivedDelivery();
+    archived.setId(UUID.randomUUID());
+    archived.setCustomerId(UUID.randomUUID());
+    archived.setStatus(DeliveryStatus.CANCELLED);
+    when(archivedDeliveryRepository.findById(archived.getId())).thenReturn(Optional.of(archived));
+
+    Delivery delivery = archiver.findArchived(archived.getId()).orElseThrow();
+
+    assertEquals(archived.getCustomerId(), delivery.getCustomer().getId());
+    assertNull(delivery.getDriver());
+    assertEquals(DeliveryStatus.CANCELLED, delivery.getStatus());
+  }
+
+  private void oldestFinishedDelivery(LocalDateTime createdAt) {
+    when(jdbcTemplate.queryForObject(startsWith("SELECT MIN(created_at)"), eq(LocalDateTime.class), any()))
+        .thenReturn(createdAt);
+  }
+}
@@ -0,0 +1,39 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryCursorCodecTest {
+
+  @Test
+  void decode_roundTripsEncodedKeyset() {
+    Map<String, Object> keys = new LinkedHashMap<>();
+    keys.put("createdAt", LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000));
+    keys.put("id", UUID.randomUUID());
+
+    String cursor = DeliveryCursorCodec.encode(ScrollPosition.forward(keys));
+    KeysetScrollPosition decoded = (KeysetScrollPosition) DeliveryCursorCodec.decode(cursor);
+
+    assertEquals(keys, decoded.getKeys());
+    assertFalse(cursor.contains("|"));
+  }
+
+  @Test
+  void decode_startsFromTheBeginningWithoutCursor() {
+    assertTrue(DeliveryCursorCodec.decode(null).isInitial());
+  }
+
+  @Test
+  void decode_rejectsTamperedCursor() {
+    assertThrows(InvalidCursorException.class, () -> DeliveryCursorCodec.decode("not-a-cursor"));
+  }
+}
@@ -0,0 +1,88 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryEvent;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryEventRepository;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeliveryEventLogTest {
+  @Mock
+  private DeliveryEventRepository deliveryEventRepository;
+
+  private DeliveryEventLog deliveryEventLog;
+  private final List<DeliveryEvent> stored = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    deliveryEventLog = new DeliveryEventLog(deliveryEventRepository, new ObjectMapper());
+    when(deliveryEventRepository.save(any(DeliveryEvent.class))).thenAnswer(invocation -> {
+      DeliveryEvent event = invocation.getArgument(0);
+      event.setId((long) stored.size() + 1);
+      stored.add(event);
+      return event;
+    });
+    when(deliveryEventRepository.findByDeliveryIdOrderByIdAsc(any())).thenAnswer(invocation -> stored);
+  }
+
+  @Test
+  void replay_rebuildsCurrentStateFromEvents() {
+    UUID deliveryId = UUID.randomUUID();
+    UUID customerId = UUID.randomUUID();
+    UUID driverId = UUID.randomUUID();
+    LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 10, 0);
+    Delivery delivery = new Delivery();
+    delivery.setId(deliveryId);
+    delivery.setCustomer(new User(customerId));
+    delivery.setPickupAddress("Rua A, 1");
+    delivery.setDeliveryAddress("Rua B, 2");
+    delivery.setPickupLatitude(-23.55);
+    delivery.setPrice(new BigDecimal("12.30"));
+    delivery.setStatus(DeliveryStatus.PENDING);
+
+    deliveryEventLog.recordCreated(delivery, createdAt);
+    deliveryEventLog.recordTransition(deliveryId, DeliveryStatus.PENDING, DeliveryStatus.DRIVER_ASSIGNED,
+        driverId, createdAt.plusMinutes(1));
+    deliveryEventLog.recordTransition(deliveryId, DeliveryStatus.DRIVER_ASSIGNED, DeliveryStatus.PICKED_UP,
+        driverId, createdAt.plusMinutes(10));
+    deliveryEventLog.recordTransition(deliveryId, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT,
+        driverId, createdAt.plusMinutes(11));
+
+    Delivery replayed = deliveryEventLog.replay(deliveryId);
+
+    assertEquals(DeliveryStatus.IN_TRANSIT, replayed.getStatus());
+    assertEquals(customerId, replayed.getCustomer().getId());
+    assertEquals(driverId, replayed.getDriver().getId());
+    assertEquals("Rua A, 1", replayed.getPickupAddress());
+    assertEquals(-23.55, replayed.getPickupLatitude());
+    assertNull(replayed.getPickupLongitude());
+    assertEquals(new BigDecimal("12.30"), replayed.getPrice());
+    assertEquals(createdAt, replayed.getCreatedAt());
+    assertEquals(createdAt.plusMinutes(10), replayed.getPickedUpAt());
+    assertEquals(createdAt.plusMinutes(11), replayed.getUpdatedAt());
+  }
+
+  @Test
+  void replay_rejectsOutOfOrderEvents() {
+    UUID deliveryId = UUID.randomUUID();
+    deliveryEventLog.recordTransition(deliveryId, DeliveryStatus.PENDING, DeliveryStatus.DRIVER_ASSIGNED,
+        UUID.randomUUID(), LocalDateTime.now());
+
+    assertThrows(IllegalStateException.class, () -> deliveryEventLog.replay(deliveryId));
+  }
+}
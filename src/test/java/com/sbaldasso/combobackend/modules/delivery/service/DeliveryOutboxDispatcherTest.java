@@ -0,0 +1,207 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.config.DeliveryConfig;
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxEvent;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxType;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryStatusUpdate;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryOutboxRepository;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryRepository;
+import com.sbaldasso.combobackend.modules.notification.service.NotificationService;
+import com.sbaldasso.combobackend.modules.notification.service.WebSocketService;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeliveryOutboxDispatcherTest {
+  @Mock
+  private DeliveryOutboxRepository deliveryOutboxRepository;
+  @Mock
+  private DeliveryRepository deliveryRepository;
+  @Mock
+  private NotificationService notificationService;
+  @Mock
+  private WebSocketService webSocketService;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private DeliveryOutboxDispatcher dispatcher;
+  private final DeliveryConfig config = new DeliveryConfig();
+  private final UUID customerId = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    config.getOutbox().setBatchSize(2);
+    config.getOutbox().setMaxAttempts(3);
+    dispatcher = new DeliveryOutboxDispatcher(deliveryOutboxRepository, deliveryRepository, notificationService,
+        webSocketService, transactionManager, config);
+  }
+
+  @Test
+  void dispatchBatch_notifiesWithTheRecordedStatusAndDeletesDeliveredEvents() {
+    Delivery delivery = delivery(DeliveryStatus.DELIVERED);
+    DeliveryOutboxEvent event = event(delivery.getId(), DeliveryOutboxType.STATUS_CHANGED, DeliveryStatus.PICKED_UP);
+    when(deliveryOutboxRepository.claimDue(any(), eq(2))).thenReturn(List.of(event));
+    when(deliveryRepository.findById(delivery.getId())).thenReturn(Optional.of(delivery));
+
+    assertEquals(1, dispatcher.dispatchBatch());
+
+    verify(notificationService).notifyDeliveryStatusUpdate(argThat(d -> d.getStatus() == DeliveryStatus.PICKED_UP));
+    verify(webSocketService).sendDeliveryStatus(eq(customerId.toString()),
+        argThat(update -> ((DeliveryStatusUpdate) update).getStatus() == DeliveryStatus.PICKED_UP));
+    verify(deliveryOutboxRepository).deleteAllInBatch(List.of(event));
+    assertEquals(DeliveryStatus.DELIVERED, delivery.getStatus());
+  }
+
+  @Test
+  void dispatchBatch_backsOffFailedEvents() {
+    Delivery delivery = delivery(DeliveryStatus.DRIVER_ASSIGNED);
+    DeliveryOutboxEvent failing = event(delivery.getId(), DeliveryOutboxType.ACCEPTED, DeliveryStatus.DRIVER_ASSIGNED);
+    Delivery pending = delivery(DeliveryStatus.PENDING);
+    DeliveryOutboxEvent broadcast = event(pending.getId(), DeliveryOutboxType.BROADCAST, DeliveryStatus.PENDING);
+    when(deliveryOutboxRepository.claimDue(any(), eq(2))).thenReturn(List.of(failing, broadcast));
+    when(deliveryRepository.findById(delivery.getId())).thenReturn(Optional.of(delivery));
+    when(deliveryRepository.findById(pending.getId())).thenReturn(Optional.of(pending));
+    doThrow(new IllegalStateException("database unavailable")).when(notificationService).notifyDeliveryAccepted(any());
+
+    LocalDateTime before = LocalDateTime.now();
+    dispatcher.dispatchBatch();
+
+    assertEquals(1, failing.getAttempts());
+    assertTrue(failing.getAvailableAt().isAfter(before));
+    assertNull(failing.getFailedAt());
+    assertTrue(failing.getLastError().contains("database unavailable"));
+    verify(notificationService).notifyNearbyDrivers(any(Delivery.class));
+    verify(deliveryOutboxRepository).deleteAllInBatch(List.of(broadcast));
+  }
+
+  @Test
+  void dispatchBatch_fansOutTheBroadcastsOfABatchTogether() {
+    Delivery first = delivery(DeliveryStatus.PENDING);
+    Delivery second = delivery(DeliveryStatus.PENDING);
+    DeliveryOutboxEvent firstBroadcast = event(first.getId(), DeliveryOutboxType.BROADCAST, DeliveryStatus.PENDING);
+    DeliveryOutboxEvent secondBroadcast = event(second.getId(), DeliveryOutboxType.BROADCAST, DeliveryStatus.PENDING);
+    when(deliveryOutboxRepository.claimDue(any(), eq(2))).thenReturn(List.of(firstBroadcast, secondBroadcast));
+    when(deliveryRepository.findAllById(List.of(first.getId(), second.getId()))).thenReturn(List.of(first, second));
+
+    dispatcher.dispatchBatch();
+
+    verify(notificationService).notifyNearbyDrivers(argThat((List<Delivery> deliveries) -> deliveries.size() == 2));
+    verify(notificationService, never()).notifyNearbyDrivers(any(Delivery.class));
+    verify(deliveryOutboxRepository).deleteAllInBatch(List.of(firstBroadcast, secondBroadcast));
+  }
+
+  @Test
+  void dispatchBatch_retriesBroadcastsOneByOneWhenTheBatchFails() {
+    Delivery first = delivery(DeliveryStatus.PENDING);
+    Delivery second = delivery(DeliveryStatus.PENDING);
+    DeliveryOutboxEvent firstBroadcast = event(first.getId(), DeliveryOutboxType.BROADCAST, DeliveryStatus.PENDING);
+    DeliveryOutboxEvent secondBroadcast = event(second.getId(), DeliveryOutboxType.BROADCAST, DeliveryStatus.PENDING);
+    when(deliveryOutboxRepository.claimDue(any(), eq(2))).thenReturn(List.of(firstBroadcast, secondBroadcast));
+    when(deliveryRepository.findAllById(any())).thenReturn(List.of(first, second));
+    when(deliveryRepository.findById(first.getId())).thenReturn(Optional.of(first));
+    when(deliveryRepository.findById(second.getId())).thenReturn(Optional.of(second));
+    doThrow(new IllegalStateException("boom")).when(notificationService).notifyNearbyDrivers(anyList());
+    doThrow(new IllegalStateException("boom")).when(notificationService)
+        .notifyNearbyDrivers(argThat((Delivery delivery) -> delivery.getId().equals(first.getId())));
+
+    dispatcher.dispatchBatch();
+
+    assertEquals(1, firstBroadcast.getAttempts());
+    assertEquals(0, secondBroadcast.getAttempts());
+    verify(deliveryOutboxRepository).deleteAllInBatch(List.of(secondBroadcast));
+  }
+
+  @Test
+  void dispatchBatch_dropsBroadcastsOfDeliveriesNoLongerPending() {
+    Delivery delivery = delivery(DeliveryStatus.DRIVER_ASSIGNED);
+    DeliveryOutboxEvent broadcast = event(delivery.getId(), DeliveryOutboxType.BROADCAST, DeliveryStatus.PENDING);
+    when(deliveryOutboxRepository.claimDue(any(), eq(2))).thenReturn(List.of(broadcast));
+    when(deliveryRepository.findById(delivery.getId())).thenReturn(Optional.of(delivery));
+
+    dispatcher.dispatchBatch();
+
+    verify(notificationService, never()).notifyNearbyDrivers(any(Delivery.class));
+    verify(deliveryOutboxRepository).deleteAllInBatch(List.of(broadcast));
+  }
+
+  @Test
+  void dispatchBatch_retriesEventsWhosePushFailed() {
+    Delivery delivery = delivery(DeliveryStatus.DRIVER_ASSIGNED);
+    DeliveryOutboxEvent event = event(delivery.getId(), DeliveryOutboxType.ACCEPTED, DeliveryStatus.DRIVER_ASSIGNED);
+    when(deliveryOutboxRepository.claimDue(any(), eq(2))).thenReturn(List.of(event));
+    when(deliveryRepository.findById(delivery.getId())).thenReturn(Optional.of(delivery));
+    doThrow(new IllegalStateException("broker unavailable")).when(webSocketService).sendDeliveryStatus(any(), any());
+
+    dispatcher.dispatchBatch();
+
+    assertEquals(1, event.getAttempts());
+    assertTrue(event.getLastError().contains("broker unavailable"));
+    verify(deliveryOutboxRepository, never()).deleteAllInBatch(any());
+  }
+
+  @Test
+  void dispatchBatch_parksEventsAfterMaxAttempts() {
+    Delivery delivery = delivery(DeliveryStatus.DRIVER_ASSIGNED);
+    DeliveryOutboxEvent failing = event(delivery.getId(), DeliveryOutboxType.ACCEPTED, DeliveryStatus.DRIVER_ASSIGNED);
+    failing.setAttempts(2);
+    when(deliveryOutboxRepository.claimDue(any(), eq(2))).thenReturn(List.of(failing));
+    when(deliveryRepository.findById(delivery.getId())).thenReturn(Optional.of(delivery));
+    doThrow(new IllegalStateException("boom")).when(notificationService).notifyDeliveryAccepted(any());
+
+    dispatcher.dispatchBatch();
+
+    assertEquals(3, failing.getAttempts());
+    assertNotNull(failing.getFailedAt());
+    verify(deliveryOutboxRepository, never()).deleteAllInBatch(any());
+  }
+
+  @Test
+  void dispatch_keepsClaimingWhileBatchesAreFull() {
+    UUID deliveryId = UUID.randomUUID();
+    when(deliveryOutboxRepository.claimDue(any(), eq(2)))
+        .thenReturn(List.of(event(deliveryId, DeliveryOutboxType.BROADCAST, DeliveryStatus.PENDING),
+            event(deliveryId, DeliveryOutboxType.BROADCAST, DeliveryStatus.PENDING)))
+        .thenReturn(List.of(event(deliveryId, DeliveryOutboxType.BROADCAST, DeliveryStatus.PENDING)));
+    when(deliveryRepository.findById(deliveryId)).thenReturn(Optional.empty());
+
+    dispatcher.dispatch();
+
+    verify(deliveryOutboxRepository, times(2)).claimDue(any(), eq(2));
+    verifyNoInteractions(notificationService);
+  }
+
+  private Delivery delivery(DeliveryStatus status) {
+    Delivery delivery = new Delivery();
+    delivery.setId(UUID.randomUUID());
+    delivery.setCustomer(new User(customerId));
+    delivery.setPickupAddress("Rua Augusta, 1500");
+    delivery.setStatus(status);
+    return delivery;
+  }
+
+  private DeliveryOutboxEvent event(UUID deliveryId, DeliveryOutboxType type, DeliveryStatus status) {
+    DeliveryOutboxEvent event = new DeliveryOutboxEvent();
+    event.setDeliveryId(deliveryId);
+    event.setType(type);
+    event.setStatus(status);
+    event.setCreatedAt(LocalDateTime.now());
+    event.setAvailableAt(LocalDateTime.now());
+    return event;
+  }
+}
@@ -1,26 +1,49 @@
 package com.sbaldasso.combobackend.modules.delivery.service;
 
 import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryEvent;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxType;
 import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
 import com.sbaldasso.combobackend.modules.delivery.dto.CreateDeliveryRequest;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryCursorPage;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryEventResponse;
 import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryResponse;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliverySearchCriteria;
+import com.sbaldasso.combobackend.modules.delivery.exception.DeliveryAlreadyClaimedException;
+import com.sbaldasso.combobackend.modules.delivery.exception.InvalidSearchCriteriaException;
 import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryRepository;
+import com.sbaldasso.combobackend.modules.dispatch.service.DispatchEngine;
+import com.sbaldasso.combobackend.modules.geocoding.domain.GeoPoint;
+import com.sbaldasso.combobackend.modules.geocoding.service.GeocodingService;
+import com.sbaldasso.combobackend.modules.heatmap.service.HeatmapService;
+import com.sbaldasso.combobackend.modules.location.domain.Location;
 import com.sbaldasso.combobackend.modules.location.service.LocationService;
-import com.sbaldasso.combobackend.modules.notification.service.NotificationService;
 import com.sbaldasso.combobackend.modules.user.domain.User;
 import com.sbaldasso.combobackend.modules.user.domain.UserType;
 import com.sbaldasso.combobackend.modules.user.service.UserService;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,13 +57,28 @@ class DeliveryServiceTest {
   @Mock
   private LocationService locationService;
   @Mock
-  private NotificationService notificationService;
+  private DeliveryOutbox deliveryOutbox;
+  @Mock
+  private HeatmapService heatmapService;
+  @Mock
+  private DispatchEngine dispatchEngine;
+  @Mock
+  private DeliveryEventLog deliveryEventLog;
+  @Mock
+  private EtaEngine etaEngine;
+  @Mock
+  private GeocodingService geocodingService;
+  @Mock
+  private DeliveryArchiver deliveryArchiver;
+  @Mock
+  private DeliveryStreamRegistry deliveryStreamRegistry;
   @InjectMocks
   private DeliveryService deliveryService;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    when(etaEngine.currentEta(any())).thenReturn(Optional.empty());
   }
 
   @Test
@@ -56,6 +94,217 @@ class DeliveryServiceTest {
     DeliveryResponse response = deliveryService.createDelivery(customerId, request);
     assertNotNull(response);
     verify(deliveryRepository).save(any(Delivery.class));
+    verify(heatmapService).demandOpened(delivery);
+    verify(deliveryOutbox).append(delivery, DeliveryOutboxType.BROADCAST);
+  }
+
+  @Test
+  void createDelivery_dispatchedDeliveryIsNotBroadcast() {
+    UUID customerId = UUID.randomUUID();
+    User customer = new User();
+    customer.setId(customerId);
+    when(userService.validateAndGetUser(customerId, UserType.CUSTOMER)).thenReturn(customer);
+    Delivery delivery = new Delivery();
+    delivery.setCustomer(customer);
+    when(deliveryRepository.save(any(Delivery.class))).thenReturn(delivery);
+    when(dispatchEngine.canDispatch(delivery)).thenReturn(true);
+    deliveryService.createDelivery(customerId, new CreateDeliveryRequest());
+    verify(deliveryOutbox, never()).append(any(), eq(DeliveryOutboxType.BROADCAST));
+    verify(dispatchEngine).submit(delivery);
+  }
+
+  @Test
+  void createDelivery_feedsTheDispatchEngineAndHeatmapOnlyAfterCommit() {
+    UUID customerId = UUID.randomUUID();
+    User customer = new User(customerId);
+    when(userService.validateAndGetUser(customerId, UserType.CUSTOMER)).thenReturn(customer);
+    Delivery delivery = new Delivery();
+    delivery.setCustomer(customer);
+    when(deliveryRepository.save(any(Delivery.class))).thenReturn(delivery);
+    when(dispatchEngine.canDispatch(delivery)).thenReturn(true);
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      deliveryService.createDelivery(customerId, new CreateDeliveryRequest());
+      verify(dispatchEngine, never()).submit(any());
+      verify(heatmapService, never()).demandOpened(any());
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+      verify(dispatchEngine).submit(delivery);
+      verify(heatmapService).demandOpened(delivery);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void createDelivery_geocodesAddressesWithoutCoordinates() {
+    UUID customerId = UUID.randomUUID();
+    User customer = new User(customerId);
+    when(userService.validateAndGetUser(customerId, UserType.CUSTOMER)).thenReturn(customer);
+    when(deliveryRepository.save(any(Delivery.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(geocodingService.geocode("Rua Augusta, 1500")).thenReturn(Optional.of(new GeoPoint(-23.5574, -46.6607)));
+    CreateDeliveryRequest request = new CreateDeliveryRequest();
+    request.setPickupAddress("Rua Augusta, 1500");
+    request.setDeliveryAddress("Avenida Paulista, 1578");
+    request.setDeliveryLatitude(-23.5614);
+    request.setDeliveryLongitude(-46.6559);
+    DeliveryResponse response = deliveryService.createDelivery(customerId, request);
+    assertEquals(-23.5574, response.getPickupLatitude());
+    assertEquals(-46.6607, response.getPickupLongitude());
+    assertEquals(-23.5614, response.getDeliveryLatitude());
+    verify(geocodingService, never()).geocode("Avenida Paulista, 1578");
+  }
+
+  @Test
+  void searchDeliveries_rejectsInvertedRanges() {
+    DeliverySearchCriteria criteria = new DeliverySearchCriteria();
+    criteria.setMinPrice(BigDecimal.TEN);
+    criteria.setMaxPrice(BigDecimal.ONE);
+    assertThrows(InvalidSearchCriteriaException.class, () -> deliveryService.searchDeliveries(criteria, null, 20));
+    verify(deliveryRepository, never()).findBy(any(Specification.class), any());
+  }
+
+  @Test
+  void getDeliveryResponseById_fallsBackToTheArchive() {
+    UUID deliveryId = UUID.randomUUID();
+    Delivery archived = new Delivery();
+    archived.setId(deliveryId);
+    archived.setCustomer(new User(UUID.randomUUID()));
+    archived.setStatus(DeliveryStatus.DELIVERED);
+    when(deliveryRepository.findById(deliveryId)).thenReturn(Optional.empty());
+    when(deliveryArchiver.findArchived(deliveryId)).thenReturn(Optional.of(archived));
+    DeliveryResponse response = deliveryService.getDeliveryResponseById(deliveryId);
+    assertEquals(DeliveryStatus.DELIVERED, response.getStatus());
+  }
+
+  @Test
+  void getDeliveryResponseById_throwsWhenNeitherTableHasIt() {
+    UUID deliveryId = UUID.randomUUID();
+    when(deliveryRepository.findById(deliveryId)).thenReturn(Optional.empty());
+    when(deliveryArchiver.findArchived(deliveryId)).thenReturn(Optional.empty());
+    assertThrows(EntityNotFoundException.class, () -> deliveryService.getDeliveryResponseById(deliveryId));
+  }
+
+  @Test
+  void acceptDelivery_rejectsDriverWithoutTheOffer() {
+    UUID deliveryId = UUID.randomUUID();
+    UUID driverId = UUID.randomUUID();
+    when(userService.validateAndGetUser(driverId, UserType.DRIVER)).thenReturn(new User(driverId));
+    doThrow(new IllegalStateException("offered to another driver")).when(dispatchEngine).checkOffer(deliveryId, driverId);
+    assertThrows(IllegalStateException.class, () -> deliveryService.acceptDelivery(deliveryId, driverId));
+    verify(deliveryRepository, never()).claim(any(), any(), any());
+  }
+
+  @Test
+  void acceptDelivery_claimsAndReturnsAssignedDelivery() {
+    UUID deliveryId = UUID.randomUUID();
+    UUID driverId = UUID.randomUUID();
+    User driver = new User(driverId);
+    when(userService.validateAndGetUser(driverId, UserType.DRIVER)).thenReturn(driver);
+    when(deliveryRepository.claim(eq(deliveryId), eq(driver), any())).thenReturn(1);
+    Delivery delivery = new Delivery();
+    delivery.setId(deliveryId);
+    delivery.setCustomer(new User(UUID.randomUUID()));
+    delivery.setDriver(driver);
+    delivery.setStatus(DeliveryStatus.DRIVER_ASSIGNED);
+    when(deliveryRepository.findById(deliveryId)).thenReturn(Optional.of(delivery));
+    DeliveryResponse response = deliveryService.acceptDelivery(deliveryId, driverId);
+    assertEquals(driverId, response.getDriverId());
+    verify(dispatchEngine).assign(deliveryId, driverId);
+    verify(etaEngine).track(delivery);
+    verify(deliveryEventLog).recordTransition(eq(deliveryId), eq(DeliveryStatus.PENDING),
+        eq(DeliveryStatus.DRIVER_ASSIGNED), eq(driverId), any());
+    verify(deliveryOutbox).append(delivery, DeliveryOutboxType.ACCEPTED);
+    verify(deliveryStreamRegistry).publishStatus(response);
+  }
+
+  @Test
+  void openTrackingStream_rejectsUnrelatedCustomer() {
+    UUID deliveryId = UUID.randomUUID();
+    UUID userId = UUID.randomUUID();
+    User stranger = new User(userId);
+    stranger.setUserType(UserType.CUSTOMER);
+    when(userService.validateAndGetUser(userId)).thenReturn(stranger);
+    Delivery delivery = new Delivery();
+    delivery.setId(deliveryId);
+    delivery.setCustomer(new User(UUID.randomUUID()));
+    when(deliveryRepository.findById(deliveryId)).thenReturn(Optional.of(delivery));
+    assertThrows(AccessDeniedException.class, () -> deliveryService.openTrackingStream(deliveryId, userId));
+    verify(deliveryStreamRegistry, never()).subscribe(any());
+  }
+
+  @Test
+  void openTrackingStream_subscribesCustomerWithSnapshot() {
+    UUID deliveryId = UUID.randomUUID();
+    UUID userId = UUID.randomUUID();
+    User customer = new User(userId);
+    customer.setUserType(UserType.CUSTOMER);
+    when(userService.validateAndGetUser(userId)).thenReturn(customer);
+    Delivery delivery = new Delivery();
+    delivery.setId(deliveryId);
+    delivery.setCustomer(customer);
+    delivery.setStatus(DeliveryStatus.PENDING);
+    when(deliveryRepository.findById(deliveryId)).thenReturn(Optional.of(delivery));
+    deliveryService.openTrackingStream(deliveryId, userId);
+    verify(deliveryStreamRegistry).subscribe(argThat(snapshot ->
+        deliveryId.equals(snapshot.getId()) && snapshot.getStatus() == DeliveryStatus.PENDING));
+  }
+
+  @Test
+  void getDeliveryTimeline_rejectsUnrelatedDriver() {
+    UUID deliveryId = UUID.randomUUID();
+    UUID userId = UUID.randomUUID();
+    User stranger = new User(userId);
+    stranger.setUserType(UserType.DRIVER);
+    when(userService.validateAndGetUser(userId)).thenReturn(stranger);
+    Delivery delivery = new Delivery();
+    delivery.setId(deliveryId);
+    delivery.setCustomer(new User(UUID.randomUUID()));
+    delivery.setDriver(new User(UUID.randomUUID()));
+    when(deliveryRepository.findById(deliveryId)).thenReturn(Optional.of(delivery));
+    assertThrows(AccessDeniedException.class, () -> deliveryService.getDeliveryTimeline(deliveryId, userId));
+    verify(deliveryEventLog, never()).timeline(any());
+  }
+
+  @Test
+  void getDeliveryTimeline_returnsEventsWithoutPayload() {
+    UUID deliveryId = UUID.randomUUID();
+    UUID userId = UUID.randomUUID();
+    User customer = new User(userId);
+    customer.setUserType(UserType.CUSTOMER);
+    when(userService.validateAndGetUser(userId)).thenReturn(customer);
+    Delivery delivery = new Delivery();
+    delivery.setId(deliveryId);
+    delivery.setCustomer(customer);
+    when(deliveryRepository.findById(deliveryId)).thenReturn(Optional.of(delivery));
+    DeliveryEvent created = new DeliveryEvent();
+    created.setId(1L);
+    created.setDeliveryId(deliveryId);
+    created.setToStatus(DeliveryStatus.PENDING);
+    created.setActorId(userId);
+    created.setPayload("{\"price\":\"10\"}");
+    when(deliveryEventLog.timeline(deliveryId)).thenReturn(List.of(created));
+
+    List<DeliveryEventResponse> timeline = deliveryService.getDeliveryTimeline(deliveryId, userId);
+
+    assertEquals(1, timeline.size());
+    assertEquals(1L, timeline.get(0).getId());
+    assertNull(timeline.get(0).getFromStatus());
+    assertEquals(DeliveryStatus.PENDING, timeline.get(0).getToStatus());
+    assertEquals(userId, timeline.get(0).getActorId());
+  }
+
+  @Test
+  void acceptDelivery_loserGetsConflict() {
+    UUID deliveryId = UUID.randomUUID();
+    UUID driverId = UUID.randomUUID();
+    when(userService.validateAndGetUser(driverId, UserType.DRIVER)).thenReturn(new User(driverId));
+    when(deliveryRepository.claim(eq(deliveryId), any(), any())).thenReturn(0);
+    Delivery delivery = new Delivery();
+    delivery.setStatus(DeliveryStatus.DRIVER_ASSIGNED);
+    when(deliveryRepository.findById(deliveryId)).thenReturn(Optional.of(delivery));
+    assertThrows(DeliveryAlreadyClaimedException.class, () -> deliveryService.acceptDelivery(deliveryId, driverId));
+    verify(deliveryOutbox, never()).append(any(), any());
   }
 
   @Test
@@ -70,4 +319,62 @@ class DeliveryServiceTest {
     Page<DeliveryResponse> result = deliveryService.getDeliveriesForUser(userId, Pageable.unpaged());
     assertNotNull(result);
   }
+
+  @Test
+  void scrollDeliveriesForUser_continuesAfterTheCursorAndPeeksOneRowAhead() {
+    UUID userId = UUID.randomUUID();
+    User customer = new User(userId);
+    customer.setUserType(UserType.CUSTOMER);
+    when(userService.validateAndGetUser(userId)).thenReturn(customer);
+    LocalDateTime start = LocalDateTime.of(2024, 5, 1, 12, 0);
+    List<Delivery> rows = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Delivery delivery = new Delivery();
+      delivery.setId(UUID.randomUUID());
+      delivery.setCustomer(customer);
+      delivery.setCreatedAt(start.minusMinutes(i));
+      rows.add(delivery);
+    }
+    when(deliveryRepository.scrollByCustomerId(userId, Limit.of(3))).thenReturn(rows);
+
+    DeliveryCursorPage first = deliveryService.scrollDeliveriesForUser(userId, null, 2);
+    assertEquals(2, first.getItems().size());
+    assertTrue(first.isHasNext());
+
+    deliveryService.scrollDeliveriesForUser(userId, first.getNextCursor(), 2);
+    verify(deliveryRepository).scrollByCustomerIdBefore(userId, rows.get(1).getCreatedAt(), rows.get(1).getId(),
+        Limit.of(3));
+  }
+
+  @Test
+  void getDeliveriesForUser_fetchesDriverLocationsOncePerPage() {
+    UUID userId = UUID.randomUUID();
+    User customer = new User(userId);
+    customer.setUserType(UserType.CUSTOMER);
+    when(userService.validateAndGetUser(userId)).thenReturn(customer);
+    User firstDriver = new User(UUID.randomUUID());
+    User secondDriver = new User(UUID.randomUUID());
+    Delivery first = new Delivery();
+    first.setCustomer(customer);
+    first.setDriver(firstDriver);
+    Delivery second = new Delivery();
+    second.setCustomer(customer);
+    second.setDriver(secondDriver);
+    Delivery unassigned = new Delivery();
+    unassigned.setCustomer(customer);
+    when(deliveryRepository.findByCustomerId(userId, Pageable.unpaged()))
+        .thenReturn(new PageImpl<>(List.of(first, second, unassigned)));
+    Location location = new Location();
+    location.setLatitude(-23.55);
+    location.setLongitude(-46.63);
+    when(locationService.getDriverLocations(Set.of(firstDriver.getId(), secondDriver.getId())))
+        .thenReturn(Map.of(firstDriver.getId(), location));
+
+    Page<DeliveryResponse> result = deliveryService.getDeliveriesForUser(userId, Pageable.unpaged());
+
+    assertEquals(-23.55, result.getContent().get(0).getDriverLatitude());
+    assertNull(result.getContent().get(1).getDriverLatitude());
+    verify(locationService, times(1)).getDriverLocations(anyCollection());
+    verify(locationService, never()).getDriverLocation(any());
+  }
 }
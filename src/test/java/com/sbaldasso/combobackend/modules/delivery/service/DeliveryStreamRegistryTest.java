@@ -0,0 +1,107 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.config.DeliveryConfig;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryResponse;
+import com.sbaldasso.combobackend.modules.location.domain.DriverLocationUpdatedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeliveryStreamRegistryTest {
+  @Mock
+  private EtaEngine etaEngine;
+
+  private DeliveryStreamRegistry registry;
+  private final UUID deliveryId = UUID.randomUUID();
+  private final UUID driverId = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(etaEngine.currentEta(any())).thenReturn(Optional.empty());
+    DeliveryConfig config = new DeliveryConfig();
+    config.getStream().setPositionIntervalMillis(60_000);
+    registry = new DeliveryStreamRegistry(etaEngine, config);
+    registry.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    registry.stop();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void subscribe_finishedDeliveryIsNotRegistered() {
+    registry.subscribe(snapshot(DeliveryStatus.DELIVERED));
+    assertEquals(0, registry.getOpenStreams());
+  }
+
+  @Test
+  void publishStatus_finalStatusClosesTheChannel() {
+    registry.subscribe(snapshot(DeliveryStatus.IN_TRANSIT));
+    registry.subscribe(snapshot(DeliveryStatus.IN_TRANSIT));
+    assertEquals(2, registry.getOpenStreams());
+
+    registry.publishStatus(snapshot(DeliveryStatus.DELIVERED));
+
+    assertEquals(0, registry.getOpenStreams());
+  }
+
+  @Test
+  void publishStatus_waitsForTheTransactionToCommit() {
+    registry.subscribe(snapshot(DeliveryStatus.IN_TRANSIT));
+    TransactionSynchronizationManager.initSynchronization();
+
+    registry.publishStatus(snapshot(DeliveryStatus.CANCELLED));
+    assertEquals(1, registry.getOpenStreams());
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    assertEquals(0, registry.getOpenStreams());
+  }
+
+  @Test
+  void onDriverLocationUpdated_throttlesPositionsPerDelivery() {
+    registry.subscribe(snapshot(DeliveryStatus.PICKED_UP));
+    registry.subscribe(snapshot(DeliveryStatus.PICKED_UP));
+
+    registry.onDriverLocationUpdated(ping(-23.55));
+    registry.onDriverLocationUpdated(ping(-23.56));
+
+    // One position built for the delivery, shared by both streams; the second ping is inside the interval.
+    verify(etaEngine, times(1)).currentEta(deliveryId);
+  }
+
+  @Test
+  void onDriverLocationUpdated_ignoresDriversWithoutStreams() {
+    registry.subscribe(snapshot(DeliveryStatus.PENDING));
+    registry.onDriverLocationUpdated(ping(-23.55));
+    verifyNoInteractions(etaEngine);
+  }
+
+  private DeliveryResponse snapshot(DeliveryStatus status) {
+    DeliveryResponse response = new DeliveryResponse();
+    response.setId(deliveryId);
+    response.setStatus(status);
+    response.setDriverId(status == DeliveryStatus.PENDING ? null : driverId);
+    return response;
+  }
+
+  private DriverLocationUpdatedEvent ping(double latitude) {
+    return new DriverLocationUpdatedEvent(driverId, latitude, -46.63, 8.0, 90.0, LocalDateTime.now());
+  }
+}
@@ -0,0 +1,141 @@
+package com.sbaldasso.combobackend.modules.delivery.service;
+
+import com.sbaldasso.combobackend.modules.delivery.config.DeliveryConfig;
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryStatus;
+import com.sbaldasso.combobackend.modules.delivery.dto.DeliveryEtaUpdate;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryRepository;
+import com.sbaldasso.combobackend.modules.location.domain.DriverLocationUpdatedEvent;
+import com.sbaldasso.combobackend.modules.notification.service.WebSocketService;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EtaEngineTest {
+  @Mock
+  private DeliveryRepository deliveryRepository;
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private WebSocketService webSocketService;
+
+  private EtaEngine etaEngine;
+  private final UUID driverId = UUID.randomUUID();
+  private final UUID customerId = UUID.randomUUID();
+  private final LocalDateTime now = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    DeliveryConfig config = new DeliveryConfig();
+    config.getEta().setDetourFactor(1.0);
+    config.getEta().setDefaultSpeedKmh(30.0);
+    config.getEta().setPickupDwellSeconds(0);
+    etaEngine = new EtaEngine(deliveryRepository, jdbcTemplate, webSocketService, config);
+  }
+
+  @Test
+  void onDriverLocationUpdated_estimatesRemainingLegsAndPushesToCustomer() {
+    Delivery delivery = delivery(DeliveryStatus.DRIVER_ASSIGNED);
+    etaEngine.track(delivery);
+
+    // 0.1 degree of latitude to the pickup and another to the drop-off: ~22.2 km at 30 km/h.
+    etaEngine.onDriverLocationUpdated(ping(-23.70, -46.63, null, now));
+
+    LocalDateTime eta = etaEngine.currentEta(delivery.getId()).orElseThrow();
+    assertEquals(2670, Duration.between(now, eta).getSeconds(), 30);
+    ArgumentCaptor<DeliveryEtaUpdate> update = ArgumentCaptor.forClass(DeliveryEtaUpdate.class);
+    verify(webSocketService).sendDeliveryUpdate(eq(customerId.toString()), update.capture());
+    assertEquals(eta, update.getValue().getEstimatedDeliveryTime());
+    verifyNoInteractions(jdbcTemplate);
+
+    etaEngine.persistDirty();
+
+    assertEquals(List.of(Map.entry(delivery.getId(), eta)), persisted());
+  }
+
+  @Test
+  void onDriverLocationUpdated_skipsPushAndWriteForInsignificantChanges() {
+    Delivery delivery = delivery(DeliveryStatus.IN_TRANSIT);
+    etaEngine.track(delivery);
+
+    etaEngine.onDriverLocationUpdated(ping(-23.60, -46.63, null, now));
+    etaEngine.onDriverLocationUpdated(ping(-23.5999, -46.63, null, now.plusSeconds(2)));
+
+    verify(webSocketService, times(1)).sendDeliveryUpdate(anyString(), any());
+    etaEngine.persistDirty();
+    assertEquals(1, persisted().size());
+  }
+
+  @Test
+  void persistDirty_writesOnlyTheLatestEstimateAndRetriesFailures() {
+    Delivery delivery = delivery(DeliveryStatus.IN_TRANSIT);
+    etaEngine.track(delivery);
+    etaEngine.onDriverLocationUpdated(ping(-23.60, -46.63, null, now));
+    etaEngine.onDriverLocationUpdated(ping(-23.55, -46.63, null, now.plusSeconds(2)));
+    when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+        .thenThrow(new IllegalStateException("database unavailable"))
+        .thenReturn(new int[][] {{1}});
+
+    etaEngine.persistDirty();
+    etaEngine.persistDirty();
+    etaEngine.persistDirty();
+
+    LocalDateTime eta = etaEngine.currentEta(delivery.getId()).orElseThrow();
+    List<Map.Entry<UUID, LocalDateTime>> batches = persisted();
+    assertEquals(List.of(Map.entry(delivery.getId(), eta), Map.entry(delivery.getId(), eta)), batches);
+  }
+
+  @Test
+  void onDriverLocationUpdated_ignoresDriversWithoutActiveDeliveries() {
+    Delivery delivery = delivery(DeliveryStatus.IN_TRANSIT);
+    etaEngine.track(delivery);
+    etaEngine.untrack(delivery.getId());
+
+    etaEngine.onDriverLocationUpdated(ping(-23.60, -46.63, 10.0, now));
+
+    etaEngine.persistDirty();
+
+    verifyNoInteractions(webSocketService, deliveryRepository, jdbcTemplate);
+    assertTrue(etaEngine.currentEta(delivery.getId()).isEmpty());
+  }
+
+  // Every (deliveryId, eta) handed to a batch so far, in order.
+  @SuppressWarnings("unchecked")
+  private List<Map.Entry<UUID, LocalDateTime>> persisted() {
+    ArgumentCaptor<Collection<Map.Entry<UUID, LocalDateTime>>> batches = ArgumentCaptor.forClass(Collection.class);
+    verify(jdbcTemplate, atLeast(0)).batchUpdate(anyString(), batches.capture(), anyInt(), any());
+    return batches.getAllValues().stream().flatMap(Collection::stream).toList();
+  }
+
+  private Delivery delivery(DeliveryStatus status) {
+    Delivery delivery = new Delivery();
+    delivery.setId(UUID.randomUUID());
+    delivery.setCustomer(new User(customerId));
+    delivery.setDriver(new User(driverId));
+    delivery.setStatus(status);
+    delivery.setPickupLatitude(-23.60);
+    delivery.setPickupLongitude(-46.63);
+    delivery.setDeliveryLatitude(-23.50);
+    delivery.setDeliveryLongitude(-46.63);
+    return delivery;
+  }
+
+  private DriverLocationUpdatedEvent ping(double latitude, double longitude, Double speed, LocalDateTime at) {
+    return new DriverLocationUpdatedEvent(driverId, latitude, longitude, speed, 0.0, at);
+  }
+}
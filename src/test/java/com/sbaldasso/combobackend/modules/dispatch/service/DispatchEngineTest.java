@@ -0,0 +1,162 @@
+package com.sbaldasso.combobackend.modules.dispatch.service;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.domain.DeliveryOutboxType;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryRepository;
+import com.sbaldasso.combobackend.modules.delivery.service.DeliveryOutbox;
+import com.sbaldasso.combobackend.modules.dispatch.config.DispatchConfig;
+import com.sbaldasso.combobackend.modules.location.domain.NearbyDriver;
+import com.sbaldasso.combobackend.modules.location.service.DriverSpatialIndex;
+import com.sbaldasso.combobackend.modules.notification.service.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DispatchEngineTest {
+  @Mock
+  private DriverSpatialIndex driverSpatialIndex;
+  @Mock
+  private NotificationService notificationService;
+  @Mock
+  private DeliveryRepository deliveryRepository;
+  @Mock
+  private DeliveryOutbox deliveryOutbox;
+
+  private DispatchConfig config;
+  private DispatchEngine engine;
+
+  private final UUID driverA = UUID.randomUUID();
+  private final UUID driverB = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    config = new DispatchConfig();
+    config.setAgingKmPerMinute(0);
+    engine = new DispatchEngine(driverSpatialIndex, notificationService, deliveryRepository, deliveryOutbox,
+        new PickupDistanceCostFunction(config), config);
+  }
+
+  @Test
+  void dispatchWindow_offersEachDeliveryToOneDriver() {
+    Delivery first = delivery(1.0, 1.0);
+    Delivery second = delivery(2.0, 2.0);
+    nearest(1.0, 1.0, new NearbyDriver(driverA, 1.0, 1.0, 0.5), new NearbyDriver(driverB, 2.0, 2.0, 3.0));
+    nearest(2.0, 2.0, new NearbyDriver(driverA, 1.0, 1.0, 0.8), new NearbyDriver(driverB, 2.0, 2.0, 0.1));
+    engine.submit(first);
+    engine.submit(second);
+
+    assertEquals(2, engine.dispatchWindow());
+
+    verify(notificationService).notifyDeliveryOffer(driverA, first.getId(), first.getPickupAddress());
+    verify(notificationService).notifyDeliveryOffer(driverB, second.getId(), second.getPickupAddress());
+    assertDoesNotThrow(() -> engine.checkOffer(first.getId(), driverA));
+    assertThrows(IllegalStateException.class, () -> engine.checkOffer(first.getId(), driverB));
+  }
+
+  @Test
+  void dispatchWindow_keepsDeliveryOpenWhenItsOnlyDriverHoldsAnOffer() {
+    Delivery first = delivery(1.0, 1.0);
+    Delivery second = delivery(1.1, 1.1);
+    nearest(1.0, 1.0, new NearbyDriver(driverA, 1.0, 1.0, 0.2));
+    nearest(1.1, 1.1, new NearbyDriver(driverA, 1.0, 1.0, 0.9));
+    engine.submit(first);
+    engine.submit(second);
+
+    assertEquals(1, engine.dispatchWindow());
+    assertEquals(0, engine.dispatchWindow());
+
+    engine.assign(first.getId(), driverA);
+    engine.release(driverA);
+    assertEquals(1, engine.dispatchWindow());
+    verify(notificationService).notifyDeliveryOffer(driverA, second.getId(), second.getPickupAddress());
+  }
+
+  @Test
+  void dispatchWindow_requeuesExpiredOfferToAnotherDriver() {
+    config.setOfferTimeoutSeconds(-1);
+    Delivery delivery = delivery(1.0, 1.0);
+    nearest(1.0, 1.0, new NearbyDriver(driverA, 1.0, 1.0, 0.2), new NearbyDriver(driverB, 1.0, 1.0, 0.4));
+    engine.submit(delivery);
+
+    engine.dispatchWindow();
+    engine.dispatchWindow();
+
+    verify(notificationService).notifyDeliveryOffer(driverA, delivery.getId(), delivery.getPickupAddress());
+    verify(notificationService).notifyDeliveryOffer(driverB, delivery.getId(), delivery.getPickupAddress());
+  }
+
+  @Test
+  void dispatchWindow_broadcastsADeliveryAfterMaxOfferAttempts() {
+    config.setOfferTimeoutSeconds(-1);
+    config.setMaxOfferAttempts(2);
+    Delivery delivery = delivery(1.0, 1.0);
+    nearest(1.0, 1.0, new NearbyDriver(driverA, 1.0, 1.0, 0.2), new NearbyDriver(driverB, 1.0, 1.0, 0.4));
+    engine.submit(delivery);
+
+    engine.dispatchWindow();
+    engine.dispatchWindow();
+    assertEquals(0, engine.dispatchWindow());
+
+    verify(deliveryOutbox).appendAllPending(List.of(delivery.getId()), DeliveryOutboxType.BROADCAST);
+    verify(notificationService, times(2)).notifyDeliveryOffer(any(), eq(delivery.getId()), any());
+  }
+
+  @Test
+  void dispatchWindow_broadcastsADeliveryNoDriverIsNearAfterAWhile() {
+    Delivery delivery = delivery(1.0, 1.0);
+    nearest(1.0, 1.0);
+    engine.submit(delivery);
+
+    assertEquals(0, engine.dispatchWindow());
+    verifyNoInteractions(deliveryOutbox);
+
+    config.setBroadcastAfterSeconds(-1);
+    engine.dispatchWindow();
+    engine.dispatchWindow();
+    verify(deliveryOutbox, times(1)).appendAllPending(List.of(delivery.getId()), DeliveryOutboxType.BROADCAST);
+  }
+
+  @Test
+  void decline_withdrawsOfferAndClosedDeliveriesAreNotOfferedAgain() {
+    Delivery delivery = delivery(1.0, 1.0);
+    nearest(1.0, 1.0, new NearbyDriver(driverA, 1.0, 1.0, 0.2), new NearbyDriver(driverB, 1.0, 1.0, 0.4));
+    engine.submit(delivery);
+    engine.dispatchWindow();
+
+    engine.decline(delivery.getId(), driverA);
+    engine.close(delivery.getId());
+
+    assertEquals(0, engine.dispatchWindow());
+    assertTrue(engine.getOffer(delivery.getId()).isEmpty());
+  }
+
+  @Test
+  void submit_returnsFalseWithoutPickupCoordinates() {
+    Delivery delivery = new Delivery();
+    delivery.setId(UUID.randomUUID());
+    assertFalse(engine.canDispatch(delivery));
+    assertFalse(engine.submit(delivery));
+  }
+
+  private Delivery delivery(double latitude, double longitude) {
+    Delivery delivery = new Delivery();
+    delivery.setId(UUID.randomUUID());
+    delivery.setPickupAddress("Rua " + latitude);
+    delivery.setPickupLatitude(latitude);
+    delivery.setPickupLongitude(longitude);
+    return delivery;
+  }
+
+  private void nearest(double latitude, double longitude, NearbyDriver... drivers) {
+    when(driverSpatialIndex.findNearest(eq(latitude), eq(longitude), anyInt(), anyDouble()))
+        .thenReturn(List.of(drivers));
+  }
+}
@@ -0,0 +1,31 @@
+package com.sbaldasso.combobackend.modules.geocoding.service;
+
+import com.sbaldasso.combobackend.modules.geocoding.config.GeocodingConfig;
+import com.sbaldasso.combobackend.modules.geocoding.domain.GeoPoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileGeocoderTest {
+
+  @Test
+  void geocode_matchesEntriesByNormalizedAddress() {
+    FileGeocoder geocoder = new FileGeocoder(new DefaultResourceLoader(), new GeocodingConfig());
+
+    Optional<GeoPoint> point = geocoder.geocode(AddressNormalizer.normalize("avenida paulista 1578, bela vista, SAO PAULO"));
+
+    assertEquals(Optional.of(new GeoPoint(-23.561414, -46.655881)), point);
+    assertTrue(geocoder.geocode("rua inexistente 1").isEmpty());
+  }
+
+  @Test
+  void constructor_toleratesMissingFile() {
+    GeocodingConfig config = new GeocodingConfig();
+    config.setFile("classpath:geocoding/missing.csv");
+
+    assertTrue(new FileGeocoder(new DefaultResourceLoader(), config).geocode("praca da se se sao paulo").isEmpty());
+  }
+}
@@ -0,0 +1,80 @@
+package com.sbaldasso.combobackend.modules.geocoding.service;
+
+import com.sbaldasso.combobackend.modules.geocoding.config.GeocodingConfig;
+import com.sbaldasso.combobackend.modules.geocoding.domain.GeoPoint;
+import com.sbaldasso.combobackend.modules.geocoding.domain.GeocodedAddress;
+import com.sbaldasso.combobackend.modules.geocoding.repository.GeocodedAddressRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GeocodingServiceTest {
+  @Mock
+  private Geocoder geocoder;
+  @Mock
+  private GeocodedAddressRepository geocodedAddressRepository;
+
+  private GeocodingService geocodingService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    GeocodingConfig config = new GeocodingConfig();
+    config.setCacheSize(2);
+    geocodingService = new GeocodingService(geocoder, geocodedAddressRepository, config);
+  }
+
+  @Test
+  void geocode_resolvesMissOnceAndServesRepeatsFromMemory() {
+    when(geocoder.geocode("rua augusta 1500")).thenReturn(Optional.of(new GeoPoint(-23.5574, -46.6607)));
+
+    Optional<GeoPoint> first = geocodingService.geocode("Rua Augusta, 1500");
+    Optional<GeoPoint> second = geocodingService.geocode("  RUA AUGUSTA 1500 ,");
+
+    assertEquals(first, second);
+    verify(geocoder, times(1)).geocode(any());
+    verify(geocodedAddressRepository, times(1)).findById("rua augusta 1500");
+    verify(geocodedAddressRepository).insertIfAbsent(eq("rua augusta 1500"), eq(-23.5574), eq(-46.6607), any());
+  }
+
+  @Test
+  void geocode_prefersPersistedAddressOverGeocoder() {
+    GeocodedAddress row = new GeocodedAddress();
+    row.setNormalizedAddress("praca da se");
+    row.setLatitude(-23.5505);
+    row.setLongitude(-46.6333);
+    when(geocodedAddressRepository.findById("praca da se")).thenReturn(Optional.of(row));
+
+    assertEquals(Optional.of(new GeoPoint(-23.5505, -46.6333)), geocodingService.geocode("Praça da Sé"));
+    verifyNoInteractions(geocoder);
+  }
+
+  @Test
+  void geocode_evictsLeastRecentlyUsedAddress() {
+    when(geocoder.geocode(any())).thenReturn(Optional.of(new GeoPoint(0, 0)));
+
+    geocodingService.geocode("a");
+    geocodingService.geocode("b");
+    geocodingService.geocode("a");
+    geocodingService.geocode("c");
+    geocodingService.geocode("a");
+    geocodingService.geocode("b");
+
+    verify(geocoder, times(1)).geocode("a");
+    verify(geocoder, times(2)).geocode("b");
+  }
+
+  @Test
+  void geocode_doesNotCacheUnresolvedAddresses() {
+    assertTrue(geocodingService.geocode("nowhere").isEmpty());
+    assertTrue(geocodingService.geocode(" ").isEmpty());
+    verify(geocoder, times(1)).geocode(any());
+    verify(geocodedAddressRepository, never()).insertIfAbsent(any(), anyDouble(), anyDouble(), any());
+  }
+}
@@ -0,0 +1,84 @@
+package com.sbaldasso.combobackend.modules.heatmap.service;
+
+import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
+import com.sbaldasso.combobackend.modules.delivery.repository.DeliveryRepository;
+import com.sbaldasso.combobackend.modules.heatmap.dto.HeatmapCell;
+import com.sbaldasso.combobackend.modules.heatmap.dto.HeatmapSnapshot;
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.service.GeoGrid;
+import com.sbaldasso.combobackend.modules.notification.service.WebSocketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HeatmapServiceTest {
+  @Mock
+  private DeliveryRepository deliveryRepository;
+  @Mock
+  private WebSocketService webSocketService;
+
+  private GeoGrid grid;
+  private HeatmapService heatmapService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    LocationConfig config = new LocationConfig();
+    grid = new GeoGrid(config.getIndex().getCellSizeDegrees());
+    heatmapService = new HeatmapService(deliveryRepository, webSocketService, config);
+  }
+
+  @Test
+  void getSnapshot_aggregatesSupplyAndDemandPerCell() {
+    long cell = grid.cellOf(-23.5505, -46.6333);
+    heatmapService.adjustSupply(cell, 1);
+    heatmapService.adjustSupply(cell, 1);
+    heatmapService.demandOpened(pendingDelivery(-23.5505, -46.6333));
+
+    HeatmapSnapshot snapshot = heatmapService.getSnapshot(null, null, null, null);
+
+    assertEquals(1, snapshot.getCells().size());
+    HeatmapCell result = snapshot.getCells().get(0);
+    assertEquals(2, result.getSupply());
+    assertEquals(1, result.getDemand());
+  }
+
+  @Test
+  void getSnapshot_filtersByBoundingBoxAndDropsEmptyCells() {
+    heatmapService.adjustSupply(grid.cellOf(-23.55, -46.63), 1);
+    heatmapService.adjustSupply(grid.cellOf(-22.90, -43.20), 1);
+    heatmapService.adjustSupply(grid.cellOf(-22.90, -43.20), -1);
+    heatmapService.adjustSupply(grid.cellOf(40.71, -74.00), 1);
+
+    assertEquals(2, heatmapService.getSnapshot(null, null, null, null).getCells().size());
+    assertEquals(1, heatmapService.getSnapshot(-24.0, -23.0, -47.0, -46.0).getCells().size());
+  }
+
+  @Test
+  void publishDeltas_sendsOnlyChangedCellsIncludingEmptiedOnes() {
+    long cell = grid.cellOf(-23.55, -46.63);
+    heatmapService.adjustSupply(cell, 1);
+    heatmapService.publishDeltas();
+    heatmapService.adjustSupply(cell, -1);
+    heatmapService.publishDeltas();
+    heatmapService.publishDeltas();
+
+    ArgumentCaptor<HeatmapSnapshot> deltas = ArgumentCaptor.forClass(HeatmapSnapshot.class);
+    verify(webSocketService, times(2)).sendHeatmapUpdate(deltas.capture());
+    HeatmapSnapshot last = deltas.getAllValues().get(1);
+    assertEquals(2, last.getSequence());
+    assertEquals(0, last.getCells().get(0).getSupply());
+  }
+
+  private Delivery pendingDelivery(double latitude, double longitude) {
+    Delivery delivery = new Delivery();
+    delivery.setPickupLatitude(latitude);
+    delivery.setPickupLongitude(longitude);
+    return delivery;
+  }
+}
@@ -1,7 +1,10 @@
 package com.sbaldasso.combobackend.modules.location.controller;
 
 import com.sbaldasso.combobackend.modules.location.domain.Location;
+import com.sbaldasso.combobackend.modules.location.dto.DriverLivenessStats;
 import com.sbaldasso.combobackend.modules.location.dto.UpdateLocationRequest;
+import com.sbaldasso.combobackend.modules.location.exception.InvalidHistoryRangeException;
+import com.sbaldasso.combobackend.modules.location.service.DriverLivenessTracker;
 import com.sbaldasso.combobackend.modules.location.service.LocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -19,6 +23,8 @@ import static org.mockito.Mockito.*;
 class LocationControllerTest {
   @Mock
   private LocationService locationService;
+  @Mock
+  private DriverLivenessTracker driverLivenessTracker;
   @InjectMocks
   private LocationController locationController;
 
@@ -56,4 +62,23 @@ class LocationControllerTest {
     ResponseEntity<Location> notFound = locationController.getDriverLocation(driverId);
     assertEquals(404, notFound.getStatusCodeValue());
   }
+
+  @Test
+  void getLiveness_returnsTrackerStats() {
+    DriverLivenessStats stats = DriverLivenessStats.builder().live(3).stale(1).expiredTotal(7).build();
+    when(driverLivenessTracker.getStats()).thenReturn(stats);
+    ResponseEntity<DriverLivenessStats> result = locationController.getLiveness();
+    assertEquals(stats, result.getBody());
+  }
+
+  @Test
+  void getDriverHistory_rejectsBadRangeBeforeStreaming() {
+    UUID driverId = UUID.randomUUID();
+    LocalDateTime from = LocalDateTime.now();
+    LocalDateTime to = from.minusHours(1);
+    doThrow(new InvalidHistoryRangeException("History range must end after it starts"))
+        .when(locationService).validateHistoryRange(from, to);
+    assertThrows(InvalidHistoryRangeException.class, () -> locationController.getDriverHistory(driverId, from, to));
+    verify(locationService, never()).streamDriverHistory(any(), any(), any(), any());
+  }
 }
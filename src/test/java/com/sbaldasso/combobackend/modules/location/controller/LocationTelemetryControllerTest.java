@@ -0,0 +1,93 @@
+package com.sbaldasso.combobackend.modules.location.controller;
+
+import com.sbaldasso.combobackend.modules.location.dto.LocationTelemetryAck;
+import com.sbaldasso.combobackend.modules.location.dto.LocationTelemetryBatch;
+import com.sbaldasso.combobackend.modules.location.dto.LocationTelemetryError;
+import com.sbaldasso.combobackend.modules.location.dto.UpdateLocationRequest;
+import com.sbaldasso.combobackend.modules.location.service.LocationService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LocationTelemetryControllerTest {
+  @Mock
+  private LocationService locationService;
+  @InjectMocks
+  private LocationTelemetryController controller;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  void updateLocations_appliesValidPointsAndAcknowledgesBatch() {
+    UUID driverId = UUID.randomUUID();
+    LocationTelemetryBatch batch = new LocationTelemetryBatch();
+    batch.setBatchId("b-1");
+    batch.setPoints(List.of(point(1.0, 2.0), point(null, 2.0), point(1.5, 2.5)));
+
+    LocationTelemetryAck ack = controller.updateLocations(principal(driverId, "ROLE_DRIVER"), batch);
+
+    assertEquals("b-1", ack.getBatchId());
+    assertEquals(2, ack.getAccepted());
+    assertEquals(1, ack.getRejected());
+    verify(locationService).updateDriverTrack(eq(driverId), argThat(pings -> pings.size() == 2));
+  }
+
+  @Test
+  void updateLocations_rejectsNonDrivers() {
+    LocationTelemetryBatch batch = new LocationTelemetryBatch();
+    batch.setPoints(List.of(point(1.0, 2.0)));
+    assertThrows(AccessDeniedException.class,
+        () -> controller.updateLocations(principal(UUID.randomUUID(), "ROLE_CUSTOMER"), batch));
+    verifyNoInteractions(locationService);
+  }
+
+  @Test
+  void updateLocations_rejectsOversizedBatches() {
+    LocationTelemetryBatch batch = new LocationTelemetryBatch();
+    batch.setPoints(Collections.nCopies(LocationTelemetryBatch.MAX_POINTS + 1, point(1.0, 2.0)));
+
+    assertFalse(Validation.buildDefaultValidatorFactory().getValidator().validate(batch).isEmpty());
+    assertThrows(IllegalArgumentException.class,
+        () -> controller.updateLocations(principal(UUID.randomUUID(), "ROLE_DRIVER"), batch));
+    verifyNoInteractions(locationService);
+  }
+
+  @Test
+  void handleException_sendsFixedCodesOnly() {
+    assertEquals(LocationTelemetryError.INVALID_FRAME,
+        controller.handleException(new IllegalArgumentException("too many points")).getCode());
+    assertEquals(LocationTelemetryError.FORBIDDEN,
+        controller.handleException(new AccessDeniedException("nope")).getCode());
+    LocationTelemetryError internal = controller.handleException(new IllegalStateException("jdbc:postgresql://db"));
+    assertEquals(LocationTelemetryError.INTERNAL_ERROR, internal.getCode());
+  }
+
+  private UpdateLocationRequest point(Double latitude, Double longitude) {
+    UpdateLocationRequest request = new UpdateLocationRequest();
+    request.setLatitude(latitude);
+    request.setLongitude(longitude);
+    return request;
+  }
+
+  private UsernamePasswordAuthenticationToken principal(UUID userId, String role) {
+    return new UsernamePasswordAuthenticationToken(userId.toString(), null, List.of(new SimpleGrantedAuthority(role)));
+  }
+}
@@ -0,0 +1,96 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.repository.LocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DriverLivenessTrackerTest {
+  @Mock
+  private LocationRepository locationRepository;
+  @Mock
+  private DriverSpatialIndex driverSpatialIndex;
+  @Mock
+  private LocationUpdateFilter locationUpdateFilter;
+  @Mock
+  private LocationWriteBuffer locationWriteBuffer;
+
+  private DriverLivenessTracker tracker;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    LocationConfig config = new LocationConfig();
+    config.setUpdateIntervalSeconds(10);
+    config.getLiveness().setMissedIntervals(3);
+    config.getLiveness().setTickMillis(1000);
+    config.getLiveness().setWheelSize(8);
+    tracker = new DriverLivenessTracker(locationRepository, driverSpatialIndex, locationUpdateFilter,
+        locationWriteBuffer, config);
+  }
+
+  @Test
+  void advanceTo_expiresDriverAfterMissedIntervals() {
+    UUID driverId = UUID.randomUUID();
+    tracker.track(driverId);
+
+    assertTrue(tracker.advanceTo(29).isEmpty());
+    assertEquals(List.of(driverId), tracker.advanceTo(30));
+  }
+
+  @Test
+  void advanceTo_pingPushesDeadlineAcrossWheelRevolutions() {
+    UUID driverId = UUID.randomUUID();
+    tracker.track(driverId);
+    tracker.advanceTo(20);
+    tracker.touch(driverId);
+
+    assertTrue(tracker.advanceTo(49).isEmpty());
+    assertEquals(List.of(driverId), tracker.advanceTo(50));
+  }
+
+  @Test
+  void untrack_stopsExpiry() {
+    UUID driverId = UUID.randomUUID();
+    tracker.track(driverId);
+    tracker.untrack(driverId);
+
+    assertTrue(tracker.advanceTo(100).isEmpty());
+    assertEquals(0, tracker.getStats().getLive());
+  }
+
+  @Test
+  void expire_marksDriverUnavailableAndTouchRevivesIt() {
+    UUID driverId = UUID.randomUUID();
+    tracker.track(driverId);
+    when(locationRepository.markUnavailable(anyCollection())).thenReturn(1);
+
+    tracker.expire(tracker.advanceTo(30));
+
+    verify(driverSpatialIndex).remove(driverId);
+    verify(locationUpdateFilter).forget(driverId);
+    verify(locationWriteBuffer).setAvailable(driverId, false);
+    verify(locationRepository).markUnavailable(List.of(driverId));
+    assertEquals(1, tracker.getStats().getStale());
+    assertEquals(1, tracker.getStats().getExpiredTotal());
+
+    assertTrue(tracker.touch(driverId));
+    assertFalse(tracker.touch(driverId));
+    assertEquals(0, tracker.getStats().getStale());
+    assertEquals(1, tracker.getStats().getLive());
+  }
+
+  @Test
+  void touch_ignoresUntrackedDrivers() {
+    assertFalse(tracker.touch(UUID.randomUUID()));
+    assertEquals(0, tracker.getStats().getLive());
+  }
+}
@@ -0,0 +1,92 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.sbaldasso.combobackend.modules.heatmap.service.HeatmapService;
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.domain.NearbyDriver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DriverSpatialIndexTest {
+  private HeatmapService heatmapService;
+  private DriverSpatialIndex index;
+
+  @BeforeEach
+  void setUp() {
+    heatmapService = mock(HeatmapService.class);
+    index = new DriverSpatialIndex(new LocationConfig(), heatmapService);
+  }
+
+  @Test
+  void update_reportsSupplyOnlyWhenDriverChangesCell() {
+    UUID driverId = UUID.randomUUID();
+    GeoGrid grid = new GeoGrid(new LocationConfig().getIndex().getCellSizeDegrees());
+    long first = grid.cellOf(-23.5501, -46.6301);
+    long second = grid.cellOf(-22.9000, -43.2000);
+
+    index.update(driverId, -23.5501, -46.6301);
+    index.update(driverId, -23.5502, -46.6302);
+    index.update(driverId, -22.9000, -43.2000);
+    index.remove(driverId);
+
+    verify(heatmapService).adjustSupply(first, 1);
+    verify(heatmapService).adjustSupply(first, -1);
+    verify(heatmapService).adjustSupply(second, 1);
+    verify(heatmapService).adjustSupply(second, -1);
+    verifyNoMoreInteractions(heatmapService);
+  }
+
+  @Test
+  void findWithinRadius_returnsOnlyDriversInsideRadiusClosestFirst() {
+    UUID near = UUID.randomUUID();
+    UUID closer = UUID.randomUUID();
+    UUID far = UUID.randomUUID();
+    index.update(near, -23.560, -46.640);
+    index.update(closer, -23.551, -46.631);
+    index.update(far, -23.900, -46.900);
+
+    List<NearbyDriver> result = index.findWithinRadius(-23.550, -46.630, 3.0);
+
+    assertEquals(List.of(closer, near), result.stream().map(NearbyDriver::getDriverId).toList());
+  }
+
+  @Test
+  void update_movesDriverBetweenCells() {
+    UUID driverId = UUID.randomUUID();
+    index.update(driverId, -23.550, -46.630);
+    index.update(driverId, -22.900, -43.200);
+
+    assertTrue(index.findWithinRadius(-23.550, -46.630, 5.0).isEmpty());
+    assertEquals(1, index.findWithinRadius(-22.900, -43.200, 1.0).size());
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  void remove_dropsDriverFromQueries() {
+    UUID driverId = UUID.randomUUID();
+    index.update(driverId, -23.550, -46.630);
+    index.remove(driverId);
+
+    assertFalse(index.contains(driverId));
+    assertTrue(index.findWithinRadius(-23.550, -46.630, 5.0).isEmpty());
+  }
+
+  @Test
+  void findNearest_returnsKClosestDrivers() {
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    UUID third = UUID.randomUUID();
+    index.update(third, -23.600, -46.630);
+    index.update(first, -23.551, -46.630);
+    index.update(second, -23.560, -46.630);
+
+    List<NearbyDriver> result = index.findNearest(-23.550, -46.630, 2, 20.0);
+
+    assertEquals(List.of(first, second), result.stream().map(NearbyDriver::getDriverId).toList());
+  }
+}
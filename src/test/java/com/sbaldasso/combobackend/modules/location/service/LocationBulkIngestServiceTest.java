@@ -0,0 +1,223 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.domain.DriverLocationState;
+import com.sbaldasso.combobackend.modules.location.domain.DriverLocationUpdatedEvent;
+import com.sbaldasso.combobackend.modules.location.domain.Location;
+import com.sbaldasso.combobackend.modules.location.dto.BulkLocationResult;
+import com.sbaldasso.combobackend.modules.location.exception.InvalidBulkUploadException;
+import com.sbaldasso.combobackend.modules.location.repository.LocationRepository;
+import com.sbaldasso.combobackend.modules.notification.service.WebSocketService;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import com.sbaldasso.combobackend.modules.user.domain.UserType;
+import com.sbaldasso.combobackend.modules.user.service.UserService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LocationBulkIngestServiceTest {
+  @Mock
+  private UserService userService;
+  @Mock
+  private LocationRepository locationRepository;
+  @Mock
+  private LocationBatchWriter locationBatchWriter;
+  @Mock
+  private LocationWriteBuffer locationWriteBuffer;
+  @Mock
+  private LocationHistoryStore locationHistoryStore;
+  @Mock
+  private LocationUpdateFilter locationUpdateFilter;
+  @Mock
+  private DriverSpatialIndex driverSpatialIndex;
+  @Mock
+  private DriverLivenessTracker driverLivenessTracker;
+  @Mock
+  private WebSocketService webSocketService;
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private LocationBulkIngestService service;
+  private UUID gatewayId;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    service = new LocationBulkIngestService(
+        new ObjectMapper().findAndRegisterModules(),
+        Validation.buildDefaultValidatorFactory().getValidator(),
+        userService, locationRepository, locationBatchWriter, locationWriteBuffer,
+        locationHistoryStore, locationUpdateFilter, driverSpatialIndex, driverLivenessTracker, webSocketService,
+        new LocationConfig(), eventPublisher, new TransactionTemplate(transactionManager));
+    gatewayId = UUID.randomUUID();
+    User gateway = new User(gatewayId);
+    gateway.setUserType(UserType.ADMIN);
+    when(userService.validateAndGetUser(gatewayId)).thenReturn(gateway);
+    when(locationBatchWriter.upsert(anyList())).thenAnswer(invocation -> ((List<Location>) invocation.getArgument(0))
+        .stream()
+        .map(location -> location.getDriver().getId())
+        .collect(Collectors.toSet()));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void ingest_appliesNewestPointPerDriverRegardlessOfOrder() throws Exception {
+    UUID driverId = UUID.randomUUID();
+    when(userService.findActiveDriverIds(anyCollection())).thenReturn(Set.of(driverId));
+    String body = "["
+        + point(driverId, 1.0, "2026-01-01T10:00:05") + ","
+        + point(driverId, 2.0, "2026-01-01T10:00:09") + ","
+        + point(driverId, 3.0, "2026-01-01T10:00:01") + ","
+        + "{\"driverId\":\"" + driverId + "\",\"longitude\":1.0,\"recordedAt\":\"2026-01-01T10:00:00\"}"
+        + "]";
+
+    BulkLocationResult result = service.ingest(gatewayId, stream(body));
+
+    assertEquals(4, result.getReceived());
+    assertEquals(3, result.getAccepted());
+    assertEquals(1, result.getRejected());
+    assertEquals(1, result.getDriversUpdated());
+    ArgumentCaptor<List<Location>> rows = ArgumentCaptor.forClass(List.class);
+    verify(locationBatchWriter).upsert(rows.capture());
+    assertEquals(2.0, rows.getValue().get(0).getLatitude());
+    verify(locationHistoryStore).appendAll(argThat(pings -> pings.size() == 3));
+  }
+
+  @Test
+  void ingest_rejectsPointsForUnknownDrivers() throws Exception {
+    UUID unknown = UUID.randomUUID();
+    when(userService.findActiveDriverIds(anyCollection())).thenReturn(Set.of());
+
+    BulkLocationResult result = service.ingest(gatewayId, stream("[" + point(unknown, 1.0, "2026-01-01T10:00:00") + "]"));
+
+    assertEquals(1, result.getRejected());
+    assertEquals(0, result.getDriversUpdated());
+    verifyNoInteractions(locationBatchWriter);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void ingest_resolvesDriversOnceAndRejectsPointsOfOtherUsers() throws Exception {
+    UUID driverId = UUID.randomUUID();
+    UUID customerId = UUID.randomUUID();
+    when(userService.findActiveDriverIds(anyCollection())).thenReturn(Set.of(driverId));
+    String body = "["
+        + point(driverId, 1.0, "2026-01-01T10:00:05") + ","
+        + point(customerId, 2.0, "2026-01-01T10:00:06") + ","
+        + point(customerId, 3.0, "2026-01-01T10:00:07")
+        + "]";
+
+    BulkLocationResult result = service.ingest(gatewayId, stream(body));
+
+    assertEquals(1, result.getAccepted());
+    assertEquals(2, result.getRejected());
+    assertEquals(1, result.getDriversUpdated());
+    assertEquals(0, result.getDriversStale());
+    verify(userService, times(1)).findActiveDriverIds(Set.of(driverId, customerId));
+    verify(locationHistoryStore).appendAll(argThat(pings -> pings.size() == 1));
+    ArgumentCaptor<List<Location>> rows = ArgumentCaptor.forClass(List.class);
+    verify(locationBatchWriter).upsert(rows.capture());
+    assertEquals(List.of(driverId), rows.getValue().stream().map(row -> row.getDriver().getId()).toList());
+  }
+
+  @Test
+  void ingest_countsMalformedElementsAsRejectedAndContinues() throws Exception {
+    UUID driverId = UUID.randomUUID();
+    when(userService.findActiveDriverIds(anyCollection())).thenReturn(Set.of(driverId));
+    String body = "["
+        + "{\"driverId\":\"" + driverId + "\",\"latitude\":\"north\",\"longitude\":1.0,"
+        + "\"recordedAt\":\"2026-01-01T10:00:00\",\"nested\":{\"a\":[1,2]}},"
+        + "42,"
+        + "[1,2],"
+        + point(driverId, 2.0, "2026-01-01T10:00:09")
+        + "]";
+
+    BulkLocationResult result = service.ingest(gatewayId, stream(body));
+
+    assertEquals(4, result.getReceived());
+    assertEquals(1, result.getAccepted());
+    assertEquals(3, result.getRejected());
+    assertEquals(1, result.getDriversUpdated());
+  }
+
+  @Test
+  void ingest_rejectsBodiesThatAreNotAnArray() {
+    assertThrows(InvalidBulkUploadException.class, () -> service.ingest(gatewayId, stream("{}")));
+    assertThrows(InvalidBulkUploadException.class, () -> service.ingest(gatewayId, stream("[{\"driverId\":")));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void ingest_comparesCaptureTimesAndStampsTheServerTime() throws Exception {
+    UUID driverId = UUID.randomUUID();
+    when(userService.findActiveDriverIds(anyCollection())).thenReturn(Set.of(driverId));
+    DriverLocationState state = mock(DriverLocationState.class);
+    when(state.getDriverId()).thenReturn(driverId);
+    when(state.getAvailable()).thenReturn(true);
+    when(state.getRecordedAt()).thenReturn(LocalDateTime.parse("2026-01-01T10:00:00"));
+    // Written by the server long after the capture; must not make the replay look stale.
+    when(state.getUpdatedAt()).thenReturn(LocalDateTime.now());
+    when(locationRepository.findStatesByDriverIdIn(anyCollection())).thenReturn(List.of(state));
+
+    LocalDateTime before = LocalDateTime.now();
+    BulkLocationResult result = service.ingest(gatewayId, stream("[" + point(driverId, 2.0, "2026-01-01T10:00:09") + "]"));
+
+    assertEquals(1, result.getDriversUpdated());
+    ArgumentCaptor<List<Location>> rows = ArgumentCaptor.forClass(List.class);
+    verify(locationBatchWriter).upsert(rows.capture());
+    Location row = rows.getValue().get(0);
+    assertEquals(LocalDateTime.parse("2026-01-01T10:00:09"), row.getRecordedAt());
+    assertFalse(row.getUpdatedAt().isBefore(before));
+    ArgumentCaptor<DriverLocationUpdatedEvent> event = ArgumentCaptor.forClass(DriverLocationUpdatedEvent.class);
+    verify(eventPublisher).publishEvent(event.capture());
+    assertEquals(row.getUpdatedAt(), event.getValue().getRecordedAt());
+  }
+
+  @Test
+  void ingest_countsDriversTheUpsertRefusedToMoveBackAsStale() throws Exception {
+    UUID driverId = UUID.randomUUID();
+    when(userService.findActiveDriverIds(anyCollection())).thenReturn(Set.of(driverId));
+    // A newer position was written after the snapshot read.
+    when(locationBatchWriter.upsert(anyList())).thenReturn(Set.of());
+
+    BulkLocationResult result = service.ingest(gatewayId, stream("[" + point(driverId, 2.0, "2026-01-01T10:00:09") + "]"));
+
+    assertEquals(1, result.getAccepted());
+    assertEquals(0, result.getDriversUpdated());
+    assertEquals(1, result.getDriversStale());
+    verifyNoInteractions(eventPublisher, driverSpatialIndex, webSocketService);
+    verify(locationHistoryStore).appendAll(argThat(pings -> pings.size() == 1));
+  }
+
+  private String point(UUID driverId, double latitude, String recordedAt) {
+    return "{\"driverId\":\"" + driverId + "\",\"latitude\":" + latitude
+        + ",\"longitude\":-46.6,\"recordedAt\":\"" + recordedAt + "\"}";
+  }
+
+  private ByteArrayInputStream stream(String body) {
+    return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+  }
+}
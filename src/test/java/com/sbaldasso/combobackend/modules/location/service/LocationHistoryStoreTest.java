@@ -0,0 +1,92 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.domain.LocationPing;
+import com.sbaldasso.combobackend.modules.location.exception.InvalidHistoryRangeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LocationHistoryStoreTest {
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private LocationHistoryStore store;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    LocationConfig config = new LocationConfig();
+    config.getHistory().setQueueCapacity(2);
+    when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    store = new LocationHistoryStore(jdbcTemplate, transactionManager, config);
+  }
+
+  @Test
+  void append_dropsPingsWhenQueueIsFullWithoutTouchingDatabase() {
+    UUID driverId = UUID.randomUUID();
+    for (int i = 0; i < 5; i++) {
+      store.append(new LocationPing(driverId, 1.0, 2.0, null, null, LocalDateTime.now()));
+    }
+    assertEquals(3, store.getDroppedPings());
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void stream_rejectsRangesLongerThanConfigured() {
+    LocalDateTime from = LocalDateTime.now().minusDays(30);
+    assertThrows(InvalidHistoryRangeException.class,
+        () -> store.stream(UUID.randomUUID(), from, LocalDateTime.now(), ping -> { }));
+  }
+
+  @Test
+  void stream_readsThroughACursorInAReadOnlyTransaction() throws Exception {
+    when(jdbcTemplate.queryForObject(contains("table_schema = CURRENT_SCHEMA"), eq(Integer.class), any()))
+        .thenReturn(1);
+    LocalDateTime to = LocalDateTime.now();
+
+    store.stream(UUID.randomUUID(), to.minusHours(1), to, ping -> { });
+
+    verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    ArgumentCaptor<PreparedStatementCreator> query = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+    verify(jdbcTemplate, atLeastOnce()).query(query.capture(), any(RowCallbackHandler.class));
+    Connection connection = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    query.getValue().createPreparedStatement(connection);
+    verify(statement).setFetchSize(1000);
+  }
+
+  @Test
+  void dropExpiredPartitions_skipsTablesThatAreNotDailyPartitions() {
+    String expired = "location_history_" + LocalDate.now().minusYears(1).format(DateTimeFormatter.BASIC_ISO_DATE);
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class), any()))
+        .thenReturn(List.of("location_history_backup", "location_history_20261399", expired));
+
+    store.dropExpiredPartitions();
+
+    verify(jdbcTemplate).execute("DROP TABLE IF EXISTS " + expired);
+    verify(jdbcTemplate, times(1)).execute(anyString());
+  }
+}
@@ -1,6 +1,8 @@
 package com.sbaldasso.combobackend.modules.location.service;
 
+import com.sbaldasso.combobackend.modules.location.domain.DriverLocationUpdatedEvent;
 import com.sbaldasso.combobackend.modules.location.domain.Location;
+import com.sbaldasso.combobackend.modules.location.domain.LocationPing;
 import com.sbaldasso.combobackend.modules.location.repository.LocationRepository;
 import com.sbaldasso.combobackend.modules.notification.service.WebSocketService;
 import com.sbaldasso.combobackend.modules.user.domain.User;
@@ -10,7 +12,13 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,12 +32,28 @@ class LocationServiceImplTest {
   private UserService userService;
   @Mock
   private WebSocketService webSocketService;
+  @Mock
+  private DriverSpatialIndex driverSpatialIndex;
+  @Mock
+  private DriverLivenessTracker driverLivenessTracker;
+  @Mock
+  private LocationWriteBuffer locationWriteBuffer;
+  @Mock
+  private TransactionTemplate transactionTemplate;
+  @Mock
+  private LocationHistoryStore locationHistoryStore;
+  @Mock
+  private LocationUpdateFilter locationUpdateFilter;
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
   @InjectMocks
   private LocationServiceImpl locationService;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+        invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
   }
 
   @Test
@@ -45,6 +69,46 @@ class LocationServiceImplTest {
     assertNotNull(result);
     verify(locationRepository).save(any(Location.class));
     verify(webSocketService).sendLocationUpdate(anyString(), any(Location.class));
+    verify(driverSpatialIndex).update(driverId, 1.0, 2.0);
+    verify(locationHistoryStore).append(any(LocationPing.class));
+    verify(eventPublisher).publishEvent(any(DriverLocationUpdatedEvent.class));
+  }
+
+  @Test
+  void updateDriverLocation_suppressedPingIsRecordedButNotPersistedOrBroadcast() {
+    UUID driverId = UUID.randomUUID();
+    Location lastAccepted = new Location();
+    when(locationUpdateFilter.suppress(eq(driverId), eq(1.0), eq(2.0), any(), any(), any()))
+        .thenReturn(Optional.of(lastAccepted));
+    Location result = locationService.updateDriverLocation(driverId, 1.0, 2.0, 0.0, 0.0);
+    assertSame(lastAccepted, result);
+    verify(locationHistoryStore).append(any(LocationPing.class));
+    verify(locationRepository, never()).save(any(Location.class));
+    verifyNoInteractions(webSocketService);
+  }
+
+  @Test
+  void updateDriverLocation_writeBehindBuffersWithoutSaving() {
+    UUID driverId = UUID.randomUUID();
+    Location buffered = new Location();
+    when(locationWriteBuffer.isEnabled()).thenReturn(true);
+    when(locationWriteBuffer.isTracked(driverId)).thenReturn(true);
+    when(locationWriteBuffer.offer(eq(driverId), eq(1.0), eq(2.0), eq(3.0), eq(4.0), any(LocalDateTime.class)))
+        .thenReturn(buffered);
+    Location result = locationService.updateDriverLocation(driverId, 1.0, 2.0, 3.0, 4.0);
+    assertSame(buffered, result);
+    verify(locationRepository, never()).save(any(Location.class));
+    verifyNoInteractions(userService);
+  }
+
+  @Test
+  void getDriverLocation_prefersBufferedPosition() {
+    UUID driverId = UUID.randomUUID();
+    Location buffered = new Location();
+    when(locationWriteBuffer.isEnabled()).thenReturn(true);
+    when(locationWriteBuffer.peek(driverId)).thenReturn(Optional.of(buffered));
+    assertSame(buffered, locationService.getDriverLocation(driverId).orElseThrow());
+    verify(locationRepository, never()).findByDriverId(driverId);
   }
 
   @Test
@@ -54,6 +118,7 @@ class LocationServiceImplTest {
     when(locationRepository.findByDriverId(driverId)).thenReturn(Optional.of(location));
     locationService.setDriverAvailability(driverId, false);
     verify(locationRepository).save(location);
+    verify(driverSpatialIndex).remove(driverId);
   }
 
   @Test
@@ -64,4 +129,42 @@ class LocationServiceImplTest {
     Optional<Location> result = locationService.getDriverLocation(driverId);
     assertTrue(result.isPresent());
   }
+
+  @Test
+  void updateDriverLocation_revivesExpiredDriver() {
+    UUID driverId = UUID.randomUUID();
+    User driver = new User();
+    driver.setId(driverId);
+    Location location = new Location();
+    location.setDriver(driver);
+    location.setLatitude(1.0);
+    location.setLongitude(2.0);
+    location.setAvailable(false);
+    when(driverLivenessTracker.touch(driverId)).thenReturn(true);
+    when(userService.validateAndGetUser(driverId)).thenReturn(driver);
+    when(locationRepository.findByDriverId(driverId)).thenReturn(Optional.of(location));
+    when(locationRepository.save(any(Location.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    locationService.updateDriverLocation(driverId, 1.0, 2.0, 0.0, 0.0);
+    assertTrue(location.isAvailable());
+    verify(driverLivenessTracker, atLeastOnce()).track(driverId);
+  }
+
+  @Test
+  void getDriverLocations_prefersBufferedPositionsAndQueriesTheRestOnce() {
+    UUID buffered = UUID.randomUUID();
+    UUID persisted = UUID.randomUUID();
+    Location bufferedLocation = new Location();
+    Location persistedLocation = new Location();
+    persistedLocation.setDriver(new User(persisted));
+    when(locationWriteBuffer.isEnabled()).thenReturn(true);
+    when(locationWriteBuffer.peek(buffered)).thenReturn(Optional.of(bufferedLocation));
+    when(locationWriteBuffer.peek(persisted)).thenReturn(Optional.empty());
+    when(locationRepository.findByDriverIdIn(List.of(persisted))).thenReturn(List.of(persistedLocation));
+
+    Map<UUID, Location> result = locationService.getDriverLocations(List.of(buffered, persisted));
+
+    assertSame(bufferedLocation, result.get(buffered));
+    assertSame(persistedLocation, result.get(persisted));
+    verify(locationRepository, never()).findByDriverId(any());
+  }
 }
@@ -0,0 +1,62 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.domain.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationUpdateFilterTest {
+  private LocationUpdateFilter filter;
+  private UUID driverId;
+  private LocalDateTime start;
+
+  @BeforeEach
+  void setUp() {
+    filter = new LocationUpdateFilter(new LocationConfig());
+    driverId = UUID.randomUUID();
+    start = LocalDateTime.of(2026, 1, 1, 12, 0);
+  }
+
+  @Test
+  void suppress_parkedDriverIsSuppressedUntilMaxInterval() {
+    filter.accept(driverId, location(-23.55, -46.63, 0.0, 90.0), start);
+
+    assertTrue(filter.suppress(driverId, -23.55001, -46.63001, 0.0, 90.0, start.plusSeconds(10)).isPresent());
+    assertTrue(filter.suppress(driverId, -23.55, -46.63, 0.0, 90.0, start.plusSeconds(61)).isEmpty());
+  }
+
+  @Test
+  void suppress_driverFollowingPredictionIsSuppressed() {
+    // 10 m/s due north for 10 s is about 100 m, i.e. 0.0009 degrees of latitude.
+    filter.accept(driverId, location(-23.55, -46.63, 10.0, 0.0), start);
+
+    assertTrue(filter.suppress(driverId, -23.5491, -46.63, 10.0, 0.0, start.plusSeconds(10)).isPresent());
+  }
+
+  @Test
+  void suppress_deviationOrTurnIsAccepted() {
+    filter.accept(driverId, location(-23.55, -46.63, 10.0, 0.0), start);
+
+    assertTrue(filter.suppress(driverId, -23.55, -46.63, 10.0, 0.0, start.plusSeconds(10)).isEmpty());
+    assertTrue(filter.suppress(driverId, -23.5491, -46.63, 10.0, 90.0, start.plusSeconds(10)).isEmpty());
+  }
+
+  @Test
+  void suppress_unknownDriverIsAccepted() {
+    assertTrue(filter.suppress(driverId, -23.55, -46.63, null, null, start).isEmpty());
+  }
+
+  private Location location(double latitude, double longitude, Double speed, Double heading) {
+    Location location = new Location();
+    location.setLatitude(latitude);
+    location.setLongitude(longitude);
+    location.setSpeed(speed);
+    location.setHeading(heading);
+    return location;
+  }
+}
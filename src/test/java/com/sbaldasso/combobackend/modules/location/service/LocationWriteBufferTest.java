@@ -0,0 +1,81 @@
+package com.sbaldasso.combobackend.modules.location.service;
+
+import com.sbaldasso.combobackend.modules.location.config.LocationConfig;
+import com.sbaldasso.combobackend.modules.location.domain.Location;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LocationWriteBufferTest {
+  @Mock
+  private LocationBatchWriter locationBatchWriter;
+
+  private LocationWriteBuffer buffer;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    LocationConfig config = new LocationConfig();
+    config.getWriteBehind().setEnabled(true);
+    buffer = new LocationWriteBuffer(locationBatchWriter, config);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void flush_writesOnlyLatestPositionPerDriver() {
+    UUID driverId = UUID.randomUUID();
+    buffer.track(locationOf(driverId));
+    buffer.offer(driverId, 1.0, 1.0, null, null, LocalDateTime.now());
+    buffer.offer(driverId, 2.0, 2.0, null, null, LocalDateTime.now());
+
+    buffer.flush();
+
+    ArgumentCaptor<List<Location>> rows = ArgumentCaptor.forClass(List.class);
+    verify(locationBatchWriter, times(1)).upsert(rows.capture());
+    assertEquals(1, rows.getValue().size());
+    assertEquals(2.0, rows.getValue().get(0).getLatitude());
+  }
+
+  @Test
+  void flush_retriesRowsThatFailedToWrite() {
+    UUID driverId = UUID.randomUUID();
+    buffer.track(locationOf(driverId));
+    buffer.offer(driverId, 1.0, 1.0, null, null, LocalDateTime.now());
+    doThrow(new IllegalStateException("down")).doReturn(Set.of()).when(locationBatchWriter).upsert(anyList());
+
+    buffer.flush();
+    buffer.flush();
+
+    verify(locationBatchWriter, times(2)).upsert(anyList());
+  }
+
+  @Test
+  void peek_returnsNewestPositionBeforeFlush() {
+    UUID driverId = UUID.randomUUID();
+    buffer.track(locationOf(driverId));
+    buffer.offer(driverId, 3.0, 4.0, 10.0, 90.0, LocalDateTime.now());
+
+    Location location = buffer.peek(driverId).orElseThrow();
+
+    assertEquals(3.0, location.getLatitude());
+    assertEquals(4.0, location.getLongitude());
+    verifyNoInteractions(locationBatchWriter);
+  }
+
+  private Location locationOf(UUID driverId) {
+    Location location = new Location();
+    location.setDriver(new User(driverId));
+    return location;
+  }
+}
@@ -0,0 +1,108 @@
+package com.sbaldasso.combobackend.modules.notification.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AfterCommitTaskExecutorTest {
+
+  private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+  private final TransactionStatus transactionStatus = mock(TransactionStatus.class);
+  private AfterCommitTaskExecutor executor;
+
+  @BeforeEach
+  void setUp() {
+    when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+    executor = new AfterCommitTaskExecutor(transactionManager);
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setQueueCapacity(0);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.initialize();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdown();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void execute_runsRightAwayOutsideTransactions() throws InterruptedException {
+    CountDownLatch ran = new CountDownLatch(1);
+    executor.execute(ran::countDown);
+    assertTrue(ran.await(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void submit_waitsForTheTransactionToCommit() throws Exception {
+    TransactionSynchronizationManager.initSynchronization();
+    CountDownLatch ran = new CountDownLatch(1);
+
+    Future<?> future = executor.submit(ran::countDown);
+    assertFalse(ran.await(100, TimeUnit.MILLISECONDS));
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    future.get(1, TimeUnit.SECONDS);
+    assertEquals(0, ran.getCount());
+    verifyNoInteractions(transactionManager);
+  }
+
+  @Test
+  void submit_runsInANewTransactionWhenThePoolHandsItBackToTheCommittingThread() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    executor.execute(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    TransactionSynchronizationManager.initSynchronization();
+    AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+    Future<?> future = executor.submit(() -> ranOn.set(Thread.currentThread()));
+    try {
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      release.countDown();
+    }
+
+    future.get(1, TimeUnit.SECONDS);
+    assertSame(Thread.currentThread(), ranOn.get());
+    ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+    verify(transactionManager).getTransaction(definition.capture());
+    assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+    verify(transactionManager).commit(transactionStatus);
+  }
+
+  @Test
+  void submit_isDroppedWhenTheTransactionRollsBack() throws InterruptedException {
+    TransactionSynchronizationManager.initSynchronization();
+    CountDownLatch ran = new CountDownLatch(1);
+
+    Future<?> future = executor.submit(ran::countDown);
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+    assertTrue(future.isCancelled());
+    assertFalse(ran.await(100, TimeUnit.MILLISECONDS));
+  }
+}
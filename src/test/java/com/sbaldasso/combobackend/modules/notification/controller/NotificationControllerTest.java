@@ -1,6 +1,7 @@
 package com.sbaldasso.combobackend.modules.notification.controller;
 
 import com.sbaldasso.combobackend.modules.notification.domain.Notification;
+import com.sbaldasso.combobackend.modules.notification.dto.UnreadCountResponse;
 import com.sbaldasso.combobackend.modules.notification.service.NotificationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +39,14 @@ class NotificationControllerTest {
     assertEquals(page, result.getBody());
   }
 
+  @Test
+  void getUnreadCount_returnsCount() {
+    UUID userId = UUID.randomUUID();
+    when(notificationService.getUnreadCount(userId)).thenReturn(7L);
+    ResponseEntity<UnreadCountResponse> result = notificationController.getUnreadCount(userId);
+    assertEquals(7, result.getBody().getUnread());
+  }
+
   @Test
   void markAsRead_returnsOk() {
     UUID notificationId = UUID.randomUUID();
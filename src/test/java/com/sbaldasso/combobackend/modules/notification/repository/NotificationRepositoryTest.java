@@ -1,10 +1,15 @@
 package com.sbaldasso.combobackend.modules.notification.repository;
 
 import com.sbaldasso.combobackend.modules.notification.domain.Notification;
+import com.sbaldasso.combobackend.modules.notification.domain.NotificationType;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import com.sbaldasso.combobackend.modules.user.domain.UserType;
+import com.sbaldasso.combobackend.modules.user.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,6 +19,30 @@ import static org.junit.jupiter.api.Assertions.*;
 class NotificationRepositoryTest {
   @Autowired
   private NotificationRepository notificationRepository;
+  @Autowired
+  private UserRepository userRepository;
+
+  @Test
+  void markRead_flipsAnUnreadNotificationOnlyOnce() {
+    User user = new User();
+    user.setName("driver");
+    user.setEmail("driver-" + UUID.randomUUID() + "@example.com");
+    user.setPassword("secret");
+    user.setPhone("5511999999999");
+    user.setUserType(UserType.DRIVER);
+    user = userRepository.save(user);
+    Notification notification = new Notification();
+    notification.setUser(user);
+    notification.setTitle("title");
+    notification.setMessage("message");
+    notification.setType(NotificationType.NEW_DELIVERY_REQUEST);
+    notification = notificationRepository.save(notification);
+
+    assertEquals(1, notificationRepository.markRead(notification.getId(), LocalDateTime.now()));
+    assertEquals(0, notificationRepository.markRead(notification.getId(), LocalDateTime.now()));
+    assertTrue(notificationRepository.findById(notification.getId()).orElseThrow().isRead());
+    assertEquals(Optional.of(user.getId()), notificationRepository.findUserIdById(notification.getId()));
+  }
 
   @Test
   void findByUserIdOrderByCreatedAtDesc_returnsEmptyPageIfNotFound() {
@@ -0,0 +1,106 @@
+package com.sbaldasso.combobackend.modules.notification.service;
+
+import com.sbaldasso.combobackend.modules.notification.config.NotificationConfig;
+import com.sbaldasso.combobackend.modules.notification.domain.Notification;
+import com.sbaldasso.combobackend.modules.notification.domain.NotificationType;
+import com.sbaldasso.combobackend.modules.notification.dto.NotificationFrame;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NotificationPushBufferTest {
+  @Mock
+  private WebSocketService webSocketService;
+  @Mock
+  private SimpUserRegistry simpUserRegistry;
+
+  private NotificationPushBuffer buffer;
+  private final UUID connectedUserId = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(simpUserRegistry.getUser(connectedUserId.toString())).thenReturn(mock(SimpUser.class));
+    NotificationConfig config = new NotificationConfig();
+    config.getPush().setMaxPerFrame(3);
+    buffer = new NotificationPushBuffer(webSocketService, simpUserRegistry, config);
+  }
+
+  @Test
+  void flush_coalescesABurstIntoOneFrame() {
+    buffer.enqueue(List.of(notification(connectedUserId, "first")));
+    buffer.enqueue(List.of(notification(connectedUserId, "second")));
+
+    buffer.flush();
+
+    ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+    verify(webSocketService, times(1)).sendNotification(eq(connectedUserId.toString()), frame.capture());
+    NotificationFrame sent = (NotificationFrame) frame.getValue();
+    assertEquals(List.of("first", "second"), sent.getNotifications().stream().map(n -> n.getTitle()).toList());
+    assertFalse(sent.isTruncated());
+
+    buffer.flush();
+    verifyNoMoreInteractions(webSocketService);
+  }
+
+  @Test
+  void flush_sendsEachUsersFramesInOrder() {
+    buffer.enqueue(List.of(notification(connectedUserId, "first")));
+    buffer.flush();
+    buffer.enqueue(List.of(notification(connectedUserId, "second")));
+    buffer.flush();
+
+    InOrder inOrder = inOrder(webSocketService);
+    inOrder.verify(webSocketService).sendNotification(eq(connectedUserId.toString()),
+        argThat(frame -> ((NotificationFrame) frame).getNotifications().get(0).getTitle().equals("first")));
+    inOrder.verify(webSocketService).sendNotification(eq(connectedUserId.toString()),
+        argThat(frame -> ((NotificationFrame) frame).getNotifications().get(0).getTitle().equals("second")));
+  }
+
+  @Test
+  void enqueue_skipsUsersWithoutSession() {
+    buffer.enqueue(List.of(notification(UUID.randomUUID(), "offline")));
+    buffer.flush();
+    verifyNoInteractions(webSocketService);
+  }
+
+  @Test
+  void flush_keepsTheNewestWhenTheBurstExceedsTheFrame() {
+    List<Notification> burst = new ArrayList<>();
+    for (int i = 1; i <= 5; i++) {
+      burst.add(notification(connectedUserId, "n" + i));
+    }
+    buffer.enqueue(burst);
+
+    buffer.flush();
+
+    ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+    verify(webSocketService).sendNotification(eq(connectedUserId.toString()), frame.capture());
+    NotificationFrame sent = (NotificationFrame) frame.getValue();
+    assertEquals(List.of("n3", "n4", "n5"), sent.getNotifications().stream().map(n -> n.getTitle()).toList());
+    assertTrue(sent.isTruncated());
+  }
+
+  private Notification notification(UUID userId, String title) {
+    Notification notification = new Notification();
+    notification.setId(UUID.randomUUID());
+    notification.setUser(new User(userId));
+    notification.setTitle(title);
+    notification.setMessage(title);
+    notification.setType(NotificationType.SYSTEM_ALERT);
+    return notification;
+  }
+}
@@ -1,20 +1,27 @@
 package com.sbaldasso.combobackend.modules.notification.service;
 
 import com.sbaldasso.combobackend.modules.delivery.domain.Delivery;
-import com.sbaldasso.combobackend.modules.location.repository.LocationRepository;
+import com.sbaldasso.combobackend.modules.location.domain.NearbyDriver;
+import com.sbaldasso.combobackend.modules.location.service.DriverSpatialIndex;
+import com.sbaldasso.combobackend.modules.notification.config.NotificationConfig;
 import com.sbaldasso.combobackend.modules.notification.domain.Notification;
 import com.sbaldasso.combobackend.modules.notification.repository.NotificationRepository;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,13 +32,77 @@ class NotificationServiceImplTest {
   @Mock
   private NotificationRepository notificationRepository;
   @Mock
-  private LocationRepository locationRepository;
+  private DriverSpatialIndex driverSpatialIndex;
+  @Mock
+  private NotificationConfig notificationConfig;
+  @Mock
+  private NotificationBatchWriter notificationBatchWriter;
+  @Mock
+  private NotificationPushBuffer notificationPushBuffer;
+  @Mock
+  private NotificationUnreadCounter notificationUnreadCounter;
+  @Spy
+  private MeterRegistry meterRegistry = new SimpleMeterRegistry();
   @InjectMocks
   private NotificationServiceImpl notificationService;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    when(notificationConfig.getMaxRecipients()).thenReturn(500);
+    when(notificationBatchWriter.insert(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+  }
+
+  @Test
+  void notifyNearbyDrivers_notifiesOnlyDriversWithinRadius() {
+    Delivery delivery = new Delivery();
+    delivery.setId(UUID.randomUUID());
+    delivery.setPickupAddress("Rua A, 1");
+    delivery.setPickupLatitude(-23.55);
+    delivery.setPickupLongitude(-46.63);
+    UUID nearbyDriverId = UUID.randomUUID();
+    when(notificationConfig.getNearbyRadiusKm()).thenReturn(5.0);
+    when(driverSpatialIndex.findWithinRadius(-23.55, -46.63, 5.0))
+        .thenReturn(List.of(new NearbyDriver(nearbyDriverId, -23.551, -46.631, 0.15)));
+    notificationService.notifyNearbyDrivers(delivery);
+    verify(notificationBatchWriter, times(1)).insert(argThat(notifications ->
+        notifications.size() == 1 && notifications.get(0).getUser().getId().equals(nearbyDriverId)));
+    verify(notificationRepository, never()).save(any());
+    verify(driverSpatialIndex, never()).availableDriverIds();
+  }
+
+  @Test
+  void notifyNearbyDrivers_capsRecipientsToTheClosest() {
+    Delivery delivery = new Delivery();
+    delivery.setId(UUID.randomUUID());
+    delivery.setPickupLatitude(-23.55);
+    delivery.setPickupLongitude(-46.63);
+    UUID closest = UUID.randomUUID();
+    when(notificationConfig.getNearbyRadiusKm()).thenReturn(5.0);
+    when(notificationConfig.getMaxRecipients()).thenReturn(1);
+    when(driverSpatialIndex.findWithinRadius(-23.55, -46.63, 5.0)).thenReturn(List.of(
+        new NearbyDriver(closest, -23.551, -46.631, 0.15),
+        new NearbyDriver(UUID.randomUUID(), -23.56, -46.64, 1.4)));
+    notificationService.notifyNearbyDrivers(delivery);
+    verify(notificationBatchWriter).insert(argThat(notifications ->
+        notifications.size() == 1 && notifications.get(0).getUser().getId().equals(closest)));
+    assertEquals(1.0, meterRegistry.counter("notifications.fanout.rows").count());
+    assertEquals(1, meterRegistry.timer("notifications.fanout").count());
+  }
+
+  @Test
+  void notifyNearbyDrivers_insertsNotificationsOfAWholeBatchAtOnce() {
+    Delivery first = new Delivery();
+    first.setId(UUID.randomUUID());
+    Delivery second = new Delivery();
+    second.setId(UUID.randomUUID());
+    when(driverSpatialIndex.availableDriverIds()).thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID()));
+    notificationService.notifyNearbyDrivers(List.of(first, second));
+    verify(notificationBatchWriter, times(1)).insert(argThat(notifications -> notifications.size() == 4));
+    verify(notificationPushBuffer).enqueue(argThat(notifications -> notifications.size() == 4));
+    verify(notificationUnreadCounter).recordCreated(argThat(notifications -> notifications.size() == 4));
+    verify(notificationRepository, never()).save(any());
+    verify(notificationRepository, never()).saveAll(any());
   }
 
   @Test
@@ -43,20 +114,38 @@ class NotificationServiceImplTest {
     assertEquals(page, result);
   }
 
+  @Test
+  void getUnreadCount_readsTheCounter() {
+    UUID userId = UUID.randomUUID();
+    when(notificationUnreadCounter.unreadCount(userId)).thenReturn(3L);
+    assertEquals(3, notificationService.getUnreadCount(userId));
+    verifyNoInteractions(notificationRepository);
+  }
+
   @Test
   void markNotificationAsRead_updatesNotification() {
     UUID notificationId = UUID.randomUUID();
-    Notification notification = new Notification();
-    when(notificationRepository.findById(notificationId)).thenReturn(Optional.of(notification));
+    UUID userId = UUID.randomUUID();
+    when(notificationRepository.markRead(eq(notificationId), any(LocalDateTime.class))).thenReturn(1);
+    when(notificationRepository.findUserIdById(notificationId)).thenReturn(Optional.of(userId));
+    notificationService.markNotificationAsRead(notificationId);
+    verify(notificationUnreadCounter).recordRead(userId);
+    verify(notificationRepository, never()).save(any());
+  }
+
+  @Test
+  void markNotificationAsRead_alreadyReadIsNotCountedTwice() {
+    UUID notificationId = UUID.randomUUID();
+    when(notificationRepository.markRead(eq(notificationId), any(LocalDateTime.class))).thenReturn(0);
     notificationService.markNotificationAsRead(notificationId);
-    assertTrue(notification.isRead());
-    assertNotNull(notification.getReadAt());
-    verify(notificationRepository).save(notification);
+    verify(notificationRepository, never()).findUserIdById(any());
+    verifyNoInteractions(notificationUnreadCounter);
   }
 
   @Test
   void deleteOldNotifications_deletesByDate() {
     notificationService.deleteOldNotifications();
     verify(notificationRepository).deleteByCreatedAtBefore(any(LocalDateTime.class));
+    verify(notificationUnreadCounter).reconcileAfterCommit();
   }
 }
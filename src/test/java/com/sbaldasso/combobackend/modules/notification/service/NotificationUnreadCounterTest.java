@@ -0,0 +1,188 @@
+package com.sbaldasso.combobackend.modules.notification.service;
+
+import com.sbaldasso.combobackend.modules.notification.config.NotificationConfig;
+import com.sbaldasso.combobackend.modules.notification.domain.Notification;
+import com.sbaldasso.combobackend.modules.user.domain.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NotificationUnreadCounterTest {
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private NotificationUnreadCounter counter;
+  private final UUID userId = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(userId))).thenReturn(List.of(3L));
+    counter = new NotificationUnreadCounter(jdbcTemplate, transactionManager, new NotificationConfig());
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void unreadCount_addsPendingChangesToTheCachedSummary() {
+    counter.recordCreated(List.of(notification(userId), notification(userId)));
+    counter.recordRead(userId);
+
+    assertEquals(4, counter.unreadCount(userId));
+    assertEquals(4, counter.unreadCount(userId));
+    verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), eq(userId));
+  }
+
+  @Test
+  void recordCreated_waitsForTheTransactionToCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+    counter.recordCreated(List.of(notification(userId)));
+    assertEquals(3, counter.unreadCount(userId));
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    assertEquals(4, counter.unreadCount(userId));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void flush_writesOneDeltaPerUserAndKeepsTheCount() throws SQLException {
+    assertEquals(3, counter.unreadCount(userId));
+    counter.recordCreated(List.of(notification(userId), notification(userId)));
+    counter.recordRead(userId);
+
+    counter.flush();
+
+    ArgumentCaptor<Collection<Object>> changes = ArgumentCaptor.forClass(Collection.class);
+    ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> setter =
+        ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+    verify(jdbcTemplate).batchUpdate(anyString(), changes.capture(), eq(500), setter.capture());
+    assertEquals(1, changes.getValue().size());
+    PreparedStatement ps = mock(PreparedStatement.class);
+    setter.getValue().setValues(ps, changes.getValue().iterator().next());
+    verify(ps).setObject(1, userId);
+    verify(ps).setLong(2, 1L);
+
+    assertEquals(4, counter.unreadCount(userId));
+    verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), eq(userId));
+
+    counter.flush();
+    verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+  }
+
+  @Test
+  void flush_keepsChangesWhenTheWriteFails() {
+    counter.recordCreated(List.of(notification(userId)));
+    when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+        .thenThrow(new IllegalStateException("database unavailable"));
+
+    counter.flush();
+    assertEquals(4, counter.unreadCount(userId));
+
+    counter.flush();
+    verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+  }
+
+  @Test
+  void reconcile_reloadsTheSummaryOnTheNextRead() {
+    assertEquals(3, counter.unreadCount(userId));
+    when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(userId))).thenReturn(List.of(1L));
+
+    counter.reconcile();
+
+    verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+    assertEquals(1, counter.unreadCount(userId));
+  }
+
+  @Test
+  void flush_neverLosesChangesRecordedWhileItEvictsTheCounter() throws Exception {
+    AtomicLong flushed = new AtomicLong();
+    PreparedStatement ps = mock(PreparedStatement.class);
+    doAnswer(invocation -> {
+      if (invocation.<Integer>getArgument(0) == 2) {
+        flushed.addAndGet(invocation.<Long>getArgument(1));
+      }
+      return null;
+    }).when(ps).setLong(anyInt(), anyLong());
+    when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+      Collection<Object> changes = invocation.getArgument(1);
+      ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+      for (Object change : changes) {
+        setter.setValues(ps, change);
+      }
+      return new int[0][];
+    });
+
+    int writers = 4;
+    int rounds = 20_000;
+    List<Notification> created = List.of(notification(userId));
+    ExecutorService pool = Executors.newFixedThreadPool(writers);
+    CountDownLatch done = new CountDownLatch(writers);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int i = 0; i < writers; i++) {
+        results.add(pool.submit(() -> {
+          try {
+            // Each round nets to zero, so flush keeps finding an idle counter to evict.
+            for (int round = 0; round < rounds; round++) {
+              counter.recordCreated(created);
+              counter.recordRead(userId);
+            }
+            counter.recordCreated(created);
+          } finally {
+            done.countDown();
+          }
+        }));
+      }
+      while (done.getCount() > 0) {
+        counter.flush();
+      }
+      for (Future<?> result : results) {
+        result.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    counter.flush();
+
+    assertEquals(writers, flushed.get());
+  }
+
+  private Notification notification(UUID recipient) {
+    Notification notification = new Notification();
+    notification.setUser(new User(recipient));
+    return notification;
+  }
+}